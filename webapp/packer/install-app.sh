@@ -54,7 +54,14 @@ fi
 # Create and secure application directory
 echo "Setting up application directory..."
 sudo mkdir -p /opt/app
-sudo cp /tmp/cloud-0.0.1-SNAPSHOT.jar /opt/app/
+
+# Fast start: the jar (built with -Pfaststart, so it carries the Spring AOT bean definitions) is extracted into an
+# application jar plus lib/, and a training run with this image's JVM writes the class data sharing archive
+# that webapp.service maps at startup. The archive is only valid for the JVM that created it
+echo "Extracting application and creating the class data sharing archive..."
+sudo java -Djarmode=tools -jar /tmp/cloud-0.0.1-SNAPSHOT.jar extract --force --destination /opt/app
+sudo java -XX:ArchiveClassesAtExit=/opt/app/application.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+  -jar /opt/app/cloud-0.0.1-SNAPSHOT.jar --spring.profiles.active=training
 
 # Set ownership and permissions
 sudo chown -R csye6225:csye6225 /opt/app
@@ -0,0 +1,17 @@
+package com.srivarini.csye6225.cloud.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+// Benchmarks run outside Spring Boot, where Logback falls back to DEBUG on the console. Turning logging off keeps
+// console I/O out of the measurements, so results reflect the code under test rather than the appender.
+final class BenchmarkLogging {
+
+    private BenchmarkLogging() {
+    }
+
+    static void silence() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+    }
+}
@@ -0,0 +1,53 @@
+package com.srivarini.csye6225.cloud.benchmark;
+
+import com.srivarini.csye6225.cloud.exception.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.util.concurrent.TimeUnit;
+
+// Error-path cost in GlobalExceptionHandler. Creating the exception (stack trace capture) is measured separately
+// from handling a pre-built one, since deep Spring call stacks make fillInStackTrace the dominant term.
+// Logging is off, so appender and stack-trace formatting costs are not included.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private RuntimeException runtimeException;
+    private CannotGetJdbcConnectionException databaseException;
+
+    @Setup
+    public void setUp() {
+        BenchmarkLogging.silence();
+        handler = new GlobalExceptionHandler();
+        runtimeException = new IllegalStateException("S3 upload failed");
+        databaseException = new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection");
+    }
+
+    @Benchmark
+    public ResponseEntity<Void> handleRuntimeException() {
+        return handler.handleRuntimeExceptions(runtimeException);
+    }
+
+    @Benchmark
+    public ResponseEntity<Void> handleDatabaseException() {
+        return handler.handleDatabaseExceptions(databaseException);
+    }
+
+    @Benchmark
+    public ResponseEntity<Void> createAndHandleRuntimeException() {
+        return handler.handleRuntimeExceptions(new IllegalStateException("S3 upload failed"));
+    }
+
+    @Benchmark
+    public ResponseEntity<Void> createAndHandleSdkClientException() {
+        return handler.handleSdkClientException(SdkClientException.create("Unable to execute HTTP request"));
+    }
+}
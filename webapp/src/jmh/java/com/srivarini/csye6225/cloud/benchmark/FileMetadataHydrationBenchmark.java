@@ -0,0 +1,78 @@
+package com.srivarini.csye6225.cloud.benchmark;
+
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Hibernate loading FileMetadata rows from in-memory H2 (MySQL mode) into fresh sessions, so every call hydrates
+// entities rather than returning them from the persistence context
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileMetadataHydrationBenchmark {
+
+    private static final int ROWS = 100;
+
+    private SessionFactory sessionFactory;
+    private final List<UUID> ids = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        BenchmarkLogging.silence();
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(FileMetadata.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:hydration;MODE=MySQL;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .buildSessionFactory();
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < ROWS; i++) {
+                FileMetadata metadata = new FileMetadata(UUID.randomUUID() + "-file-" + i + ".bin",
+                        "https://bench-bucket.s3.amazonaws.com/file-" + i + ".bin", LocalDateTime.now());
+                session.persist(metadata);
+                ids.add(metadata.getId());
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public FileMetadata findById() {
+        UUID id = ids.get(next++ % ROWS);
+        try (Session session = sessionFactory.openSession()) {
+            return session.find(FileMetadata.class, id);
+        }
+    }
+
+    @Benchmark
+    public List<FileMetadata> hydrateHundredRows() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createSelectionQuery("from FileMetadata", FileMetadata.class).getResultList();
+        }
+    }
+
+    @Benchmark
+    public List<FileMetadata> hydrateHundredRowsReadOnly() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createSelectionQuery("from FileMetadata", FileMetadata.class)
+                    .setReadOnly(true)
+                    .getResultList();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.srivarini.csye6225.cloud.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.srivarini.csye6225.cloud.controller.FileController;
+import com.srivarini.csye6225.cloud.controller.FileMetadataResponse;
+import com.srivarini.csye6225.cloud.controller.FileMetadataResponseSerializer;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import com.srivarini.csye6225.cloud.service.FileMetadataCache;
+import com.srivarini.csye6225.cloud.service.MetricsService;
+import com.srivarini.csye6225.cloud.service.S3ServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// GET /v1/file/{id} on a metadata cache hit: FileController building the response body, and its JSON encoding
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileMetadataResponseBenchmark {
+
+    private final Map<String, String> noQueryParams = Map.of();
+    private MetricsService metricsService;
+    private FileController fileController;
+    private ObjectMapper objectMapper;
+    private UUID id;
+
+    @Setup
+    public void setUp() {
+        BenchmarkLogging.silence();
+        metricsService = new MetricsService("bench", "127.0.0.1", 8125, TimeUnit.HOURS.toMillis(1));
+        FileMetadataCache cache = new FileMetadataCache(metricsService, 10_000, 600, 30);
+
+        id = UUID.randomUUID();
+        FileMetadata metadata = new FileMetadata(UUID.randomUUID() + "-quarterly-report.pdf",
+                "https://bench-bucket.s3.amazonaws.com/quarterly-report.pdf", LocalDateTime.now());
+        ReflectionTestUtils.setField(metadata, "id", id);
+        cache.put(metadata);
+
+        S3ServiceImpl s3Service = new S3ServiceImpl();
+        ReflectionTestUtils.setField(s3Service, "metricsService", metricsService);
+        ReflectionTestUtils.setField(s3Service, "fileMetadataCache", cache);
+
+        fileController = new FileController();
+        ReflectionTestUtils.setField(fileController, "s3Service", s3Service);
+        ReflectionTestUtils.setField(fileController, "metricsService", metricsService);
+        fileController.registerMetrics();
+
+        // Same defaults Spring Boot applies to its auto-configured ObjectMapper, plus the @JsonComponent serializer
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modules(new SimpleModule().addSerializer(FileMetadataResponse.class, new FileMetadataResponseSerializer()))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        metricsService.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<FileMetadataResponse> buildResponse() {
+        return getFileMetadata();
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(getFileMetadata().getBody());
+    }
+
+    // No AsyncS3Service is set, so the controller answers with the ResponseEntity itself
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<FileMetadataResponse> getFileMetadata() {
+        return (ResponseEntity<FileMetadataResponse>) fileController.getFileMetadata(id, noQueryParams, null);
+    }
+}
@@ -0,0 +1,66 @@
+package com.srivarini.csye6225.cloud.benchmark;
+
+import com.srivarini.csye6225.cloud.service.MetricsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-call cost of recording metrics: lookups by name versus pre-registered handles, single- and multi-threaded
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsServiceBenchmark {
+
+    private MetricsService metricsService;
+    private MetricsService.Counter counter;
+    private MetricsService.Timer timer;
+
+    @Setup
+    public void setUp() {
+        BenchmarkLogging.silence();
+        // Nothing listens on the port; the flush interval is long enough that no flush lands inside a measurement
+        metricsService = new MetricsService("bench", "127.0.0.1", 8125, TimeUnit.HOURS.toMillis(1));
+        counter = metricsService.counter("controller.file.get.count");
+        timer = metricsService.timer("controller.file.get.timer");
+    }
+
+    @TearDown
+    public void tearDown() {
+        metricsService.close();
+    }
+
+    @Benchmark
+    public void incrementByName() {
+        metricsService.increment("controller.file.get.count");
+    }
+
+    @Benchmark
+    public void incrementHandle() {
+        counter.increment();
+    }
+
+    @Benchmark
+    public void timingByName() {
+        metricsService.timing("controller.file.get.timer", 12);
+    }
+
+    @Benchmark
+    public void timingHandleWithOutcome() {
+        timer.record(12, true);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void incrementHandleContended() {
+        counter.increment();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void timingHandleContended() {
+        timer.record(12, true);
+    }
+}
@@ -0,0 +1,81 @@
+package com.srivarini.csye6225.cloud.benchmark;
+
+import com.srivarini.csye6225.cloud.service.StorageCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+// CPU cost of encoding an upload body in S3ServiceImpl.uploadFile against the bytes it saves. An encoded upload
+// runs the encoder twice (measuring pass, then the PUT), so the per-upload cost is twice the score here.
+// storedBytes / inputBytes is the size ratio to weigh against the time per MiB across levels and payloads
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StorageCodecBenchmark {
+
+    private static final int PAYLOAD_SIZE = 1024 * 1024;
+
+    @Param({"json", "csv", "random"})
+    public String payload;
+
+    @Param({"1", "6", "9"})
+    public int level;
+
+    private byte[] content;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Sizes {
+        public long inputBytes;
+        public long storedBytes;
+    }
+
+    @Setup
+    public void setUp() {
+        content = switch (payload) {
+            case "json" -> repeat(i -> "{\"id\":\"" + i + "\",\"status\":\"healthy\",\"latency_ms\":" + (i % 97) + ",\"region\":\"us-east-1\"}\n");
+            case "csv" -> repeat(i -> "2025-01-01T00:00:" + (i % 60) + "Z,INFO,GET /v1/file/" + i + ",200," + (i % 350) + "\n");
+            default -> {
+                // Stands in for an already-compressed format (JPEG, ZIP): deflate finds nothing to remove
+                byte[] bytes = new byte[PAYLOAD_SIZE];
+                new Random(42).nextBytes(bytes);
+                yield bytes;
+            }
+        };
+    }
+
+    @Benchmark
+    public long identity() throws IOException {
+        try (InputStream in = StorageCodec.IDENTITY.encode(new ByteArrayInputStream(content), level)) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public long gzip(Sizes sizes) throws IOException {
+        try (InputStream in = StorageCodec.GZIP.encode(new ByteArrayInputStream(content), level)) {
+            long stored = in.transferTo(OutputStream.nullOutputStream());
+            sizes.inputBytes += content.length;
+            sizes.storedBytes += stored;
+            return stored;
+        }
+    }
+
+    private static byte[] repeat(IntFunction<String> line) {
+        StringBuilder builder = new StringBuilder(PAYLOAD_SIZE + 256);
+        for (int i = 0; builder.length() < PAYLOAD_SIZE; i++) {
+            builder.append(line.apply(i));
+        }
+        return builder.substring(0, PAYLOAD_SIZE).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,47 @@
+package com.srivarini.csye6225.cloud.benchmark;
+
+import com.srivarini.csye6225.cloud.model.UuidV7;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Object key generation in S3ServiceImpl.uploadFile: UUID.randomUUID() draws from SecureRandom on every upload.
+// uuidV7 is the file_metadata id generator, which also serializes callers on its counter
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UuidKeyBenchmark {
+
+    private final String originalFilename = "quarterly-report.pdf";
+
+    @Benchmark
+    public UUID randomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public String objectKey() {
+        return UUID.randomUUID().toString() + "-" + originalFilename;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID randomUuidContended() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID uuidV7() {
+        return UuidV7.generate();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID uuidV7Contended() {
+        return UuidV7.generate();
+    }
+}
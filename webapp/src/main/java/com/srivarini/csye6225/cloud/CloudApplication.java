@@ -2,8 +2,10 @@ package com.srivarini.csye6225.cloud;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CloudApplication {
 
 	public static void main(String[] args) {
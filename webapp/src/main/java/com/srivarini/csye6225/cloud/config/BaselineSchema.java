@@ -0,0 +1,133 @@
+package com.srivarini.csye6225.cloud.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// The tables V1__baseline.sql describes, i.e. what Hibernate's ddl-auto=update created before migrations: columns
+// (type and nullability), primary keys and indexes. V1 creates them only IF NOT EXISTS, so on such a database it
+// leaves whatever is there; this is what SchemaMigrations compares those tables with before recording V1. V1 can
+// never change (its checksum is recorded), so neither does this list; later versions make their own changes.
+// Read through DatabaseMetaData so the same check runs on MySQL and on H2 in the tests. Index names are not
+// compared, since Hibernate generated its own; an index matches when its columns (in order) and uniqueness do.
+final class BaselineSchema {
+
+    private static final List<Table> TABLES = List.of(
+            new Table("file_metadata",
+                    List.of(column("id", Types.BINARY, false), column("file_name", Types.VARCHAR, false),
+                            column("file_url", Types.VARCHAR, false), column("upload_date", Types.TIMESTAMP, false)),
+                    List.of("id"),
+                    List.of(new Index(true, List.of("file_name")))),
+            // Partitioning (HealthStatusPartitionManager) extends the primary key to (check_id, datetime)
+            new Table("health_status",
+                    List.of(column("check_id", Types.BIGINT, false), column("datetime", Types.TIMESTAMP, false)),
+                    List.of("check_id"),
+                    List.of()));
+
+    private BaselineSchema() {
+    }
+
+    // One line per difference; empty when every table matches
+    static List<String> differences(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        List<String> differences = new ArrayList<>();
+        for (Table table : TABLES) {
+            String name = metaData.storesUpperCaseIdentifiers() ? table.name().toUpperCase(Locale.ROOT) : table.name();
+            Map<String, Column> columns = columns(connection, metaData, name);
+            if (columns.isEmpty()) {
+                differences.add(table.name() + ": table is missing");
+                continue;
+            }
+            for (Column expected : table.columns()) {
+                Column actual = columns.get(expected.name());
+                if (actual == null) {
+                    differences.add(table.name() + "." + expected.name() + ": column is missing");
+                } else if (family(actual.type()) != family(expected.type()) || actual.nullable() != expected.nullable()) {
+                    differences.add(table.name() + "." + expected.name() + ": expected " + describe(expected) + ", found " + describe(actual));
+                }
+            }
+            List<String> primaryKey = primaryKey(connection, metaData, name);
+            if (primaryKey.size() < table.primaryKey().size() || !primaryKey.subList(0, table.primaryKey().size()).equals(table.primaryKey())) {
+                differences.add(table.name() + ": expected primary key " + table.primaryKey() + ", found " + primaryKey);
+            }
+            List<Index> indexes = indexes(connection, metaData, name);
+            for (Index expected : table.indexes()) {
+                if (!indexes.contains(expected)) {
+                    differences.add(table.name() + ": missing " + (expected.unique() ? "unique index" : "index") + " on " + expected.columns());
+                }
+            }
+        }
+        return differences;
+    }
+
+    private static Map<String, Column> columns(Connection connection, DatabaseMetaData metaData, String table) throws SQLException {
+        Map<String, Column> columns = new LinkedHashMap<>();
+        try (ResultSet rs = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, null)) {
+            while (rs.next()) {
+                String name = rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT);
+                columns.put(name, new Column(name, rs.getInt("DATA_TYPE"), rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls));
+            }
+        }
+        return columns;
+    }
+
+    private static List<String> primaryKey(Connection connection, DatabaseMetaData metaData, String table) throws SQLException {
+        Map<Integer, String> columns = new TreeMap<>();
+        try (ResultSet rs = metaData.getPrimaryKeys(connection.getCatalog(), connection.getSchema(), table)) {
+            while (rs.next()) {
+                columns.put(rs.getInt("KEY_SEQ"), rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+            }
+        }
+        return List.copyOf(columns.values());
+    }
+
+    private static List<Index> indexes(Connection connection, DatabaseMetaData metaData, String table) throws SQLException {
+        Map<String, Boolean> unique = new LinkedHashMap<>();
+        Map<String, Map<Integer, String>> columns = new LinkedHashMap<>();
+        try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, true)) {
+            while (rs.next()) {
+                if (rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+                    continue;
+                }
+                String index = rs.getString("INDEX_NAME");
+                unique.put(index, !rs.getBoolean("NON_UNIQUE"));
+                columns.computeIfAbsent(index, key -> new TreeMap<>())
+                        .put((int) rs.getShort("ORDINAL_POSITION"), rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+            }
+        }
+        return columns.entrySet().stream()
+                .map(entry -> new Index(unique.get(entry.getKey()), List.copyOf(entry.getValue().values())))
+                .toList();
+    }
+
+    // MySQL reports a BIT(1) column as BIT, H2 as BOOLEAN
+    private static int family(int type) {
+        return type == Types.BOOLEAN ? Types.BIT : type;
+    }
+
+    private static String describe(Column column) {
+        return JDBCType.valueOf(family(column.type())).getName() + (column.nullable() ? " NULL" : " NOT NULL");
+    }
+
+    private static Column column(String name, int type, boolean nullable) {
+        return new Column(name, type, nullable);
+    }
+
+    private record Table(String name, List<Column> columns, List<String> primaryKey, List<Index> indexes) {
+    }
+
+    private record Column(String name, int type, boolean nullable) {
+    }
+
+    private record Index(boolean unique, List<String> columns) {
+    }
+}
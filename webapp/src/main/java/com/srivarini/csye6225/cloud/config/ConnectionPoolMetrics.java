@@ -0,0 +1,68 @@
+package com.srivarini.csye6225.cloud.config;
+
+import com.srivarini.csye6225.cloud.service.MetricsService;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Hikari metrics tracker for every pool DatabaseConfig builds, reported as db.pool.<pool name>.*:
+//   wait.timer     time callers spent waiting for a connection (including waits that timed out)
+//   usage.timer    how long each connection was held before being returned
+//   timeout.count  connection requests that gave up after connection-timeout
+// and, sampled on a schedule, the active/idle/pending gauges plus utilization (active as % of maximum-pool-size)
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    @Autowired
+    private MetricsService metricsService;
+
+    private final Map<String, PoolStats> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        pools.put(poolName, poolStats);
+        String prefix = "db.pool." + poolName + ".";
+        MetricsService.Timer waitTimer = metricsService.timer(prefix + "wait.timer");
+        MetricsService.Timer usageTimer = metricsService.timer(prefix + "usage.timer");
+        MetricsService.Counter timeoutCount = metricsService.counter(prefix + "timeout.count");
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                waitTimer.recordNanos(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageTimer.record(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeoutCount.increment();
+            }
+
+            @Override
+            public void close() {
+                pools.remove(poolName);
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${db.pool.metrics.interval-ms:10000}")
+    public void sample() {
+        pools.forEach((poolName, stats) -> {
+            String prefix = "db.pool." + poolName + ".";
+            int active = stats.getActiveConnections();
+            metricsService.gauge(prefix + "active").set(active);
+            metricsService.gauge(prefix + "idle").set(stats.getIdleConnections());
+            metricsService.gauge(prefix + "pending").set(stats.getPendingThreads());
+            metricsService.gauge(prefix + "utilization").set(100L * active / Math.max(1, stats.getMaxConnections()));
+        });
+    }
+}
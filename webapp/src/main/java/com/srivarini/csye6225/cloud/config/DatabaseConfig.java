@@ -1,13 +1,22 @@
 package com.srivarini.csye6225.cloud.config;
 
+import com.srivarini.csye6225.cloud.service.MetricsService;
 import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Configuration
 public class DatabaseConfig {
@@ -26,9 +35,6 @@ public class DatabaseConfig {
     @Value("${spring.datasource.driver-class-name}")
     private String dbDriverClassName;
 
-    @Value("${spring.datasource.hikari.maximum-pool-size}")
-    private int maxPoolSize;
-
     @Value("${spring.datasource.hikari.connection-timeout}")
     private long connectionTimeout;
 
@@ -38,21 +44,132 @@ public class DatabaseConfig {
     @Value("${spring.datasource.hikari.idle-timeout}")
     private long idleTimeout;
 
-    //setting up the database connection
+    // Each workload gets its own pool so a burst of file operations cannot starve the ALB's health probes
+    @Value("${db.pool.health.maximum-pool-size:2}")
+    private int healthPoolSize;
+
+    @Value("${db.pool.health.connection-timeout:1000}")
+    private long healthConnectionTimeout;
+
+    @Value("${db.pool.read.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size}}")
+    private int readPoolSize;
+
+    @Value("${db.pool.write.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size}}")
+    private int writePoolSize;
+
+    // Comma-separated JDBC URLs of read replicas of the primary; empty keeps every read on the primary
+    @Value("${db.replica.urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${db.replica.maximum-pool-size:${db.pool.read.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size}}}")
+    private int replicaPoolSize;
+
+    @Value("${db.replica.lag-query:SHOW REPLICA STATUS}")
+    private String replicaLagQuery;
+
+    @Value("${db.replica.lag-column:Seconds_Behind_Source}")
+    private String replicaLagColumn;
+
+    @Value("${db.replica.max-lag-seconds:5}")
+    private long replicaMaxLagSeconds;
+
+    @Value("${db.replica.check-interval-ms:2000}")
+    private long replicaCheckInterval;
+
+    @Value("${db.bulkhead.enabled:false}")
+    private boolean bulkheadEnabled;
+
+    // Set to the read plus write pool sizes so the bulkhead admits as many callers as there are file-operation connections
+    @Value("${db.bulkhead.max-concurrent:${spring.datasource.hikari.maximum-pool-size}}")
+    private int bulkheadMaxConcurrent;
+
+    @Value("${db.bulkhead.acquire-timeout-ms:50}")
+    private long bulkheadAcquireTimeout;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    // The read and write pools sit behind the primary DataSource rather than being beans themselves
+    private final List<HikariDataSource> filePools = new CopyOnWriteArrayList<>();
+
+    private ReplicaRoutingDataSource replicaRouting;
+
+    // File metadata operations (JPA and the JDBC jobs). A connection is only leased from a pool when the first
+    // statement runs, by which point the transaction has marked it read-only or not: read-only transactions
+    // (repository finders, listing) use the read pool and everything else uses the write pool. With replicas
+    // configured, read-only transactions go to the replicas and the read pool becomes their fallback
     @Bean
+    @Primary
     public DataSource dataSource() {
         logger.info("Configuring the DataSource...");
+        HikariDataSource writePool = pool("write", dbUrl, writePoolSize, connectionTimeout);
+        HikariDataSource readPool = pool("read", dbUrl, readPoolSize, connectionTimeout);
+        filePools.add(writePool);
+        filePools.add(readPool);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writePool);
+        dataSource.setReadOnlyDataSource(readPool);
+        List<String> urls = replicaUrls.stream().map(String::trim).filter(url -> !url.isEmpty()).toList();
+        if (!urls.isEmpty()) {
+            List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+            for (int i = 0; i < urls.size(); i++) {
+                HikariDataSource replicaPool = pool("replica-" + (i + 1), urls.get(i), replicaPoolSize, connectionTimeout);
+                filePools.add(replicaPool);
+                replicas.add(new ReplicaRoutingDataSource.Replica(replicaPool.getPoolName(), replicaPool));
+            }
+            replicaRouting = new ReplicaRoutingDataSource(readPool, replicas, replicaLagQuery, replicaLagColumn,
+                    replicaMaxLagSeconds, metricsService);
+            replicaRouting.startHealthChecks(replicaCheckInterval);
+            dataSource.setReadOnlyDataSource(replicaRouting);
+            logger.info("Routing read-only transactions to {} replica(s), max lag {} s", replicas.size(), replicaMaxLagSeconds);
+        }
+
+        logger.info("DataSource configured with URL: {} (read pool {}, write pool {})", dbUrl, readPoolSize, writePoolSize);
+        if (bulkheadEnabled) {
+            logger.info("Database bulkhead enabled with {} permits and {} ms acquire timeout", bulkheadMaxConcurrent, bulkheadAcquireTimeout);
+            return new BulkheadDataSource(dataSource, bulkheadMaxConcurrent, bulkheadAcquireTimeout, metricsService);
+        }
+        return dataSource;
+    }
+
+    // Hibernate starts against a schema that SchemaMigrations has already brought up to date
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnSchemaMigrations() {
+        return new EntityManagerFactoryDependsOnPostProcessor(SchemaMigrations.class);
+    }
+
+    // Health probes only: the SELECT 1 and the health_status writer
+    @Bean
+    public DataSource healthDataSource() {
+        return pool("health", dbUrl, healthPoolSize, healthConnectionTimeout);
+    }
+
+    @PreDestroy
+    public void closeFilePools() {
+        if (replicaRouting != null) {
+            replicaRouting.close();
+        }
+        filePools.forEach(HikariDataSource::close);
+    }
+
+    // Replicas are reached with the primary's credentials, as RDS read replicas share its users
+    private HikariDataSource pool(String name, String url, int maxPoolSize, long poolConnectionTimeout) {
         HikariDataSource dataSource = new HikariDataSource();
-        dataSource.setJdbcUrl(dbUrl);
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
         dataSource.setUsername(dbUsername);
         dataSource.setPassword(dbPassword);
         dataSource.setDriverClassName(dbDriverClassName);
-        dataSource.setConnectionTimeout(connectionTimeout);
+        dataSource.setConnectionTimeout(poolConnectionTimeout);
         dataSource.setMaximumPoolSize(maxPoolSize);
-        dataSource.setMinimumIdle(minimumIdle);
-        dataSource.setIdleTimeout(idleTimeout);
-
-        logger.info("DataSource configured with URL: {}", dbUrl);
+        dataSource.setMinimumIdle(Math.min(minimumIdle, maxPoolSize));
+        // A pool that keeps every connection idle never retires one; Hikari warns if it is given a timeout anyway
+        if (minimumIdle < maxPoolSize) {
+            dataSource.setIdleTimeout(idleTimeout);
+        }
+        dataSource.setMetricsTrackerFactory(connectionPoolMetrics);
         return dataSource;
     }
 }
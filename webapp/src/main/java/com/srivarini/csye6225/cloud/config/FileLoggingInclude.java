@@ -0,0 +1,19 @@
+package com.srivarini.csye6225.cloud.config;
+
+import ch.qos.logback.core.PropertyDefinerBase;
+import ch.qos.logback.core.util.OptionHelper;
+
+// Names the logback include for the file output: logback-file.xml when Spring Boot set LOG_FILE (logging.file.name or
+// logging.file.path), otherwise the empty logback-no-file.xml, so an unconfigured instance logs to the console only
+// instead of to a default ${java.io.tmpdir}/spring.log. Lets logback-spring.xml choose without <if>, which needs Janino.
+public class FileLoggingInclude extends PropertyDefinerBase {
+
+    static final String FILE = "logback-file.xml";
+    static final String NO_FILE = "logback-no-file.xml";
+
+    @Override
+    public String getPropertyValue() {
+        String logFile = OptionHelper.propertyLookup("LOG_FILE", getContext(), null);
+        return logFile == null || logFile.isBlank() ? NO_FILE : FILE;
+    }
+}
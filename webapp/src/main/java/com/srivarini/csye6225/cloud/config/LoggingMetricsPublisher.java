@@ -0,0 +1,33 @@
+package com.srivarini.csye6225.cloud.config;
+
+import com.srivarini.csye6225.cloud.service.MetricsService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Moves the logging pipeline's counts (kept statically by the logback components, which exist before any bean)
+// into StatsD counters: events accepted by each async appender, events it dropped on overflow, and INFO events
+// skipped by sampling
+@Component
+public class LoggingMetricsPublisher {
+
+    @Autowired
+    private MetricsService metricsService;
+
+    private MetricsService.Counter sampledOutCount;
+
+    @PostConstruct
+    public void registerMetrics() {
+        sampledOutCount = metricsService.counter("logging.sampled-out.count");
+    }
+
+    @Scheduled(fixedDelayString = "${logging.metrics.interval-ms:10000}")
+    public void publish() {
+        MeteredAsyncAppender.counts().forEach((name, counts) -> {
+            metricsService.counter("logging." + name + ".event.count").add(counts.appended().sumThenReset());
+            metricsService.counter("logging." + name + ".dropped.count").add(counts.dropped().sumThenReset());
+        });
+        sampledOutCount.add(SamplingTurboFilter.takeSampledOut());
+    }
+}
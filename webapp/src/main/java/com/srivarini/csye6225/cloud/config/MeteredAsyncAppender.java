@@ -0,0 +1,77 @@
+package com.srivarini.csye6225.cloud.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Logback's AsyncAppender (a bounded array queue drained by one worker thread) with the overflow behaviour chosen
+// by policy and every dropped event counted. Logback is configured before the Spring context exists, so the
+// counts are kept statically per metric name and LoggingMetricsPublisher reports them.
+//   block            the request thread waits for queue space; nothing is lost
+//   drop-below-warn  once the queue is 80% full, INFO and below are dropped; WARN and ERROR still wait
+//   drop             any event that finds the queue full is dropped
+// The policy replaces AsyncAppender's own discardingThreshold and neverBlock settings.
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    public enum OverflowPolicy { BLOCK, DROP_BELOW_WARN, DROP }
+
+    private static final Map<String, Counts> counts = new ConcurrentHashMap<>();
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_BELOW_WARN;
+    private String metricName;
+    private int reservedCapacity;
+    private Counts appenderCounts;
+
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    // Reported as logging.<metricName>.event.count and logging.<metricName>.dropped.count; defaults to the appender name
+    public void setMetricName(String metricName) {
+        this.metricName = metricName;
+    }
+
+    @Override
+    public void start() {
+        appenderCounts = counts.computeIfAbsent(metricName != null ? metricName : getName(), name -> new Counts());
+        setDiscardingThreshold(0);
+        setNeverBlock(false);
+        reservedCapacity = getQueueSize() / 5;
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        appenderCounts.appended().increment();
+        if (shouldDrop(event)) {
+            appenderCounts.dropped().increment();
+            return;
+        }
+        // A drop policy can still briefly wait here if another thread takes the last slot between the check and the put
+        super.append(event);
+    }
+
+    private boolean shouldDrop(ILoggingEvent event) {
+        return switch (overflowPolicy) {
+            case BLOCK -> false;
+            case DROP_BELOW_WARN -> getRemainingCapacity() < reservedCapacity && !event.getLevel().isGreaterOrEqual(Level.WARN);
+            case DROP -> getRemainingCapacity() == 0;
+        };
+    }
+
+    static Map<String, Counts> counts() {
+        return counts;
+    }
+
+    // Events accepted (whether queued or dropped) and events dropped, each read and reset by sumThenReset()
+    record Counts(LongAdder appended, LongAdder dropped) {
+        Counts() {
+            this(new LongAdder(), new LongAdder());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.srivarini.csye6225.cloud.config;
+
+import java.util.function.Supplier;
+
+// Per-thread routing hint for ReplicaRoutingDataSource. Reads that must see writes a replica may not have applied
+// yet run inside onPrimary, and the read-only connections they lease come from the primary instead of a replica.
+// The hint only affects connections leased inside the call, so it must wrap the transaction, not run within one.
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (PRIMARY.get() != null) {
+            return action.get();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    static boolean primaryRequired() {
+        return PRIMARY.get() != null;
+    }
+}
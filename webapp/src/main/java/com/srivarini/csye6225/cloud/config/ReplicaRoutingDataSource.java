@@ -0,0 +1,169 @@
+package com.srivarini.csye6225.cloud.config;
+
+import com.srivarini.csye6225.cloud.service.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only connections for the primary DataSource, spread round-robin over the read replicas that passed their
+ * last health check. A replica is taken out of rotation when its lag query fails, reports a NULL lag (replication
+ * stopped) or a lag above the limit, and put back once a later check passes. Reads fall back to the primary pool
+ * when no replica is available, when leasing from the chosen replica fails, or when the caller asked for the
+ * primary through {@link ReadRouting}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final MetricsService.Counter replicaReadCount;
+    private final MetricsService.Counter fallbackCount;
+    private final MetricsService.Counter primaryRequiredCount;
+    private final ScheduledExecutorService healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, String lagQuery, String lagColumn,
+                                    long maxLagSeconds, MetricsService metricsService) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLagSeconds = maxLagSeconds;
+        this.replicaReadCount = metricsService.counter("db.replica.read.count");
+        this.fallbackCount = metricsService.counter("db.replica.fallback.count");
+        this.primaryRequiredCount = metricsService.counter("db.replica.primary-required.count");
+        for (Replica replica : this.replicas) {
+            replica.lagGauge = metricsService.gauge("db.replica." + replica.name + ".lag-seconds");
+            replica.availableGauge = metricsService.gauge("db.replica." + replica.name + ".available");
+        }
+    }
+
+    /**
+     * Runs the first health check immediately and then every interval. Replicas serve no reads until they have
+     * passed a check, so reads stay on the primary while the application starts.
+     */
+    public void startHealthChecks(long intervalMillis) {
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadRouting.primaryRequired()) {
+            primaryRequiredCount.increment();
+            return primary.getConnection();
+        }
+        Replica replica = nextAvailable();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaReadCount.increment();
+                return connection;
+            } catch (SQLException e) {
+                // Stays out of rotation until the next check passes
+                markAvailable(replica, false, -1);
+                logger.warn("Could not lease a connection from replica '{}'; reading from the primary", replica.name, e);
+            }
+        }
+        fallbackCount.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // The pools are created with the primary's credentials; JPA and JdbcTemplate never pass their own
+        throw new SQLFeatureNotSupportedException("Replica routing does not support per-call credentials");
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            long lag;
+            try {
+                lag = lagSeconds(replica);
+            } catch (SQLException | RuntimeException e) {
+                logger.warn("Replica '{}' failed its lag check", replica.name, e);
+                markAvailable(replica, false, -1);
+                continue;
+            }
+            markAvailable(replica, lag >= 0 && lag <= maxLagSeconds, lag);
+        }
+    }
+
+    // -1 when replication is not running (a NULL lag); 0 when the query returns no row, i.e. the server is not
+    // a replica at all, which is how a second local instance looks during development
+    private long lagSeconds(Replica replica) throws SQLException {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return 0;
+            }
+            long lag = resultSet.getLong(lagColumn);
+            return resultSet.wasNull() ? -1 : lag;
+        }
+    }
+
+    private void markAvailable(Replica replica, boolean available, long lag) {
+        replica.lagGauge.set(lag);
+        replica.availableGauge.set(available ? 1 : 0);
+        if (replica.available != available) {
+            replica.available = available;
+            if (available) {
+                logger.info("Replica '{}' is back in rotation (lag {} s)", replica.name, lag);
+            } else {
+                logger.warn("Replica '{}' taken out of rotation (lag {} s, limit {} s)", replica.name, lag, maxLagSeconds);
+            }
+        }
+    }
+
+    private Replica nextAvailable() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+    }
+
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+        private MetricsService.Gauge lagGauge;
+        private MetricsService.Gauge availableGauge;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.srivarini.csye6225.cloud.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Per-request latency breakdown by phase, measured with System.nanoTime(). ServerTimingFilter binds one to the
+// request thread; code that continues a request on another thread captures current() first and records into the
+// captured instance, which is safe to update from any thread. Outside a request current() is a no-op instance.
+public final class RequestTimings {
+
+    public enum Phase {
+        PARSE("parse"),
+        S3("s3"),
+        DB("db");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final RequestTimings NONE = new RequestTimings(0L, false);
+
+    private final long startNanos;
+    private final boolean active;
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicBoolean headerWritten = new AtomicBoolean();
+
+    private RequestTimings(long startNanos, boolean active) {
+        this.startNanos = startNanos;
+        this.active = active;
+    }
+
+    public static RequestTimings current() {
+        RequestTimings timings = CURRENT.get();
+        return timings != null ? timings : NONE;
+    }
+
+    static RequestTimings start() {
+        return new RequestTimings(System.nanoTime(), true);
+    }
+
+    static void bind(RequestTimings timings) {
+        CURRENT.set(timings);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    public void record(Phase phase, long nanos) {
+        if (active) {
+            phaseNanos.addAndGet(phase.ordinal(), nanos);
+        }
+    }
+
+    public <T> T time(Phase phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    public long phaseNanos(Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    // True only for the first caller, so the header is added once even when several wrappers see the commit
+    boolean markHeaderWritten() {
+        return headerWritten.compareAndSet(false, true);
+    }
+
+    // e.g. "parse;dur=1.204, s3;dur=38.917, db;dur=2.310, total;dur=43.102"; phases that never ran are omitted
+    String toHeaderValue(long totalNanos) {
+        StringBuilder header = new StringBuilder(96);
+        for (Phase phase : Phase.values()) {
+            long nanos = phaseNanos(phase);
+            if (nanos > 0) {
+                appendMetric(header, phase.label(), nanos).append(", ");
+            }
+        }
+        return appendMetric(header, "total", totalNanos).toString();
+    }
+
+    Map<String, Double> phaseMillis() {
+        Map<String, Double> phases = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            long nanos = phaseNanos(phase);
+            if (nanos > 0) {
+                phases.put(phase.label(), toMillis(nanos));
+            }
+        }
+        return phases;
+    }
+
+    static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static StringBuilder appendMetric(StringBuilder header, String name, long nanos) {
+        return header.append(name).append(";dur=").append(toMillis(nanos));
+    }
+}
@@ -3,11 +3,20 @@ package com.srivarini.csye6225.cloud.config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3BaseClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.time.Duration;
 
 @Configuration
 public class S3Config {
@@ -19,14 +28,27 @@ public class S3Config {
     @Value("${AWS_REGION}")
     private String region;
 
+    // Overrides for S3-compatible endpoints (local stand-ins in load tests); empty means the regional AWS endpoint
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${aws.s3.path-style-access:false}")
+    private boolean pathStyleAccess;
+
+    @Value("${aws.s3.async.max-connections:50}")
+    private int asyncMaxConnections;
+
+    @Value("${aws.s3.async.max-pending-acquires:1000}")
+    private int asyncMaxPendingAcquires;
+
+    @Value("${aws.s3.async.connection-acquisition-timeout-ms:10000}")
+    private long asyncConnectionAcquisitionTimeout;
+
     @Bean
     public S3Client s3Client() {
         logger.info("Initializing S3 client for region '{}'", region);
         try {
-            S3Client s3Client = S3Client.builder()
-                    .region(Region.of(region))
-                    .credentialsProvider(DefaultCredentialsProvider.create())
-                    .build();
+            S3Client s3Client = configure(S3Client.builder()).build();
 
             logger.info("S3 client initialized successfully.");
             return s3Client;
@@ -36,6 +58,50 @@ public class S3Config {
         }
     }
 
+    // Non-blocking S3 client backed by the Netty transport, only created when the async pipeline is enabled
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "aws.s3.async.enabled", havingValue = "true")
+    public S3AsyncClient s3AsyncClient() {
+        logger.info("Initializing async S3 client for region '{}' with {} max connections", region, asyncMaxConnections);
+        try {
+            return configure(S3AsyncClient.builder())
+                    .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                            .maxConcurrency(asyncMaxConnections)
+                            .maxPendingConnectionAcquires(asyncMaxPendingAcquires)
+                            .connectionAcquisitionTimeout(Duration.ofMillis(asyncConnectionAcquisitionTimeout)))
+                    .build();
+        } catch (Exception e) {
+            logger.error("Failed to initialize async S3 client", e);
+            throw new RuntimeException("Failed to initialize async S3 client", e);
+        }
+    }
+
+    // Signs pre-signed upload URLs locally; building or using it makes no call to S3. URLs signed with temporary
+    // (instance profile) credentials stop working when those credentials expire, even before their own expiry
+    @Bean(destroyMethod = "close")
+    public S3Presigner s3Presigner() {
+        S3Presigner.Builder builder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build());
+        if (!endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    // Settings shared by the sync and async clients
+    private <B extends S3BaseClientBuilder<B, ?>> B configure(B builder) {
+        builder.region(Region.of(region))
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .forcePathStyle(pathStyleAccess);
+        if (!endpoint.isEmpty()) {
+            logger.info("Using S3 endpoint override '{}' (path-style access: {})", endpoint, pathStyleAccess);
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder;
+    }
+
     public String getBucketName() {
         return bucketName;
     }
@@ -0,0 +1,53 @@
+package com.srivarini.csye6225.cloud.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Keeps roughly one in N INFO events from each listed logger, configured as "<logger>:<N>,<logger>:<N>" with exact
+// logger names. A turbo filter runs before logback builds the event, so a sampled-out call costs no formatting
+// or allocation. WARN and ERROR always pass, as does everything from loggers not listed.
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final LongAdder sampledOut = new LongAdder();
+
+    private final Map<String, Integer> rates = new HashMap<>();
+
+    public void setLoggers(String loggers) {
+        rates.clear();
+        for (String entry : loggers.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            if (separator > 0) {
+                rates.put(entry.substring(0, separator).trim(), Integer.parseInt(entry.substring(separator + 1).trim()));
+            } else if (!entry.isBlank()) {
+                addWarn("Ignoring sampling entry '" + entry.trim() + "'; expected <logger>:<N>");
+            }
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level != Level.INFO || rates.isEmpty()) {
+            return FilterReply.NEUTRAL;
+        }
+        Integer rate = rates.get(logger.getName());
+        // Only events the logger would otherwise write count as sampled out
+        if (rate == null || rate <= 1 || logger.getEffectiveLevel().levelInt > Level.INFO_INT
+                || ThreadLocalRandom.current().nextInt(rate) == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.increment();
+        return FilterReply.DENY;
+    }
+
+    static long takeSampledOut() {
+        return sampledOut.sumThenReset();
+    }
+}
@@ -0,0 +1,203 @@
+package com.srivarini.csye6225.cloud.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Versioned schema migrations in place of Hibernate's ddl-auto: <location>/V<n>__<description>.sql, applied in
+// version order and recorded in schema_history with a CRC32 of the script text. Startup reads the history back in
+// one query instead of introspecting every table: an applied script that was since edited or removed stops startup,
+// and pending scripts are applied. Instances booting together claim a version by inserting its history row first;
+// the others wait for that row to be marked successful.
+// MySQL commits DDL statement by statement, so a script that fails halfway is not rolled back: write statements
+// that can run again (IF NOT EXISTS), with at most one that cannot (ALTER TABLE, CREATE INDEX) and that one last.
+// V1__baseline is the schema ddl-auto=update created before migrations and leaves such tables in place, so once it
+// has run they are compared with it (BaselineSchema); any difference stops startup without recording V1
+@Component
+public class SchemaMigrations implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrations.class);
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final long POLL_INTERVAL_MILLIS = 500;
+    private static final String BASELINE = "V1__baseline";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${db.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${db.migration.location:classpath:db/migration}")
+    private String location;
+
+    // How long to wait for a version another instance is applying
+    @Value("${db.migration.lock-timeout-ms:60000}")
+    private long lockTimeoutMillis;
+
+    @Override
+    public void afterPropertiesSet() throws IOException, InterruptedException {
+        if (!enabled) {
+            logger.info("Schema migrations are disabled");
+            return;
+        }
+        long start = System.nanoTime();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_history ("
+                + "version INT NOT NULL PRIMARY KEY, "
+                + "description VARCHAR(200) NOT NULL, "
+                + "checksum BIGINT NOT NULL, "
+                + "installed_at DATETIME(6) NOT NULL, "
+                + "execution_ms BIGINT NOT NULL, "
+                + "success BOOLEAN NOT NULL)");
+
+        List<Migration> migrations = scripts();
+        Map<Integer, Applied> history = history(jdbcTemplate);
+        for (Integer version : history.keySet()) {
+            if (migrations.stream().noneMatch(migration -> migration.version() == version)) {
+                throw new IllegalStateException("Migration V" + version + " is recorded in schema_history but its script is missing from " + location);
+            }
+        }
+
+        int appliedNow = 0;
+        for (Migration migration : migrations) {
+            Applied applied = history.get(migration.version());
+            if (applied == null || !applied.success()) {
+                if (applied == null && claim(jdbcTemplate, migration)) {
+                    apply(jdbcTemplate, migration);
+                    appliedNow++;
+                    continue;
+                }
+                applied = awaitApplied(jdbcTemplate, migration);
+                if (applied == null) {
+                    // The instance that held the claim failed and released it
+                    apply(jdbcTemplate, migration);
+                    appliedNow++;
+                    continue;
+                }
+            }
+            if (applied.checksum() != migration.checksum()) {
+                throw new IllegalStateException("Migration " + migration + " was changed after it was applied "
+                        + "(checksum " + migration.checksum() + ", recorded " + applied.checksum() + "); add a new version instead");
+            }
+        }
+        logger.info("Schema is at V{} ({} migration(s) applied) in {} ms",
+                migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version(), appliedNow,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private List<Migration> scripts() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(location + "/V*__*.sql")) {
+            Matcher matcher = SCRIPT_NAME.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Migration script name must be V<version>__<description>.sql: " + resource.getFilename());
+            }
+            String text = resource.getContentAsString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+            CRC32 crc = new CRC32();
+            crc.update(text.getBytes(StandardCharsets.UTF_8));
+            Migration migration = new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2), crc.getValue(), resource);
+            if (migrations.stream().anyMatch(other -> other.version() == migration.version())) {
+                throw new IllegalStateException("Two migration scripts share version " + migration.version());
+            }
+            migrations.add(migration);
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        return migrations;
+    }
+
+    private Map<Integer, Applied> history(JdbcTemplate jdbcTemplate) {
+        Map<Integer, Applied> history = new HashMap<>();
+        jdbcTemplate.query("SELECT version, checksum, success FROM schema_history", rs -> {
+            history.put(rs.getInt("version"), new Applied(rs.getLong("checksum"), rs.getBoolean("success")));
+        });
+        return history;
+    }
+
+    private boolean claim(JdbcTemplate jdbcTemplate, Migration migration) {
+        try {
+            jdbcTemplate.update("INSERT INTO schema_history (version, description, checksum, installed_at, execution_ms, success) "
+                            + "VALUES (?, ?, ?, ?, 0, FALSE)",
+                    migration.version(), migration.description(), migration.checksum(), Timestamp.from(Instant.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void apply(JdbcTemplate jdbcTemplate, Migration migration) {
+        logger.info("Applying migration {}", migration);
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.script(), StandardCharsets.UTF_8));
+            if (BASELINE.equals(migration.toString())) {
+                List<String> differences = BaselineSchema.differences(connection);
+                if (!differences.isEmpty()) {
+                    throw new IllegalStateException("Existing tables do not match " + BASELINE + ".sql; alter them to match "
+                            + "and restart:\n  " + String.join("\n  ", differences));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Lets the next start (after the script is fixed) claim the version again
+            jdbcTemplate.update("DELETE FROM schema_history WHERE version = ? AND success = FALSE", migration.version());
+            throw new IllegalStateException("Migration " + migration + " failed", e);
+        }
+        jdbcTemplate.update("UPDATE schema_history SET success = TRUE, execution_ms = ? WHERE version = ?",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), migration.version());
+    }
+
+    // Null when the claim is gone and this instance now holds it
+    private Applied awaitApplied(JdbcTemplate jdbcTemplate, Migration migration) throws InterruptedException {
+        logger.info("Waiting for another instance to apply migration {}", migration);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lockTimeoutMillis);
+        while (true) {
+            Applied applied = history(jdbcTemplate).get(migration.version());
+            if (applied == null && claim(jdbcTemplate, migration)) {
+                return null;
+            }
+            if (applied != null && applied.success()) {
+                return applied;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Migration " + migration + " was not completed by another instance within "
+                        + lockTimeoutMillis + " ms; if that instance died, delete its schema_history row and restart");
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    private record Migration(int version, String description, long checksum, Resource script) {
+        @Override
+        public String toString() {
+            return "V" + version + "__" + description;
+        }
+    }
+
+    private record Applied(long checksum, boolean success) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.srivarini.csye6225.cloud.config;
+
+import com.srivarini.csye6225.cloud.service.SlowRequestLog;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+// Binds a RequestTimings to each request and reports it as a Server-Timing response header. Multipart bodies are
+// parsed here so that parsing shows up as its own phase. The header is added just before the response commits;
+// once the request completes (after the async dispatch, for CompletableFuture handlers) slow requests are kept in
+// the SlowRequestLog.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerTimingFilter.class);
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+    private static final String TIMINGS_ATTRIBUTE = ServerTimingFilter.class.getName() + ".TIMINGS";
+
+    @Autowired
+    private SlowRequestLog slowRequestLog;
+
+    // Re-bind the timings on the async dispatch that writes a CompletableFuture response
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = (RequestTimings) request.getAttribute(TIMINGS_ATTRIBUTE);
+        if (timings == null) {
+            timings = RequestTimings.start();
+            request.setAttribute(TIMINGS_ATTRIBUTE, timings);
+        }
+        HttpServletResponse timedResponse = WebUtils.getNativeResponse(response, ServerTimingResponseWrapper.class) != null
+                ? response : new ServerTimingResponseWrapper(response, timings);
+
+        RequestTimings.bind(timings);
+        try {
+            if (!isAsyncDispatch(request)) {
+                parseMultipart(request, timings);
+            }
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            RequestTimings.unbind();
+            if (!request.isAsyncStarted()) {
+                complete(request, timedResponse, timings);
+            }
+        }
+    }
+
+    private void parseMultipart(HttpServletRequest request, RequestTimings timings) {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.regionMatches(true, 0, "multipart/", 0, 10)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            request.getParts();
+        } catch (Exception e) {
+            // The container keeps the failure and the multipart resolver reports it to the handler as usual
+            logger.debug("Multipart parsing failed: {}", e.getMessage());
+        } finally {
+            timings.record(RequestTimings.Phase.PARSE, System.nanoTime() - start);
+        }
+    }
+
+    private void complete(HttpServletRequest request, HttpServletResponse response, RequestTimings timings) {
+        long totalNanos = timings.elapsedNanos();
+        if (!response.isCommitted() && timings.markHeaderWritten()) {
+            response.setHeader(SERVER_TIMING_HEADER, timings.toHeaderValue(totalNanos));
+        }
+        if (slowRequestLog.isSlow(totalNanos)) {
+            slowRequestLog.record(request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    RequestTimings.toMillis(totalNanos), timings.phaseMillis());
+        }
+    }
+
+    // Adds the header at the last moment it can still be set: before the body is obtained, flushed or an error sent
+    private static final class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+        private final RequestTimings timings;
+
+        ServerTimingResponseWrapper(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        private void addServerTiming() {
+            if (!isCommitted() && timings.markHeaderWritten()) {
+                setHeader(SERVER_TIMING_HEADER, timings.toHeaderValue(timings.elapsedNanos()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+}
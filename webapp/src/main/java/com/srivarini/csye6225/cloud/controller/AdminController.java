@@ -0,0 +1,30 @@
+package com.srivarini.csye6225.cloud.controller;
+
+import com.srivarini.csye6225.cloud.service.SlowRequestLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Operational endpoints; exposes request paths and timings, so it is only mapped when diagnostics.admin.enabled=true
+@RestController
+@RequestMapping("/v1/admin")
+@ConditionalOnProperty(name = "diagnostics.admin.enabled", havingValue = "true")
+public class AdminController {
+
+    @Autowired
+    private SlowRequestLog slowRequestLog;
+
+    // Most recent slow requests, newest first, with their per-phase breakdown
+    @GetMapping("/slow-requests")
+    public ResponseEntity<List<SlowRequestLog.SlowRequest>> slowRequests() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
+                .body(slowRequestLog.snapshot());
+    }
+}
@@ -1,23 +1,48 @@
 package com.srivarini.csye6225.cloud.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srivarini.csye6225.cloud.exception.BulkheadFullException;
 import com.srivarini.csye6225.cloud.model.FileMetadata;
+import com.srivarini.csye6225.cloud.service.AsyncS3Service;
+import com.srivarini.csye6225.cloud.service.FileContentService;
+import com.srivarini.csye6225.cloud.service.FileCursor;
 import com.srivarini.csye6225.cloud.service.MetricsService;
 import com.srivarini.csye6225.cloud.service.S3Service;
-import com.timgroup.statsd.StatsDClient;
+import com.srivarini.csye6225.cloud.service.StoredContent;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/v1/file")
@@ -26,139 +51,489 @@ public class FileController {
     @Autowired
     private S3Service s3Service;
 
+    // Present only when aws.s3.async.enabled=true
+    @Autowired(required = false)
+    private AsyncS3Service asyncS3Service;
+
     @Autowired
     private MetricsService metricsService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FileContentService fileContentService;
+
+    @Value("${file.bulk-delete.max-ids:1000}")
+    private int bulkDeleteMaxIds;
+
+    @Value("${file.list.default-page-size:100}")
+    private int listDefaultPageSize;
+
+    @Value("${file.list.max-page-size:1000}")
+    private int listMaxPageSize;
+
+    private static final Set<String> LIST_PARAMS = Set.of("limit", "cursor");
+
+    // Tomcat's sendfile contract: the connector writes the file region itself once the handler returns
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     private static final Logger logger = LoggerFactory.getLogger(FileController.class);
 
+    private MetricsService.Counter postCount;
+    private MetricsService.Timer postTimer;
+    private MetricsService.Counter getCount;
+    private MetricsService.Timer getTimer;
+    private MetricsService.Counter deleteCount;
+    private MetricsService.Timer deleteTimer;
+    private MetricsService.Counter listCount;
+    private MetricsService.Timer listTimer;
+    private MetricsService.Counter bulkDeleteCount;
+    private MetricsService.Timer bulkDeleteTimer;
+    private MetricsService.Counter contentCount;
+    private MetricsService.Timer contentTimer;
+
+    // Resolve metric handles once so request handling never looks them up by name
+    @PostConstruct
+    public void registerMetrics() {
+        postCount = metricsService.counter("controller.file.post.count");
+        postTimer = metricsService.timer("controller.file.post.timer");
+        getCount = metricsService.counter("controller.file.get.count");
+        getTimer = metricsService.timer("controller.file.get.timer");
+        deleteCount = metricsService.counter("controller.file.delete.count");
+        deleteTimer = metricsService.timer("controller.file.delete.timer");
+        listCount = metricsService.counter("controller.file.list.count");
+        listTimer = metricsService.timer("controller.file.list.timer");
+        bulkDeleteCount = metricsService.counter("controller.file.bulk-delete.count");
+        bulkDeleteTimer = metricsService.timer("controller.file.bulk-delete.timer");
+        contentCount = metricsService.counter("controller.file.content.count");
+        contentTimer = metricsService.timer("controller.file.content.timer");
+    }
+
+    // Upload, metadata and delete return a CompletableFuture only in async mode (aws.s3.async.enabled=true), releasing
+    // the request thread while S3 I/O is pending; otherwise they return the ResponseEntity itself, so Spring MVC
+    // writes it on the request thread without starting async processing and re-dispatching
     @PostMapping
-    public ResponseEntity<Map<String, Object>> uploadFile(@RequestParam("file") MultipartFile file, @RequestParam Map<String, String> queryParams, HttpServletRequest request) {
+    public Object uploadFile(@RequestParam("file") MultipartFile file, @RequestParam Map<String, String> queryParams, HttpServletRequest request) {
         logger.info("Received POST /v1/file request to upload a file.");
         long startTime = System.currentTimeMillis();
-        metricsService.increment("controller.file.post.count");
+        postCount.increment();
+        ResponseEntity<FileMetadataResponse> response;
         try {
             // Reject request if any extra query parameters are provided
             if (!queryParams.isEmpty()) {
                 logger.warn("Upload failed: Query parameters are not allowed.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
-
             // Check if multiple files were submitted
-            if (request.getParts().stream().filter(part -> "file".equals(part.getName())).count() > 1) {
+            else if (request.getParts().stream().filter(part -> "file".equals(part.getName())).count() > 1) {
                 logger.warn("Upload failed: Multiple file parts detected.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
             // Handle case when file is empty (400 Bad Request)
-            if (file == null || file.isEmpty()) {
+            else if (file == null || file.isEmpty()) {
                 logger.warn("Upload failed: No file provided or file is empty.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
-
-            // Process file upload
-            FileMetadata metadata = s3Service.uploadFile(file);
-            if (metadata == null) { // Ensure a valid response from S3 service
-                logger.error("Upload failed: Metadata was null or ID was not assigned.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-            }
-            if (metadata.getId() == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            // Process file upload, releasing the request thread while S3 I/O is pending when async mode is enabled
+            else if (asyncS3Service != null) {
+                return whenReady(asyncS3Service.uploadFile(file).thenApply(this::uploadResponse),
+                        "Unexpected error occurred while uploading file.", postTimer, startTime);
+            } else {
+                response = uploadResponse(s3Service.uploadFile(file));
             }
-            logger.info("File '{}' uploaded successfully with ID {}", metadata.getFileName(), metadata.getId());
-
-            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
-                    "file_name", metadata.getFileName(),
-                    "id", metadata.getId(),
-                    "url", metadata.getFileUrl(),
-                    "upload_date", metadata.getUploadDate().toString()
-            ));
         } catch (IOException e) {
             // Handle S3 upload failure (400 Bad Request)
             logger.error("Upload failed due to I/O error: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
-            // Catch any unexpected issues and return 400 instead of 500
-            logger.error("Unexpected error occurred while uploading file.", e);
+            // Catch any unexpected issues and return 400 instead of 500 (503 when load is being shed)
+            response = failureResponse("Unexpected error occurred while uploading file.", e);
+        }
+        postTimer.record(System.currentTimeMillis() - startTime, isSuccess(response));
+        return response;
+    }
+
+    private ResponseEntity<FileMetadataResponse> uploadResponse(FileMetadata metadata) {
+        if (metadata == null) { // Ensure a valid response from S3 service
+            logger.error("Upload failed: Metadata was null or ID was not assigned.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        if (metadata.getId() == null) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-        }finally {
-            metricsService.timing("controller.file.post.timer", System.currentTimeMillis() - startTime);
         }
+        logger.info("File '{}' uploaded successfully with ID {}", metadata.getFileName(), metadata.getId());
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(FileMetadataResponse.from(metadata));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getFileMetadata(@PathVariable UUID id, @RequestParam Map<String, String> queryParams, @RequestBody(required = false) String requestBody) {
+    public Object getFileMetadata(@PathVariable UUID id, @RequestParam Map<String, String> queryParams, @RequestBody(required = false) String requestBody) {
         logger.info("Received GET /v1/file/{} request to retrieve file metadata.", id);
         long startTime = System.currentTimeMillis();
-        metricsService.increment("controller.file.get.count");
+        getCount.increment();
 
+        ResponseEntity<FileMetadataResponse> response;
         try {
             if (!queryParams.isEmpty()) {
                 logger.warn("Metadata retrieval failed: Query parameters not allowed.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
             // Reject request if there is a request body
-            if (requestBody != null && !requestBody.isEmpty()) {
+            else if (requestBody != null && !requestBody.isEmpty()) {
                 logger.warn("Metadata retrieval failed: Request body should be empty.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            } else if (asyncS3Service != null) {
+                return whenReady(asyncS3Service.getFileMetadata(id).thenApply(fileMetadata -> metadataResponse(id, fileMetadata)),
+                        "Unexpected error occurred while retrieving file metadata.", getTimer, startTime);
+            } else {
+                response = metadataResponse(id, s3Service.getFileMetadata(id));
             }
+        } catch (RuntimeException e) {
+            response = failureResponse("Unexpected error occurred while retrieving file metadata.", e);
+        }
+        getTimer.record(System.currentTimeMillis() - startTime, isSuccess(response));
+        return response;
+    }
 
-            Optional<FileMetadata> fileMetadata = s3Service.getFileMetadata(id);
+    private ResponseEntity<FileMetadataResponse> metadataResponse(UUID id, Optional<FileMetadata> fileMetadata) {
+        if (fileMetadata.isPresent()) {
+            logger.info("Metadata retrieval successful for file ID {}", id);
+            return ResponseEntity.ok(FileMetadataResponse.from(fileMetadata.get()));
+        } else {
+            logger.warn("File with ID {} not found.", id);
+            return ResponseEntity.notFound().build();
+        }
+    }
 
-            if (fileMetadata.isPresent()) {
-                FileMetadata metadata = fileMetadata.get();
-                Map<String, Object> response = new HashMap<>();
-                response.put("file_name", metadata.getFileName());
-                response.put("id", metadata.getId().toString());
-                response.put("url", metadata.getFileUrl());
-                response.put("upload_date", metadata.getUploadDate().toString());
-                logger.info("Metadata retrieval successful for file ID {}", id);
-                return ResponseEntity.ok(response);
-            } else {
+    // Serves a file's bytes. Supports conditional GETs (If-None-Match/If-Modified-Since, 304) and a single byte
+    // Range (206/416, with If-Range). A compressed object is sent as stored with its
+    // Content-Encoding, or decoded on the fly (whole body only) for a client that does not accept it. Always
+    // uses the blocking service, since the body is written on the request thread either way
+    @GetMapping("/{id}/content")
+    public void getFileContent(@PathVariable UUID id, @RequestParam Map<String, String> queryParams,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.info("Received GET /v1/file/{}/content request.", id);
+        long startTime = System.currentTimeMillis();
+        contentCount.increment();
+        boolean success = false;
+        try {
+            if (!queryParams.isEmpty()) {
+                logger.warn("Content retrieval failed: Query parameters not allowed.");
+                response.setStatus(HttpStatus.BAD_REQUEST.value());
+                return;
+            }
+            Optional<FileMetadata> fileMetadata = s3Service.getFileMetadata(id);
+            if (fileMetadata.isEmpty()) {
                 logger.warn("File with ID {} not found.", id);
-                return ResponseEntity.notFound().build();
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            success = writeContent(fileMetadata.get(), request, response);
+        } catch (IOException e) {
+            // Usually the client going away mid-body; nothing more can be sent
+            logger.warn("Content transfer for file ID {} did not complete: {}", id, e.getMessage());
+        } catch (RuntimeException e) {
+            if (response.isCommitted()) {
+                logger.error("Content transfer for file ID {} failed after the response was committed", id, e);
+            } else {
+                response.reset();
+                response.setStatus(failureResponse("Unexpected error occurred while retrieving file content.", e).getStatusCode().value());
             }
         } finally {
-                metricsService.timing("controller.file.get.timer", System.currentTimeMillis() - startTime);
+            contentTimer.record(System.currentTimeMillis() - startTime, success);
+        }
+    }
+
+    private boolean writeContent(FileMetadata metadata, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String storedEncoding = metadata.getContentEncoding();
+        boolean decode = storedEncoding != null && !acceptsEncoding(request, storedEncoding);
+        // The content behind an id never changes, so its hash (or the id itself) is a strong validator; the
+        // encoded and decoded forms of a compressed object are different representations
+        String validator = metadata.getContentHash() != null ? metadata.getContentHash() : metadata.getId().toString();
+        String etag = "\"" + validator + (storedEncoding != null && !decode ? "-" + storedEncoding : "") + "\"";
+        long lastModified = metadata.getUploadDate().toInstant(ZoneOffset.UTC).toEpochMilli();
+        if (storedEncoding != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return response.getStatus() == HttpStatus.NOT_MODIFIED.value();
+        }
+
+        HttpRange range = decode ? null : requestedRange(request, etag, lastModified);
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+        // A HEAD needs only the object's length, so a cold object costs a HeadObject rather than a GetObject
+        Optional<StoredContent> opened = head ? fileContentService.describe(metadata, range) : fileContentService.open(metadata, range);
+        if (opened.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return false;
+        }
+        try (StoredContent content = opened.get()) {
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, decode ? "none" : "bytes");
+            if (!content.satisfiable()) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                if (content.completeLength() >= 0) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + content.completeLength());
+                }
+                return false;
+            }
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            response.setContentType(MediaTypeFactory.getMediaType(metadata.getFileName())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+            if (decode) {
+                if (!head) {
+                    try (InputStream decoded = new GZIPInputStream(content.stream())) {
+                        decoded.transferTo(response.getOutputStream());
+                    }
+                }
+                return true;
+            }
+            if (storedEncoding != null) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, storedEncoding);
+            }
+            if (content.partial()) {
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + content.start() + "-" + content.end() + "/" + content.completeLength());
+            }
+            response.setContentLengthLong(content.length());
+            if (head) {
+                return true;
+            }
+            if (content.file().isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+                // Zero-copy: the connector hands the cached file to the kernel
+                request.setAttribute(SENDFILE_FILENAME_ATTR, content.file().get().toString());
+                request.setAttribute(SENDFILE_START_ATTR, content.start());
+                request.setAttribute(SENDFILE_END_ATTR, content.end() + 1);
+            } else {
+                content.transferTo(response.getOutputStream());
             }
+            return true;
+        }
+    }
+
+    // The single byte range to serve, or null to serve the whole body: no Range, one that cannot be parsed,
+    // several ranges (a 200 is always an acceptable answer), or an If-Range that no longer matches
+    private static HttpRange requestedRange(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            long ifRangeDate;
+            try {
+                ifRangeDate = request.getDateHeader(HttpHeaders.IF_RANGE);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (ifRangeDate / 1000 != lastModified / 1000) {
+                return null;
+            }
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean acceptsEncoding(HttpServletRequest request, String encoding) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (String token : header.split(",")) {
+            String[] parts = token.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(encoding) || name.equals("*")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteFile(@PathVariable UUID id, @RequestParam Map<String, String> queryParams, @RequestBody(required = false) String requestBody) {
+    public Object deleteFile(@PathVariable UUID id, @RequestParam Map<String, String> queryParams, @RequestBody(required = false) String requestBody) {
         logger.info("Received DELETE /v1/file/{} request.", id);
         long startTime = System.currentTimeMillis();
-        metricsService.increment("controller.file.delete.count");
+        deleteCount.increment();
 
+        ResponseEntity<String> response;
         try {
             // Reject request if any query parameters are provided
             if (!queryParams.isEmpty()) {
                 logger.warn("Delete request rejected: Query parameters are not allowed.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
-
             // Reject request if there is a request body
-            if (requestBody != null && !requestBody.isEmpty()) {
+            else if (requestBody != null && !requestBody.isEmpty()) {
                 logger.warn("Delete request rejected: Request body should be empty.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            } else if (asyncS3Service != null) {
+                return whenReady(asyncS3Service.deleteFile(id).thenApply(deleted -> deleteResponse(id, deleted)),
+                        "Unexpected error occurred while deleting file.", deleteTimer, startTime);
+            } else {
+                response = deleteResponse(id, s3Service.deleteFile(id));
             }
+        } catch (RuntimeException e) {
+            response = failureResponse("Unexpected error occurred while deleting file.", e);
+        }
+        deleteTimer.record(System.currentTimeMillis() - startTime, isSuccess(response));
+        return response;
+    }
+
+    private ResponseEntity<String> deleteResponse(UUID id, boolean deleted) {
+        if (deleted) {
+            logger.info("File with ID {} deleted successfully.", id);
+            return ResponseEntity.noContent().build();
+        } else {
+            logger.warn("Delete failed: File with ID {} not found.", id);
+            return ResponseEntity.notFound().build();
+        }
+    }
 
-            boolean deleted = s3Service.deleteFile(id);
-            if (deleted) {
-                logger.info("File with ID {} deleted successfully.", id);
-                return ResponseEntity.noContent().build();
+    // Deletes up to file.bulk-delete.max-ids files in one request: {"ids": [...]}. Always uses the blocking
+    // service, since the whole batch is only a few database round-trips
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<Map<String, Object>> bulkDelete(@RequestBody Map<String, Object> requestBody, @RequestParam Map<String, String> queryParams) {
+        logger.info("Received POST /v1/file/bulk-delete request.");
+        long startTime = System.currentTimeMillis();
+        bulkDeleteCount.increment();
+        ResponseEntity<Map<String, Object>> response = null;
+        try {
+            List<UUID> ids = parseIds(requestBody);
+            if (!queryParams.isEmpty() || ids == null) {
+                logger.warn("Bulk delete rejected: expected only an \"ids\" array of 1 to {} file ids.", bulkDeleteMaxIds);
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             } else {
-                logger.warn("Delete failed: File with ID {} not found.", id);
-                return ResponseEntity.notFound().build();
+                List<Map<String, Object>> results = new ArrayList<>();
+                s3Service.deleteFiles(ids).forEach((id, outcome) -> results.add(Map.of(
+                        "id", id,
+                        "status", outcome.name().toLowerCase()
+                )));
+                response = ResponseEntity.ok(Map.of("results", results));
             }
-        }finally {
-                metricsService.timing("controller.file.delete.timer", System.currentTimeMillis() - startTime);
+            return response;
+        } finally {
+            bulkDeleteTimer.record(System.currentTimeMillis() - startTime, isSuccess(response));
+        }
+    }
+
+    // Returns null unless the body is exactly {"ids": [...]} with 1 to bulkDeleteMaxIds valid uuids
+    private List<UUID> parseIds(Map<String, Object> requestBody) {
+        if (requestBody.size() != 1 || !(requestBody.get("ids") instanceof List<?> values)
+                || values.isEmpty() || values.size() > bulkDeleteMaxIds) {
+            return null;
+        }
+        List<UUID> ids = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (!(value instanceof String text)) {
+                return null;
+            }
+            try {
+                ids.add(UUID.fromString(text));
+            } catch (IllegalArgumentException e) {
+                return null;
             }
+        }
+        return ids;
     }
 
-    @GetMapping
-    public ResponseEntity<String> unsupportedGetRequest() {
-        logger.warn("Received unsupported GET request at /v1/file.");
+    // Maps a failure to a response: 503 when the async pipeline or DB bulkhead sheds load, otherwise 400
+    private <T> ResponseEntity<T> failureResponse(String message, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof RejectedExecutionException || BulkheadFullException.isCauseOf(cause)) {
+            logger.warn("Request rejected: {}", cause.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        logger.error(message, cause);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
     }
 
+    // Async mode: maps a failed future like the blocking path maps an exception, and times the request once it completes
+    private <T> CompletableFuture<ResponseEntity<T>> whenReady(CompletableFuture<ResponseEntity<T>> response, String message,
+                                                               MetricsService.Timer timer, long startTime) {
+        return response
+                .exceptionally(ex -> failureResponse(message, ex))
+                .whenComplete((result, ex) -> timer.record(System.currentTimeMillis() - startTime, isSuccess(result)));
+    }
+
+    // Lets timers report 2xx latencies separately from rejected or failed requests
+    private static boolean isSuccess(ResponseEntity<?> response) {
+        return response != null && response.getStatusCode().is2xxSuccessful();
+    }
+
+    // Lists files a page at a time in upload order: ?limit=<1..file.list.max-page-size>&cursor=<next_cursor>.
+    // Rows are written to the response as the database returns them, so a page is never held in memory
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listFiles(@RequestParam Map<String, String> queryParams, @RequestBody(required = false) String requestBody) {
+        logger.info("Received GET /v1/file request to list files.");
+        long startTime = System.currentTimeMillis();
+        listCount.increment();
+
+        Integer limit = parseLimit(queryParams.get("limit"));
+        String cursorToken = queryParams.get("cursor");
+        Optional<FileCursor> cursor = cursorToken == null ? Optional.empty() : FileCursor.decode(cursorToken);
+        if (!LIST_PARAMS.containsAll(queryParams.keySet()) || limit == null || (cursorToken != null && cursor.isEmpty())
+                || (requestBody != null && !requestBody.isEmpty())) {
+            logger.warn("File listing rejected: invalid query parameters or a request body was sent.");
+            listTimer.record(System.currentTimeMillis() - startTime, false);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        StreamingResponseBody body = outputStream -> {
+            boolean success = false;
+            try (JsonGenerator json = objectMapper.createGenerator(outputStream)) {
+                writePage(json, cursor.orElse(null), limit);
+                success = true;
+            } finally {
+                listTimer.record(System.currentTimeMillis() - startTime, success);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // One row beyond the page is read only to learn whether another page follows; it is not written
+    private void writePage(JsonGenerator json, FileCursor after, int limit) throws IOException {
+        FileMetadata[] last = new FileMetadata[1];
+        int[] written = {0};
+        json.writeStartObject();
+        json.writeArrayFieldStart("files");
+        int read = s3Service.forEachFile(after, limit + 1, metadata -> {
+            if (written[0] == limit) {
+                return;
+            }
+            try {
+                FileMetadataResponseSerializer.write(json, FileMetadataResponse.from(metadata));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            written[0]++;
+            last[0] = metadata;
+        });
+        json.writeEndArray();
+        json.writeStringField("next_cursor", read > limit ? FileCursor.after(last[0]).encode() : null);
+        json.writeEndObject();
+    }
+
+    // Null when the limit is not an integer between 1 and the configured maximum
+    private Integer parseLimit(String value) {
+        if (value == null) {
+            return Math.min(listDefaultPageSize, listMaxPageSize);
+        }
+        try {
+            int limit = Integer.parseInt(value);
+            return limit >= 1 && limit <= listMaxPageSize ? limit : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     @DeleteMapping
     public ResponseEntity<String> unsupportedDeleteRequest() {
         logger.warn("Received unsupported DELETE request at /v1/file.");
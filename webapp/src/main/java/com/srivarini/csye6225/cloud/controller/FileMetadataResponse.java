@@ -0,0 +1,15 @@
+package com.srivarini.csye6225.cloud.controller;
+
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// The JSON body describing one file, shared by upload, metadata, upload completion and listing responses.
+// Written by FileMetadataResponseSerializer as {"file_name", "id", "url", "upload_date"}
+public record FileMetadataResponse(String fileName, UUID id, String url, LocalDateTime uploadDate) {
+
+    public static FileMetadataResponse from(FileMetadata metadata) {
+        return new FileMetadataResponse(metadata.getFileName(), metadata.getId(), metadata.getFileUrl(), metadata.getUploadDate());
+    }
+}
@@ -0,0 +1,127 @@
+package com.srivarini.csye6225.cloud.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Writes FileMetadataResponse without going through bean introspection. Field names are encoded once, and the
+// id and upload date are formatted straight into a char buffer handed to the generator instead of through
+// UUID.toString()/LocalDateTime.toString(). The output is identical to those toString() forms
+@JsonComponent
+public class FileMetadataResponseSerializer extends JsonSerializer<FileMetadataResponse> {
+
+    private static final SerializedString FILE_NAME = new SerializedString("file_name");
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString URL = new SerializedString("url");
+    private static final SerializedString UPLOAD_DATE = new SerializedString("upload_date");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    // 36 for a UUID; yyyy-MM-ddTHH:mm:ss.nnnnnnnnn is 29
+    private static final int BUFFER_SIZE = 36;
+
+    @Override
+    public void serialize(FileMetadataResponse value, JsonGenerator json, SerializerProvider provider) throws IOException {
+        write(json, value);
+    }
+
+    // Also used by the listing endpoint, which streams rows through its own generator
+    public static void write(JsonGenerator json, FileMetadataResponse value) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        json.writeStartObject();
+        json.writeFieldName(FILE_NAME);
+        json.writeString(value.fileName());
+        json.writeFieldName(ID);
+        if (value.id() == null) {
+            json.writeNull();
+        } else {
+            json.writeString(buffer, 0, formatUuid(value.id(), buffer));
+        }
+        json.writeFieldName(URL);
+        json.writeString(value.url());
+        json.writeFieldName(UPLOAD_DATE);
+        writeDateTime(json, value.uploadDate(), buffer);
+        json.writeEndObject();
+    }
+
+    // Same layout as UUID.toString(): 8-4-4-4-12 lower-case hex digits
+    static int formatUuid(UUID id, char[] buffer) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        hex(msb >>> 32, 8, buffer, 0);
+        buffer[8] = '-';
+        hex(msb >>> 16, 4, buffer, 9);
+        buffer[13] = '-';
+        hex(msb, 4, buffer, 14);
+        buffer[18] = '-';
+        hex(lsb >>> 48, 4, buffer, 19);
+        buffer[23] = '-';
+        hex(lsb, 12, buffer, 24);
+        return 36;
+    }
+
+    private static void hex(long value, int digits, char[] buffer, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static void writeDateTime(JsonGenerator json, LocalDateTime dateTime, char[] buffer) throws IOException {
+        if (dateTime == null) {
+            json.writeNull();
+        } else if (dateTime.getYear() < 0 || dateTime.getYear() > 9999) {
+            // Signed and expanded years never come from the clock; leave their formatting to the JDK
+            json.writeString(dateTime.toString());
+        } else {
+            json.writeString(buffer, 0, formatDateTime(dateTime, buffer));
+        }
+    }
+
+    // Same output as LocalDateTime.toString() for years 0-9999: seconds are omitted when they and the nanos are
+    // zero, and the fraction uses 3, 6 or 9 digits, whichever represents it exactly
+    static int formatDateTime(LocalDateTime dateTime, char[] buffer) {
+        digits(dateTime.getYear(), 4, buffer, 0);
+        buffer[4] = '-';
+        digits(dateTime.getMonthValue(), 2, buffer, 5);
+        buffer[7] = '-';
+        digits(dateTime.getDayOfMonth(), 2, buffer, 8);
+        buffer[10] = 'T';
+        digits(dateTime.getHour(), 2, buffer, 11);
+        buffer[13] = ':';
+        digits(dateTime.getMinute(), 2, buffer, 14);
+        int second = dateTime.getSecond();
+        int nano = dateTime.getNano();
+        if (second == 0 && nano == 0) {
+            return 16;
+        }
+        buffer[16] = ':';
+        digits(second, 2, buffer, 17);
+        if (nano == 0) {
+            return 19;
+        }
+        buffer[19] = '.';
+        if (nano % 1_000_000 == 0) {
+            digits(nano / 1_000_000, 3, buffer, 20);
+            return 23;
+        }
+        if (nano % 1_000 == 0) {
+            digits(nano / 1_000, 6, buffer, 20);
+            return 26;
+        }
+        digits(nano, 9, buffer, 20);
+        return 29;
+    }
+
+    private static void digits(int value, int count, char[] buffer, int offset) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.srivarini.csye6225.cloud.controller;
 
 import com.srivarini.csye6225.cloud.service.HealthStatusServiceImpl;
 import com.srivarini.csye6225.cloud.service.MetricsService;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,12 +23,22 @@ public class HealthStatusController {
     private HealthStatusServiceImpl service;
     @Autowired
     private MetricsService metricsService;
+
+    private MetricsService.Counter getCount;
+    private MetricsService.Timer getTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        getCount = metricsService.counter("controller.health.get.count");
+        getTimer = metricsService.timer("controller.health.get.timer");
+    }
+
     // Validating the health of application.
     @GetMapping
     public ResponseEntity<Void> healthCheck(@RequestParam Map<String, String> allParams,
                                             @RequestBody(required = false) String payload) {
         long startTime = System.currentTimeMillis();
-        metricsService.increment("controller.health.get.count");
+        getCount.increment();
         // Check for unwanted query parameters
         if (!allParams.isEmpty()) {
             logger.warn("Query parameters received in GET request, rejecting with 400 Bad Request");
@@ -47,9 +58,10 @@ public class HealthStatusController {
         }
 
         // returns 200 OK if success else 503 service unavailable
+        boolean healthy = false;
         try {
-            boolean isHealthy = service.performHealthCheck();
-            if (isHealthy) {
+            healthy = service.performHealthCheck();
+            if (healthy) {
                 logger.info("Health check successful");
                 return ResponseEntity.ok()
                         .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
@@ -73,7 +85,7 @@ public class HealthStatusController {
                     .header("X-Content-Type-Options", "nosniff")
                     .build();
         }finally {
-            metricsService.timing("controller.health.get.timer", System.currentTimeMillis() - startTime);
+            getTimer.record(System.currentTimeMillis() - startTime, healthy);
         }
     }
 
@@ -0,0 +1,119 @@
+package com.srivarini.csye6225.cloud.controller;
+
+import com.srivarini.csye6225.cloud.service.MetricsService;
+import com.srivarini.csye6225.cloud.service.UploadSessionService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Pre-signed upload flow: POST /v1/file/uploads reserves an id and returns a URL the client PUTs the file to
+// directly, then POST /v1/file/uploads/{id}/complete commits the file once the object is in S3
+@RestController
+@RequestMapping("/v1/file/uploads")
+public class UploadSessionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionController.class);
+
+    private static final Set<String> SESSION_FIELDS = Set.of("file_name", "content_length");
+    // Object keys are "<uuid>-<file name>" and file_name columns hold 255 characters
+    private static final int MAX_FILE_NAME_LENGTH = 255 - 37;
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    // 5 GiB is the largest object a single PUT can create
+    @Value("${upload.session.max-content-length-bytes:5368709120}")
+    private long maxContentLength;
+
+    private MetricsService.Counter createCount;
+    private MetricsService.Timer createTimer;
+    private MetricsService.Counter completeCount;
+    private MetricsService.Timer completeTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        createCount = metricsService.counter("controller.file.upload-session.post.count");
+        createTimer = metricsService.timer("controller.file.upload-session.post.timer");
+        completeCount = metricsService.counter("controller.file.upload-session.complete.count");
+        completeTimer = metricsService.timer("controller.file.upload-session.complete.timer");
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createSession(@RequestBody Map<String, Object> requestBody, @RequestParam Map<String, String> queryParams) {
+        logger.info("Received POST /v1/file/uploads request to start an upload session.");
+        long startTime = System.currentTimeMillis();
+        createCount.increment();
+        ResponseEntity<Map<String, Object>> response = null;
+        try {
+            Object fileName = requestBody.get("file_name");
+            Object contentLength = requestBody.get("content_length");
+            if (!queryParams.isEmpty() || !SESSION_FIELDS.containsAll(requestBody.keySet())) {
+                logger.warn("Upload session rejected: unexpected query parameters or body fields.");
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            } else if (!(fileName instanceof String name) || name.isBlank() || name.length() > MAX_FILE_NAME_LENGTH) {
+                logger.warn("Upload session rejected: file_name is missing or invalid.");
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            } else if (!(contentLength instanceof Integer || contentLength instanceof Long)
+                    || ((Number) contentLength).longValue() <= 0 || ((Number) contentLength).longValue() > maxContentLength) {
+                logger.warn("Upload session rejected: content_length is missing or out of range.");
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            } else {
+                UploadSessionService.PresignedUpload upload = uploadSessionService.createSession(name, ((Number) contentLength).longValue());
+                response = ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                        "id", upload.id(),
+                        "file_name", upload.fileName(),
+                        "upload_url", upload.uploadUrl().toString(),
+                        "method", "PUT",
+                        "expires_at", upload.expiresAt().atOffset(ZoneOffset.UTC).toString()
+                ));
+            }
+            return response;
+        } finally {
+            createTimer.record(System.currentTimeMillis() - startTime, isSuccess(response));
+        }
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<FileMetadataResponse> completeSession(@PathVariable UUID id, @RequestParam Map<String, String> queryParams, @RequestBody(required = false) String requestBody) {
+        logger.info("Received POST /v1/file/uploads/{}/complete request.", id);
+        long startTime = System.currentTimeMillis();
+        completeCount.increment();
+        ResponseEntity<FileMetadataResponse> response = null;
+        try {
+            if (!queryParams.isEmpty() || (requestBody != null && !requestBody.isEmpty())) {
+                logger.warn("Upload completion rejected: query parameters and request body are not allowed.");
+                response = ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            } else {
+                UploadSessionService.Completion completion = uploadSessionService.completeSession(id);
+                response = switch (completion.outcome()) {
+                    case COMPLETED -> ResponseEntity.status(HttpStatus.CREATED).body(FileMetadataResponse.from(completion.metadata()));
+                    case ALREADY_COMPLETED -> ResponseEntity.ok(FileMetadataResponse.from(completion.metadata()));
+                    case NOT_FOUND -> ResponseEntity.notFound().build();
+                    case EXPIRED -> ResponseEntity.status(HttpStatus.GONE).build();
+                    // The client has not (fully) uploaded the object yet and may retry the completion
+                    case OBJECT_MISSING -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+                };
+            }
+            return response;
+        } finally {
+            completeTimer.record(System.currentTimeMillis() - startTime, isSuccess(response));
+        }
+    }
+
+    private static boolean isSuccess(ResponseEntity<?> response) {
+        return response != null && response.getStatusCode().is2xxSuccessful();
+    }
+}
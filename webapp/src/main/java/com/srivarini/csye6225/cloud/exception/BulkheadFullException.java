@@ -0,0 +1,24 @@
+package com.srivarini.csye6225.cloud.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+// Thrown when the database bulkhead has no free permits; callers should shed the request rather than queue on the pool
+public class BulkheadFullException extends SQLTransientConnectionException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+
+    // True if the throwable or any of its causes is a bulkhead rejection
+    public static boolean isCauseOf(Throwable throwable) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current instanceof BulkheadFullException) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+}
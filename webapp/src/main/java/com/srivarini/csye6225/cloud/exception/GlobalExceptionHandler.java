@@ -38,6 +38,10 @@ public class GlobalExceptionHandler {
     // Handle database errors (SQL issues)
     @ExceptionHandler({SQLException.class, DataAccessException.class})
     public ResponseEntity<Void> handleDatabaseExceptions(Exception ex) {
+        if (BulkheadFullException.isCauseOf(ex)) {
+            logger.warn("Database bulkhead saturated, shedding request: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
         logger.error("Database error occurred: {}", ex.getMessage(), ex);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
     }
@@ -81,6 +85,10 @@ public class GlobalExceptionHandler {
     // Handle all uncaught runtime exceptions
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Void> handleRuntimeExceptions(RuntimeException ex) {
+        if (BulkheadFullException.isCauseOf(ex)) {
+            logger.warn("Database bulkhead saturated, shedding request: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
         logger.error("Unhandled runtime exception occurred: {}", ex.getMessage(), ex);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
     }
@@ -0,0 +1,25 @@
+package com.srivarini.csye6225.cloud.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// UUID identifier that keeps a value the application assigned up front (e.g. an id reserved by an
+// upload session before the row exists) and otherwise generates one of the given version
+@IdGeneratorType(AssignableUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface AssignableUuid {
+
+    Version value() default Version.TIME_ORDERED;
+
+    enum Version {
+        // Version 4: every insert lands on a random page of the primary key index
+        RANDOM,
+        // Version 7 (UuidV7): inserts append in time order
+        TIME_ORDERED
+    }
+}
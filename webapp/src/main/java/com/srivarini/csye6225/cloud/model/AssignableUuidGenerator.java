@@ -0,0 +1,36 @@
+package com.srivarini.csye6225.cloud.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+public class AssignableUuidGenerator implements BeforeExecutionGenerator {
+
+    private final Supplier<UUID> generator;
+
+    public AssignableUuidGenerator(AssignableUuid config) {
+        this.generator = config.value() == AssignableUuid.Version.RANDOM ? UUID::randomUUID : UuidV7::generate;
+    }
+
+    // Hibernate does not pass the entity's current id when generating one on insert, so it is read from the entity
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        Object assigned = currentValue != null ? currentValue : session.getEntityPersister(null, owner).getIdentifier(owner, session);
+        return assigned != null ? assigned : generator.get();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+}
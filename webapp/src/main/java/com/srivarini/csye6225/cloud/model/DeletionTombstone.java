@@ -0,0 +1,57 @@
+package com.srivarini.csye6225.cloud.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// An S3 object still to be deleted after its file_metadata row is gone. Written in the same transaction as the
+// row delete and drained by TombstoneDrainer; rows that exhaust their retries stay behind as dead letters.
+@Entity
+@Table(name = "deletion_tombstone",
+        indexes = @Index(name = "idx_deletion_tombstone_due", columnList = "dead_lettered, next_attempt_at"))
+public class DeletionTombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private LocalDateTime enqueuedAt;
+
+    // Earliest time the next attempt may start; while a worker holds the tombstone, the end of its lease
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Random token of the drain batch currently holding the tombstone
+    @Column(length = 36)
+    private String leaseOwner;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    @Column(nullable = false)
+    private boolean deadLettered;
+
+    public DeletionTombstone() {}
+
+    public DeletionTombstone(String fileName, LocalDateTime enqueuedAt) {
+        this.fileName = fileName;
+        this.enqueuedAt = enqueuedAt;
+        this.nextAttemptAt = enqueuedAt;
+    }
+
+    public Long getId() { return id; }
+    public String getFileName() { return fileName; }
+    public LocalDateTime getEnqueuedAt() { return enqueuedAt; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public int getAttempts() { return attempts; }
+    public String getLeaseOwner() { return leaseOwner; }
+    public String getLastError() { return lastError; }
+    public boolean isDeadLettered() { return deadLettered; }
+
+}
@@ -1,14 +1,21 @@
 package com.srivarini.csye6225.cloud.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "file_metadata")
-public class FileMetadata {
+@Table(name = "file_metadata", indexes = @Index(name = "idx_file_metadata_upload_date_id", columnList = "upload_date, id"))
+public class FileMetadata implements Persistable<UUID> {
+    // Time-ordered ids stored as 16 raw bytes keep the clustered primary key append-only
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @AssignableUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
     private UUID id;
 
     @Column(nullable = false, unique = true)
@@ -17,9 +24,25 @@ public class FileMetadata {
     @Column(nullable = false)
     private String fileUrl;
 
+    // UTC, like every other timestamp the service stores, so it compares directly with the reconciliation cutoff
     @Column(nullable = false)
     private LocalDateTime uploadDate;
 
+    // Set for deduplicated uploads, whose content lives in a shared stored_object; null for rows that own an
+    // object named after their file_name (direct uploads and rows from before deduplication)
+    @Column(length = 64)
+    private String contentHash;
+
+    private String objectKey;
+
+    // Content-Encoding of the S3 object (e.g. gzip); null when the object holds the bytes as uploaded
+    @Column(length = 16)
+    private String contentEncoding;
+
+    // Rows created with a reserved id must still be inserted rather than merged (which would SELECT first)
+    @Transient
+    private boolean isNew = true;
+
     public FileMetadata() {}
 
     public FileMetadata(String fileName, String fileUrl, LocalDateTime uploadDate) {
@@ -28,9 +51,36 @@ public class FileMetadata {
         this.uploadDate = uploadDate;
     }
 
+    public FileMetadata(UUID id, String fileName, String fileUrl, LocalDateTime uploadDate) {
+        this(fileName, fileUrl, uploadDate);
+        this.id = id;
+    }
+
+    public FileMetadata(String fileName, String fileUrl, LocalDateTime uploadDate, String contentHash, String objectKey,
+                        String contentEncoding) {
+        this(fileName, fileUrl, uploadDate);
+        this.contentHash = contentHash;
+        this.objectKey = objectKey;
+        this.contentEncoding = contentEncoding;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
     public UUID getId() { return id; }
     public String getFileName() { return fileName; }
     public String getFileUrl() { return fileUrl; }
     public LocalDateTime getUploadDate() { return uploadDate; }
+    public String getContentHash() { return contentHash; }
+    // S3 key holding this file's bytes
+    public String getObjectKey() { return objectKey != null ? objectKey : fileName; }
+    public String getContentEncoding() { return contentEncoding; }
+
+    @Override
+    public boolean isNew() { return isNew; }
 
-}
\ No newline at end of file
+}
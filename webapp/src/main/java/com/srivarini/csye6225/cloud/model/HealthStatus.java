@@ -5,7 +5,7 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "health_status")
+@Table(name = "health_status", indexes = @Index(name = "idx_health_status_datetime", columnList = "datetime"))
 public class HealthStatus {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
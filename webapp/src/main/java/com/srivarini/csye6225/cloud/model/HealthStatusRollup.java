@@ -0,0 +1,40 @@
+package com.srivarini.csye6225.cloud.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Per-minute aggregate of raw health_status rows, kept after the raw rows pass the retention horizon
+@Entity
+@Table(name = "health_status_rollup")
+public class HealthStatusRollup {
+    @Id
+    private LocalDateTime bucketMinute;
+
+    @Column(nullable = false)
+    private long sampleCount;
+
+    @Column(nullable = false)
+    private LocalDateTime firstSeen;
+
+    @Column(nullable = false)
+    private LocalDateTime lastSeen;
+
+    // Longest interval between consecutive probes that ended in this minute
+    @Column(nullable = false)
+    private long maxGapMs;
+
+    // Number of intervals ending in this minute that exceeded the configured gap threshold
+    @Column(nullable = false)
+    private long gapCount;
+
+    public HealthStatusRollup() {}
+
+    public LocalDateTime getBucketMinute() { return bucketMinute; }
+    public long getSampleCount() { return sampleCount; }
+    public LocalDateTime getFirstSeen() { return firstSeen; }
+    public LocalDateTime getLastSeen() { return lastSeen; }
+    public long getMaxGapMs() { return maxGapMs; }
+    public long getGapCount() { return gapCount; }
+
+}
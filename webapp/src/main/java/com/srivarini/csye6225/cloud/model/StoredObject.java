@@ -0,0 +1,67 @@
+package com.srivarini.csye6225.cloud.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// One S3 object per distinct upload content, shared by every file_metadata row with that SHA-256. The object is
+// deleted when the last referencing row is; ref_count only changes through StoredObjectRepository's guarded updates.
+@Entity
+@Table(name = "stored_object")
+public class StoredObject implements Persistable<String> {
+    // Lowercase hex SHA-256 of the content
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, unique = true)
+    private String objectKey;
+
+    @Column(nullable = false)
+    private long contentLength;
+
+    @Column(nullable = false)
+    private long refCount;
+
+    // Content-Encoding the object was stored with; null when stored as uploaded
+    @Column(length = 16)
+    private String contentEncoding;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // A concurrent upload of the same content must fail on the primary key rather than be merged over
+    @Transient
+    private boolean isNew = true;
+
+    public StoredObject() {}
+
+    public StoredObject(String contentHash, String objectKey, long contentLength, String contentEncoding, LocalDateTime createdAt) {
+        this.contentHash = contentHash;
+        this.objectKey = objectKey;
+        this.contentLength = contentLength;
+        this.contentEncoding = contentEncoding;
+        this.refCount = 1;
+        this.createdAt = createdAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public String getId() { return contentHash; }
+    public String getContentHash() { return contentHash; }
+    public String getObjectKey() { return objectKey; }
+    public long getContentLength() { return contentLength; }
+    public long getRefCount() { return refCount; }
+    public String getContentEncoding() { return contentEncoding; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+}
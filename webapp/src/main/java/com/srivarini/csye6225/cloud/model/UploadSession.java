@@ -0,0 +1,61 @@
+package com.srivarini.csye6225.cloud.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A pre-signed upload that has been handed out but not yet completed. The id is the FileMetadata id reserved for
+// the file; the row is deleted when the upload is completed or when it expires.
+@Entity
+@Table(name = "upload_session", indexes = @Index(name = "idx_upload_session_expires_at", columnList = "expires_at"))
+public class UploadSession implements Persistable<UUID> {
+    @Id
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private UUID id;
+
+    @Column(nullable = false, unique = true)
+    private String fileName;
+
+    @Column(nullable = false)
+    private long contentLength;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    public UploadSession() {}
+
+    public UploadSession(UUID id, String fileName, long contentLength, LocalDateTime expiresAt) {
+        this.id = id;
+        this.fileName = fileName;
+        this.contentLength = contentLength;
+        this.expiresAt = expiresAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public UUID getId() { return id; }
+    public String getFileName() { return fileName; }
+    public long getContentLength() { return contentLength; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+
+    public boolean isExpired(LocalDateTime now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+}
@@ -0,0 +1,39 @@
+package com.srivarini.csye6225.cloud.model;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+// RFC 9562 version 7 UUIDs: a 48-bit Unix millisecond timestamp, a 12-bit counter that keeps ids from this process
+// strictly increasing within a millisecond, then 62 random bits. Compared as big-endian bytes (as BINARY(16) is),
+// consecutive ids sort in creation order, so primary key inserts append to the right-most index page.
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int MAX_COUNTER = 0xFFF;
+
+    private static long lastMillis = -1;
+    private static int counter;
+
+    private UuidV7() {}
+
+    public static UUID generate() {
+        return generate(System.currentTimeMillis());
+    }
+
+    // The counter starts at a random value below half its range each millisecond, leaving room to increment.
+    // If it overflows, or the clock steps back, the timestamp is advanced past the last one used instead
+    static synchronized UUID generate(long nowMillis) {
+        if (nowMillis > lastMillis) {
+            lastMillis = nowMillis;
+            counter = RANDOM.nextInt(MAX_COUNTER / 2 + 1);
+        } else if (counter < MAX_COUNTER) {
+            counter++;
+        } else {
+            lastMillis++;
+            counter = 0;
+        }
+        long mostSigBits = (lastMillis & 0xFFFF_FFFF_FFFFL) << 16 | 0x7000L | counter;
+        long leastSigBits = RANDOM.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL | 0x8000_0000_0000_0000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -0,0 +1,7 @@
+package com.srivarini.csye6225.cloud.repository;
+
+import com.srivarini.csye6225.cloud.model.DeletionTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DeletionTombstoneRepository extends JpaRepository<DeletionTombstone, Long> {
+}
@@ -1,10 +1,54 @@
 package com.srivarini.csye6225.cloud.repository;
 
 import com.srivarini.csye6225.cloud.model.FileMetadata;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface FileMetadataRepository extends JpaRepository<FileMetadata, UUID> {
     Optional<FileMetadata> findByFileName(String fileName);
-}
\ No newline at end of file
+
+    // Returns the number of rows deleted, so concurrent deletes of the same file can tell which one won
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FileMetadata f WHERE f.id = :id")
+    int deleteMetadata(@Param("id") UUID id);
+
+    // Locks the rows that still exist, so a bulk delete knows exactly which rows it removes. Needs a transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM FileMetadata f WHERE f.id IN :ids")
+    List<FileMetadata> lockAllById(@Param("ids") Collection<UUID> ids);
+
+    // Keyset pages in (uploadDate, id) order, served by idx_file_metadata_upload_date_id. Rows are read-only so
+    // Hibernate keeps no snapshots for dirty checking; streams must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Stream<FileMetadata> streamByOrderByUploadDateAscIdAsc(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT f FROM FileMetadata f WHERE f.uploadDate > :uploadDate OR (f.uploadDate = :uploadDate AND f.id > :id) "
+            + "ORDER BY f.uploadDate, f.id")
+    Stream<FileMetadata> streamAfter(@Param("uploadDate") LocalDateTime uploadDate, @Param("id") UUID id, Limit limit);
+
+    // Keyset pages in file_name order over its unique index, for merging against S3 listings. Only rows that own
+    // an object named after them; deduplicated rows reference a stored_object instead
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<FileMetadata> findByContentHashIsNullOrderByFileName(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<FileMetadata> findByContentHashIsNullAndFileNameGreaterThanOrderByFileName(String fileName, Limit limit);
+}
@@ -0,0 +1,47 @@
+package com.srivarini.csye6225.cloud.repository;
+
+import com.srivarini.csye6225.cloud.model.StoredObject;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StoredObjectRepository extends JpaRepository<StoredObject, String> {
+
+    // Only takes a reference while the object is live; 0 means it is absent or its last reference is being released
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredObject s SET s.refCount = s.refCount + 1 WHERE s.contentHash = :hash AND s.refCount > 0")
+    int addReference(@Param("hash") String contentHash);
+
+    // Releases the references of several deleted rows at once
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredObject s SET s.refCount = s.refCount - :count WHERE s.contentHash = :hash AND s.refCount >= :count")
+    int releaseReferences(@Param("hash") String contentHash, @Param("count") long count);
+
+    // Objects whose last reference the calling transaction released; its updates hold their row locks until commit
+    List<StoredObject> findByContentHashInAndRefCount(Collection<String> contentHashes, long refCount);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredObject s WHERE s.contentHash IN :hashes AND s.refCount = 0")
+    int deleteUnreferenced(@Param("hashes") Collection<String> contentHashes);
+
+    boolean existsByObjectKey(String objectKey);
+
+    // Keyset pages in object_key order over its unique index, for merging against S3 listings
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<StoredObject> findByOrderByObjectKey(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<StoredObject> findByObjectKeyGreaterThanOrderByObjectKey(String objectKey, Limit limit);
+}
@@ -0,0 +1,24 @@
+package com.srivarini.csye6225.cloud.repository;
+
+import com.srivarini.csye6225.cloud.model.UploadSession;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    List<UploadSession> findByExpiresAtBeforeOrderByExpiresAt(LocalDateTime cutoff, Limit limit);
+
+    // Completion and expiry both claim a session by deleting its row; only the caller that sees 1 may proceed
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UploadSession s WHERE s.id = :id")
+    int claim(@Param("id") UUID id);
+}
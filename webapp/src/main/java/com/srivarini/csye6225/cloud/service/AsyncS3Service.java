@@ -0,0 +1,32 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import org.springframework.web.multipart.MultipartFile;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncS3Service {
+    /**
+     * Uploads a file to the configured AWS S3 bucket without blocking the calling thread. Content already stored
+     * is not uploaded again; the new metadata row references the existing object. Compressible content may be
+     * stored gzip-encoded, as with {@link S3Service#uploadFile}.
+     * @param file MultipartFile object representing the file.
+     * @return Future completed with the saved metadata, or exceptionally if the upload fails.
+     */
+    CompletableFuture<FileMetadata> uploadFile(MultipartFile file);
+
+    /**
+     * Retrieves file metadata from the database off the calling thread.
+     * @param id Unique identifier of the file.
+     * @return Future completed with the metadata if found, otherwise an empty Optional.
+     */
+    CompletableFuture<Optional<FileMetadata>> getFileMetadata(UUID id);
+
+    /**
+     * Removes a file's metadata from the database and queues its S3 object for background deletion.
+     * @param id uuid of the file to delete.
+     * @return Future completed with true if deletion is successful, false if the file does not exist.
+     */
+    CompletableFuture<Boolean> deleteFile(UUID id);
+}
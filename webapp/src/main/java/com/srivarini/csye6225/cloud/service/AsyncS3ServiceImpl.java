@@ -0,0 +1,193 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.config.RequestTimings;
+import com.srivarini.csye6225.cloud.config.S3Config;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import com.srivarini.csye6225.cloud.repository.FileMetadataRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@ConditionalOnProperty(name = "aws.s3.async.enabled", havingValue = "true")
+public class AsyncS3ServiceImpl implements AsyncS3Service {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncS3ServiceImpl.class);
+
+    @Autowired
+    private S3Config s3Config;
+
+    @Autowired
+    private S3AsyncClient s3AsyncClient;
+
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+    @Autowired
+    private MetricsService metricsService;
+    @Autowired
+    private FileMetadataCache fileMetadataCache;
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    @Autowired
+    private FileDeletionQueue fileDeletionQueue;
+    @Autowired
+    private ContentStore contentStore;
+    @Autowired
+    private UploadCompression uploadCompression;
+
+    private final Semaphore inFlight;
+    // Reads multipart streams into the request body; blocking disk reads must stay off the Netty event loop
+    private final ExecutorService streamExecutor;
+    // Runs blocking JPA calls; sized to the read and write pools together so excess work queues here instead of on
+    // connections
+    private final ExecutorService metadataExecutor;
+
+    public AsyncS3ServiceImpl(
+            @Value("${aws.s3.async.max-concurrency:200}") int maxConcurrency,
+            @Value("${aws.s3.async.stream-threads:4}") int streamThreads,
+            @Value("${db.pool.read.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size}}") int readPoolSize,
+            @Value("${db.pool.write.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size}}") int writePoolSize) {
+        this.inFlight = new Semaphore(maxConcurrency);
+        this.streamExecutor = Executors.newFixedThreadPool(streamThreads, Thread.ofPlatform().name("s3-stream-", 0).daemon().factory());
+        this.metadataExecutor = Executors.newFixedThreadPool(readPoolSize + writePoolSize, Thread.ofPlatform().name("metadata-db-", 0).daemon().factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdown();
+        metadataExecutor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<FileMetadata> uploadFile(MultipartFile file) {
+        if (!inFlight.tryAcquire()) {
+            logger.warn("Rejecting upload of '{}': async S3 concurrency limit reached", file.getOriginalFilename());
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Async S3 concurrency limit reached"));
+        }
+        String originalFilename = file.getOriginalFilename();
+        String fileName = UUID.randomUUID().toString() + "-" + file.getOriginalFilename();
+
+        StorageCodec codec = uploadCompression.codecFor(file);
+        PartStreams partStreams;
+        try {
+            partStreams = PartStreams.open(file, codec, uploadCompression.level());
+        } catch (IOException e) {
+            inFlight.release();
+            logger.error("Failed to read file stream for '{}'", originalFilename, e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // Captured on the request thread; the phases below complete on SDK and executor threads
+        RequestTimings timings = RequestTimings.current();
+        long hashStart = System.nanoTime();
+        // Hashing reads the spooled part from disk, so it runs on the stream executor like the upload body does
+        return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return partStreams.digest();
+                    } catch (IOException e) {
+                        logger.error("Failed to read file stream for '{}'", originalFilename, e);
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        recordPhase(timings, RequestTimings.Phase.PARSE, "service.upload.hash.timer", hashStart);
+                    }
+                }, streamExecutor)
+                .thenComposeAsync(digest -> {
+                    long dbStart = System.nanoTime();
+                    Optional<FileMetadata> reference;
+                    try {
+                        reference = contentStore.saveIfStored(fileName, digest);
+                    } finally {
+                        recordPhase(timings, RequestTimings.Phase.DB, "service.db.filemetadata.insert.timer", dbStart);
+                    }
+                    if (reference.isPresent()) {
+                        return CompletableFuture.completedFuture(reference.get());
+                    }
+                    return putObject(file, fileName, digest, partStreams, timings)
+                            .thenApplyAsync(response -> {
+                                long insertStart = System.nanoTime();
+                                try {
+                                    return contentStore.saveUploaded(fileName, codec, digest, file.getSize());
+                                } finally {
+                                    recordPhase(timings, RequestTimings.Phase.DB, "service.db.filemetadata.insert.timer", insertStart);
+                                }
+                            }, metadataExecutor);
+                }, metadataExecutor)
+                .whenComplete((metadata, ex) -> {
+                    partStreams.close();
+                    inFlight.release();
+                });
+    }
+
+    // S3 verifies the body against the digest, so the content hash is also an integrity check
+    private CompletableFuture<PutObjectResponse> putObject(MultipartFile file, String fileName, PartStreams.Digest digest,
+                                                           PartStreams partStreams, RequestTimings timings) {
+        logger.info("Uploading file '{}' to S3 bucket '{}' asynchronously", file.getOriginalFilename(), s3Config.getBucketName());
+        long s3Start = System.nanoTime();
+        return s3AsyncClient.putObject(digest.putObjectRequest(s3Config.getBucketName(), fileName),
+                        partStreams.asyncRequestBody(digest.storedLength(), streamExecutor))
+                .whenComplete((response, ex) -> {
+                    recordPhase(timings, RequestTimings.Phase.S3, "service.s3.upload.timer", s3Start);
+                    if (ex != null) {
+                        logger.error("Error occurred while uploading file '{}' to S3", file.getOriginalFilename(), ex);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<Optional<FileMetadata>> getFileMetadata(UUID id) {
+        logger.info("Retrieving metadata for file ID: {}", id);
+        RequestTimings timings = RequestTimings.current();
+        return CompletableFuture.supplyAsync(() -> fileMetadataCache.get(id, key -> findMetadata(timings, key)), metadataExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteFile(UUID id) {
+        logger.info("Attempting to delete file with ID: {}", id);
+        RequestTimings timings = RequestTimings.current();
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<FileMetadata> fileMetadata = fileMetadataCache.get(id, key -> findMetadata(timings, key));
+            if (fileMetadata.isEmpty()) {
+                logger.warn("File with ID {} not found in metadata repository.", id);
+                return false;
+            }
+            // The S3 object is removed later by TombstoneDrainer
+            long dbStart = System.nanoTime();
+            try {
+                boolean deleted = fileDeletionQueue.enqueue(fileMetadata.get());
+                if (deleted) {
+                    logger.info("Deleted file '{}' from database and queued its S3 object for deletion.", fileMetadata.get().getFileName());
+                }
+                return deleted;
+            } finally {
+                recordPhase(timings, RequestTimings.Phase.DB, "service.db.filemetadata.delete.timer", dbStart);
+            }
+        }, metadataExecutor);
+    }
+
+    private Optional<FileMetadata> findMetadata(RequestTimings timings, UUID id) {
+        return readYourWrites.find(id, key -> timings.time(RequestTimings.Phase.DB, () -> fileMetadataRepository.findById(key)));
+    }
+
+    private void recordPhase(RequestTimings timings, RequestTimings.Phase phase, String timer, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        timings.record(phase, elapsed);
+        metricsService.timing(timer, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+}
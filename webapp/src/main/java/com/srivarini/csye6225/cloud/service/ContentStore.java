@@ -0,0 +1,146 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.config.S3Config;
+import com.srivarini.csye6225.cloud.model.DeletionTombstone;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import com.srivarini.csye6225.cloud.model.StoredObject;
+import com.srivarini.csye6225.cloud.repository.DeletionTombstoneRepository;
+import com.srivarini.csye6225.cloud.repository.FileMetadataRepository;
+import com.srivarini.csye6225.cloud.repository.StoredObjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// Content-addressed storage behind uploads. Each distinct SHA-256 is stored once, as the object of the first upload
+// that had it, and stored_object counts the file_metadata rows referencing it. Adding a reference and writing the
+// row happen in one transaction, as do deleting a row and releasing its reference, so the count always matches
+// the rows. The object is handed to the tombstone queue when the last reference goes.
+@Component
+public class ContentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentStore.class);
+
+    @Autowired
+    private S3Config s3Config;
+    @Autowired
+    private StoredObjectRepository storedObjectRepository;
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+    @Autowired
+    private DeletionTombstoneRepository deletionTombstoneRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private FileMetadataCache fileMetadataCache;
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    @Autowired
+    private UploadCompression uploadCompression;
+    @Autowired
+    private MetricsService metricsService;
+
+    // The database side of an upload, shared by the synchronous and asynchronous paths around their PutObject.
+    // Saves a row for fileName sharing an already stored copy of the digested content. Empty when there is none, in
+    // which case the caller uploads the content and then calls saveUploaded
+    Optional<FileMetadata> saveIfStored(String fileName, PartStreams.Digest digest) {
+        Optional<FileMetadata> reference = saveReference(fileName, digest.contentHash());
+        reference.ifPresent(metadata -> {
+            cache(metadata);
+            logger.info("File '{}' has the same content as stored object '{}'; skipped the S3 upload", fileName,
+                    metadata.getObjectKey());
+        });
+        return reference;
+    }
+
+    // Records content just uploaded under fileName, which was requested with the given codec
+    FileMetadata saveUploaded(String fileName, StorageCodec requested, PartStreams.Digest digest, long contentLength) {
+        uploadCompression.record(requested, digest, contentLength);
+        FileMetadata saved = saveNewObject(fileName, digest.contentHash(), contentLength, digest.codec().contentEncoding());
+        cache(saved);
+        logger.info("File '{}' uploaded successfully. S3 URL: {}", fileName, saved.getFileUrl());
+        return saved;
+    }
+
+    // Saves a row for fileName that shares the stored object with this content. Empty when there is no live object
+    // to share, in which case the caller uploads the content itself
+    public Optional<FileMetadata> saveReference(String fileName, String contentHash) {
+        Optional<FileMetadata> saved = transactionTemplate.execute(status -> {
+            if (storedObjectRepository.addReference(contentHash) == 0) {
+                return Optional.<FileMetadata>empty();
+            }
+            StoredObject stored = storedObjectRepository.findById(contentHash).orElseThrow();
+            return Optional.of(fileMetadataRepository.save(new FileMetadata(fileName, objectUrl(stored.getObjectKey()),
+                    LocalDateTime.now(ZoneOffset.UTC), contentHash, stored.getObjectKey(), stored.getContentEncoding())));
+        });
+        metricsService.increment(saved.isPresent() ? "storage.dedup.hit.count" : "storage.dedup.miss.count");
+        return saved;
+    }
+
+    // Records content just uploaded under fileName as a new stored object with one reference. If the same content
+    // was stored concurrently, the row references that object instead and this upload's copy is queued for deletion
+    public FileMetadata saveNewObject(String fileName, String contentHash, long contentLength, String contentEncoding) {
+        try {
+            return transactionTemplate.execute(status -> {
+                storedObjectRepository.saveAndFlush(new StoredObject(contentHash, fileName, contentLength, contentEncoding,
+                        LocalDateTime.now(ZoneOffset.UTC)));
+                return fileMetadataRepository.save(new FileMetadata(fileName, objectUrl(fileName), LocalDateTime.now(ZoneOffset.UTC), contentHash,
+                        fileName, contentEncoding));
+            });
+        } catch (DataIntegrityViolationException e) {
+            Optional<FileMetadata> reference = saveReference(fileName, contentHash);
+            if (reference.isEmpty()) {
+                throw e;
+            }
+            logger.info("Content of '{}' was stored concurrently; sharing the existing object", fileName);
+            deletionTombstoneRepository.save(new DeletionTombstone(fileName, LocalDateTime.now(ZoneOffset.UTC)));
+            return reference.get();
+        }
+    }
+
+    // Releases the rows' holds on their objects and returns the keys of objects nothing references any more: the
+    // row's own object when it has no content hash, and stored objects whose last reference went. One UPDATE per
+    // distinct hash, in hash order so concurrent bulk deletes lock stored_object rows in the same order.
+    // Must run in the transaction that deletes the rows
+    public List<String> releaseAll(Collection<FileMetadata> rows) {
+        List<String> unreferenced = new ArrayList<>();
+        Map<String, Long> references = new TreeMap<>();
+        for (FileMetadata metadata : rows) {
+            if (metadata.getContentHash() == null) {
+                unreferenced.add(metadata.getObjectKey());
+            } else {
+                references.merge(metadata.getContentHash(), 1L, Long::sum);
+            }
+        }
+        if (references.isEmpty()) {
+            return unreferenced;
+        }
+        references.forEach(storedObjectRepository::releaseReferences);
+        List<StoredObject> released = storedObjectRepository.findByContentHashInAndRefCount(references.keySet(), 0);
+        if (!released.isEmpty()) {
+            storedObjectRepository.deleteUnreferenced(released.stream().map(StoredObject::getContentHash).toList());
+            released.forEach(stored -> unreferenced.add(stored.getObjectKey()));
+        }
+        return unreferenced;
+    }
+
+    private void cache(FileMetadata metadata) {
+        fileMetadataCache.put(metadata);
+        readYourWrites.recordWrite(metadata.getId());
+    }
+
+    private String objectUrl(String objectKey) {
+        return "https://" + s3Config.getBucketName() + ".s3.amazonaws.com/" + objectKey;
+    }
+}
@@ -0,0 +1,27 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import org.springframework.http.HttpRange;
+
+import java.util.Optional;
+
+public interface FileContentService {
+    /**
+     * Opens the stored bytes of a file: from the local disk cache when present, otherwise streamed from S3
+     * (and cached on the way when the whole object is read). Ranges address the object as stored, i.e. the
+     * encoded bytes of a compressed upload.
+     * @param metadata the file to read.
+     * @param range byte range to read, or null for the whole object.
+     * @return the opened content, which the caller must close; empty if the object is missing from S3.
+     */
+    Optional<StoredContent> open(FileMetadata metadata, HttpRange range);
+
+    /**
+     * Describes the stored bytes of a file for a HEAD request: the length of the cached copy, or a HeadObject
+     * when it is not cached, so no body is fetched.
+     * @param metadata the file to describe.
+     * @param range byte range that would be read, or null for the whole object.
+     * @return the slice's bounds, with no body; empty if the object is missing from S3.
+     */
+    Optional<StoredContent> describe(FileMetadata metadata, HttpRange range);
+}
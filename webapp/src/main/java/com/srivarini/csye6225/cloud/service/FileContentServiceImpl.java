@@ -0,0 +1,137 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.config.RequestTimings;
+import com.srivarini.csye6225.cloud.config.S3Config;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class FileContentServiceImpl implements FileContentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileContentServiceImpl.class);
+
+    @Autowired
+    private S3Config s3Config;
+    @Autowired
+    private S3Client s3Client;
+    @Autowired
+    private ObjectDiskCache objectDiskCache;
+    @Autowired
+    private MetricsService metricsService;
+
+    @Override
+    public Optional<StoredContent> open(FileMetadata metadata, HttpRange range) {
+        String objectKey = metadata.getObjectKey();
+        Optional<ObjectDiskCache.Hit> hit = objectDiskCache.open(objectKey);
+        if (hit.isPresent()) {
+            return Optional.of(slice(hit.get(), range));
+        }
+
+        // A miss only waits for the response headers here; the body is relayed as the caller reads it
+        RequestTimings timings = RequestTimings.current();
+        long s3Start = System.nanoTime();
+        ResponseInputStream<GetObjectResponse> stream;
+        try {
+            stream = s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(s3Config.getBucketName())
+                    .key(objectKey)
+                    .range(range == null ? null : HttpRange.toString(List.of(range)))
+                    .build());
+        } catch (NoSuchKeyException e) {
+            logger.warn("Object '{}' for file {} is missing from S3", objectKey, metadata.getId());
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                return Optional.of(StoredContent.unsatisfiable(-1));
+            }
+            throw e;
+        } finally {
+            recordPhase(timings, RequestTimings.Phase.S3, "service.s3.get.timer", s3Start);
+        }
+
+        GetObjectResponse response = stream.response();
+        String contentRange = response.contentRange();
+        if (contentRange == null) {
+            long length = response.contentLength();
+            return Optional.of(StoredContent.streamed(stream, length, 0, length - 1, false,
+                    range == null ? objectDiskCache.startFill(objectKey, length) : null));
+        }
+        // bytes <first>-<last>/<complete length>
+        String[] bounds = contentRange.substring(contentRange.indexOf(' ') + 1).split("[-/]");
+        return Optional.of(StoredContent.streamed(stream, Long.parseLong(bounds[2]), Long.parseLong(bounds[0]),
+                Long.parseLong(bounds[1]), true, null));
+    }
+
+    @Override
+    public Optional<StoredContent> describe(FileMetadata metadata, HttpRange range) {
+        String objectKey = metadata.getObjectKey();
+        OptionalLong cached = objectDiskCache.length(objectKey);
+        long length;
+        if (cached.isPresent()) {
+            length = cached.getAsLong();
+        } else {
+            RequestTimings timings = RequestTimings.current();
+            long s3Start = System.nanoTime();
+            try {
+                length = s3Client.headObject(HeadObjectRequest.builder()
+                        .bucket(s3Config.getBucketName())
+                        .key(objectKey)
+                        .build()).contentLength();
+            } catch (S3Exception e) {
+                if (e.statusCode() == HttpStatus.NOT_FOUND.value()) {
+                    logger.warn("Object '{}' for file {} is missing from S3", objectKey, metadata.getId());
+                    return Optional.empty();
+                }
+                throw e;
+            } finally {
+                recordPhase(timings, RequestTimings.Phase.S3, "service.s3.head.timer", s3Start);
+            }
+        }
+        if (range == null) {
+            return Optional.of(StoredContent.described(length, 0, length - 1, false));
+        }
+        long start = range.getRangeStart(length);
+        long end = range.getRangeEnd(length);
+        if (start >= length || start > end) {
+            return Optional.of(StoredContent.unsatisfiable(length));
+        }
+        return Optional.of(StoredContent.described(length, start, end, true));
+    }
+
+    private void recordPhase(RequestTimings timings, RequestTimings.Phase phase, String timer, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        timings.record(phase, elapsed);
+        metricsService.timing(timer, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private static StoredContent slice(ObjectDiskCache.Hit hit, HttpRange range) {
+        long length = hit.length();
+        if (range == null) {
+            return StoredContent.cached(hit, 0, length - 1, false);
+        }
+        long start = range.getRangeStart(length);
+        long end = range.getRangeEnd(length);
+        if (start >= length || start > end) {
+            hit.close();
+            return StoredContent.unsatisfiable(length);
+        }
+        return StoredContent.cached(hit, start, end, true);
+    }
+}
@@ -0,0 +1,39 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+// Position in the (uploadDate, id) listing order: the last row of a page. Clients only see it as an opaque
+// base64url token, so the encoding can change without breaking the API contract.
+public record FileCursor(LocalDateTime uploadDate, UUID id) {
+
+    public static FileCursor after(FileMetadata metadata) {
+        return new FileCursor(metadata.getUploadDate(), metadata.getId());
+    }
+
+    public String encode() {
+        String position = uploadDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Empty for anything that is not a token produced by encode()
+    public static Optional<FileCursor> decode(String token) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            if (separator < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new FileCursor(LocalDateTime.parse(position.substring(0, separator)),
+                    UUID.fromString(position.substring(separator + 1))));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
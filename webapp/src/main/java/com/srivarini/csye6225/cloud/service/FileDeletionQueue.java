@@ -0,0 +1,82 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import com.srivarini.csye6225.cloud.repository.FileMetadataRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Front half of the asynchronous delete path: the metadata row is deleted and, once no other row shares its S3
+// object, a tombstone for the object is written in the same transaction, so the request never waits on S3 and the
+// object cannot be forgotten if the process dies before TombstoneDrainer gets to it.
+@Component
+public class FileDeletionQueue {
+
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ContentStore contentStore;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private FileMetadataCache fileMetadataCache;
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    @Autowired
+    private MetricsService metricsService;
+
+    // False when the row was already gone, i.e. a concurrent delete of the same file won
+    public boolean enqueue(FileMetadata metadata) {
+        return enqueueAll(List.of(metadata)).contains(metadata.getId());
+    }
+
+    // Deletes the rows that still exist, releases their references and writes the tombstones in one transaction:
+    // one locking read, one DELETE, one UPDATE per distinct content hash and one batched INSERT, however many rows.
+    // Returns the ids of the rows this call deleted; the others were already gone
+    public Set<UUID> enqueueAll(Collection<FileMetadata> rows) {
+        if (rows.isEmpty()) {
+            return Set.of();
+        }
+        List<UUID> ids = rows.stream().map(FileMetadata::getId).toList();
+        Set<UUID> deleted = transactionTemplate.execute(status -> {
+            // The locked rows are current, so a hash read before a concurrent change is never released
+            List<FileMetadata> live = fileMetadataRepository.lockAllById(ids);
+            if (live.isEmpty()) {
+                return Set.<UUID>of();
+            }
+            Set<UUID> liveIds = live.stream().map(FileMetadata::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+            fileMetadataRepository.deleteAllByIdInBatch(liveIds);
+            // Deduplicated content stays until its last row is deleted
+            insertTombstones(contentStore.releaseAll(live));
+            return liveIds;
+        });
+        ids.forEach(id -> {
+            fileMetadataCache.invalidate(id);
+            readYourWrites.recordWrite(id);
+        });
+        metricsService.counter("tombstone.enqueued.count").add(deleted.size());
+        return deleted;
+    }
+
+    private void insertTombstones(List<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC));
+        jdbcTemplate.batchUpdate("INSERT INTO deletion_tombstone (file_name, enqueued_at, next_attempt_at, attempts, dead_lettered) "
+                + "VALUES (?, ?, ?, 0, FALSE)", objectKeys.stream().map(key -> new Object[]{key, now, now}).toList());
+    }
+}
@@ -0,0 +1,105 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+// Bounded read-through cache for file metadata rows, which never change until they are deleted.
+// Unknown ids are cached as empty Optionals so repeated 404 lookups stay off the database.
+// Deletes only invalidate the entry on the instance that handled them, so the TTL bounds how long any other instance
+// may still serve a deleted row (or a 404 for a row created elsewhere): keep it to seconds.
+@Component
+public class FileMetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileMetadataCache.class);
+
+    private final AsyncCache<UUID, Optional<FileMetadata>> cache;
+    private final MetricsService metricsService;
+
+    public FileMetadataCache(
+            MetricsService metricsService,
+            @Value("${cache.file-metadata.max-size:10000}") long maxSize,
+            @Value("${cache.file-metadata.ttl-seconds:5}") long ttlSeconds,
+            @Value("${cache.file-metadata.negative-ttl-seconds:5}") long negativeTtlSeconds) {
+        this.metricsService = metricsService;
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        // Caffeine's default policy is size-bounded W-TinyLFU
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<UUID, Optional<FileMetadata>>() {
+                    @Override
+                    public long expireAfterCreate(UUID key, Optional<FileMetadata> value, long currentTime) {
+                        return value.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID key, Optional<FileMetadata> value, long currentTime, long currentDuration) {
+                        return value.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID key, Optional<FileMetadata> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener((UUID key, Optional<FileMetadata> value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        metricsService.increment("cache.filemetadata.eviction.count");
+                    }
+                })
+                .buildAsync();
+        logger.info("File metadata cache configured: max-size={}, ttl={}s, negative-ttl={}s", maxSize, ttlSeconds, negativeTtlSeconds);
+    }
+
+    /**
+     * Returns the cached metadata for an id, loading it on a miss. Concurrent misses for the same id share
+     * a single load; the loader runs on the calling thread outside any cache lock, so a blocking JDBC call
+     * never pins a virtual thread or stalls writers to neighbouring keys.
+     */
+    public Optional<FileMetadata> get(UUID id, Function<UUID, Optional<FileMetadata>> loader) {
+        CompletableFuture<Optional<FileMetadata>> placeholder = new CompletableFuture<>();
+        CompletableFuture<Optional<FileMetadata>> existing = cache.asMap().putIfAbsent(id, placeholder);
+        if (existing != null) {
+            metricsService.increment("cache.filemetadata.hit.count");
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+            }
+        }
+        metricsService.increment("cache.filemetadata.miss.count");
+        try {
+            Optional<FileMetadata> loaded = loader.apply(id);
+            placeholder.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            // Failed loads are not cached; waiters see the same failure
+            placeholder.completeExceptionally(e);
+            cache.asMap().remove(id, placeholder);
+            throw e;
+        }
+    }
+
+    // Seeds the cache with a freshly written row, replacing any negative entry for the id
+    public void put(FileMetadata metadata) {
+        cache.put(metadata.getId(), CompletableFuture.completedFuture(Optional.of(metadata)));
+    }
+
+    public void invalidate(UUID id) {
+        cache.synchronous().invalidate(id);
+    }
+}
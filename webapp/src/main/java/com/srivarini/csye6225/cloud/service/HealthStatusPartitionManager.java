@@ -0,0 +1,131 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Optional MySQL daily RANGE COLUMNS partitioning of health_status. Once every row in a partition has been
+// rolled up, the retention job drops the partition instead of deleting its rows one chunk at a time.
+// Converting an existing table rebuilds it and widens the primary key to (check_id, datetime), which
+// MySQL requires for partitioning; enable it during a maintenance window on large tables.
+// Maintenance holds the retention job's lease, so one instance alters the table at a time and never during a
+// retention run; the retention job drops partitions while it holds that lease itself.
+@Component
+@ConditionalOnProperty(name = "health.retention.partitioning.enabled", havingValue = "true")
+public class HealthStatusPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthStatusPartitionManager.class);
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MetricsService metricsService;
+    @Autowired
+    private JobLease jobLease;
+
+    @Value("${health.retention.partitioning.days-ahead:3}")
+    private int daysAhead;
+
+    @Value("${health.retention.lease-ms:1800000}")
+    private long leaseMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${health.retention.partitioning.cron:0 10 0 * * *}")
+    public void ensurePartitions() {
+        try {
+            jobLease.runExclusively(HealthStatusRetentionJob.LEASE, Duration.ofMillis(leaseMillis), this::addPartitions);
+        } catch (Exception e) {
+            logger.error("Failed to maintain health_status partitions", e);
+        }
+    }
+
+    private void addPartitions() {
+        List<Partition> partitions = listPartitions();
+        LocalDate lastDay = LocalDate.now(ZoneOffset.UTC).plusDays(daysAhead);
+        if (partitions.isEmpty()) {
+            partitionTable(lastDay);
+            return;
+        }
+        LocalDate nextDay = partitions.stream()
+                .filter(partition -> partition.upperBound() != null)
+                .map(partition -> partition.upperBound().toLocalDate())
+                .max(LocalDate::compareTo)
+                .orElse(LocalDate.now(ZoneOffset.UTC));
+        if (nextDay.isAfter(lastDay)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE health_status REORGANIZE PARTITION pmax INTO ("
+                + dailyPartitions(nextDay, lastDay) + ", PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        logger.info("Added health_status partitions from {} through {}", nextDay, lastDay);
+    }
+
+    // Drops partitions whose rows all lie before the given bucket, i.e. are rolled up. Called under the lease
+    public void dropPartitionsBefore(LocalDateTime bucket) {
+        List<String> droppable = listPartitions().stream()
+                .filter(partition -> partition.upperBound() != null && !partition.upperBound().isAfter(bucket))
+                .map(Partition::name)
+                .collect(Collectors.toList());
+        if (droppable.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE health_status DROP PARTITION " + String.join(", ", droppable));
+        metricsService.increment("job.health.retention.partition.drop.count");
+        logger.info("Dropped rolled-up health_status partitions {}", droppable);
+    }
+
+    private void partitionTable(LocalDate lastDay) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        logger.warn("health_status is not partitioned; converting to daily RANGE COLUMNS partitions (table rebuild)");
+        jdbcTemplate.execute("ALTER TABLE health_status DROP PRIMARY KEY, ADD PRIMARY KEY (check_id, datetime)");
+        jdbcTemplate.execute("ALTER TABLE health_status PARTITION BY RANGE COLUMNS(datetime) ("
+                + "PARTITION p_history VALUES LESS THAN ('" + today.atStartOfDay().format(BOUND) + "'), "
+                + dailyPartitions(today, lastDay) + ", PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        logger.info("health_status partitioned daily through {}", lastDay);
+    }
+
+    // One partition per day; partition pYYYYMMDD holds rows with datetime before the following midnight
+    private static String dailyPartitions(LocalDate from, LocalDate to) {
+        StringBuilder clause = new StringBuilder();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (!clause.isEmpty()) {
+                clause.append(", ");
+            }
+            clause.append("PARTITION ").append(day.format(PARTITION_NAME))
+                    .append(" VALUES LESS THAN ('").append(day.plusDays(1).atStartOfDay().format(BOUND)).append("')");
+        }
+        return clause.toString();
+    }
+
+    private List<Partition> listPartitions() {
+        return jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'health_status' AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> {
+                    String description = rs.getString("PARTITION_DESCRIPTION");
+                    LocalDateTime upperBound = description == null || "MAXVALUE".equalsIgnoreCase(description)
+                            ? null
+                            : LocalDateTime.parse(description.replace("'", ""), BOUND);
+                    return new Partition(rs.getString("PARTITION_NAME"), upperBound);
+                });
+    }
+
+    private record Partition(String name, LocalDateTime upperBound) {}
+}
@@ -0,0 +1,227 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Keeps health_status bounded: raw rows older than the horizon are rolled up into per-minute aggregates in
+// health_status_rollup and then deleted in small chunks, so no statement holds locks on a large range.
+// Every instance runs the cron, so a run first takes the health-retention lease and is skipped if another instance
+// holds it. Buckets are always recomputed whole from the raw rows and written as values rather than increments, and
+// the raw rows of the newest bucket are kept until a later bucket exists, so each run starts by recomputing that
+// bucket. A run that overlaps another or was interrupted part-way therefore rewrites the same totals instead of
+// counting rows twice, and rows sharing a timestamp with the last one rolled up are never skipped.
+@Component
+public class HealthStatusRetentionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthStatusRetentionJob.class);
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Shared with HealthStatusPartitionManager, whose ALTER TABLEs must not run alongside a retention run
+    static final String LEASE = "health-retention";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MetricsService metricsService;
+    @Autowired
+    private JobLease jobLease;
+    @Autowired(required = false)
+    private HealthStatusPartitionManager partitionManager;
+
+    @Value("${health.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${health.retention.raw-horizon-hours:24}")
+    private long rawHorizonHours;
+
+    @Value("${health.retention.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${health.retention.chunk-pause-ms:100}")
+    private long chunkPauseMillis;
+
+    @Value("${health.retention.gap-threshold-ms:15000}")
+    private long gapThresholdMillis;
+
+    @Value("${health.retention.lease-ms:1800000}")
+    private long leaseMillis;
+
+    @Scheduled(cron = "${health.retention.cron:0 */5 * * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            jobLease.runExclusively(LEASE, Duration.ofMillis(leaseMillis), this::retain);
+        } catch (Exception e) {
+            logger.error("Health status retention run failed", e);
+        } finally {
+            metricsService.timing("job.health.retention.timer", System.currentTimeMillis() - startTime);
+        }
+    }
+
+    private void retain() {
+        // Only whole minutes are rolled up so a bucket is never split across runs
+        LocalDateTime cutoff = LocalDateTime.now(ZoneOffset.UTC).minusHours(rawHorizonHours).truncatedTo(ChronoUnit.MINUTES);
+        int rolledUp = rollup(cutoff);
+        LocalDateTime newestBucket = newestBucket();
+        if (newestBucket == null) {
+            return;
+        }
+        if (partitionManager != null) {
+            partitionManager.dropPartitionsBefore(newestBucket);
+        }
+        int deleted = purge(newestBucket);
+        logger.info("Health status retention: rolled up {} rows, deleted {} rows before {}", rolledUp, deleted, newestBucket);
+    }
+
+    // Recomputes the newest bucket and aggregates every later raw row before the cutoff, chunk by chunk. A bucket is
+    // written once a row from a later minute shows it is complete, or at the end since the cutoff is a whole minute.
+    // Returns the number of rows read
+    int rollup(LocalDateTime cutoff) {
+        LocalDateTime newestBucket = newestBucket();
+        LocalDateTime floor = newestBucket == null ? EPOCH : newestBucket;
+        // Gaps are measured from the last probe before the floor, as they were when that bucket was written
+        LocalDateTime last = jdbcTemplate.queryForObject(
+                "SELECT MAX(last_seen) FROM health_status_rollup WHERE bucket_minute < ?", LocalDateTime.class, Timestamp.valueOf(floor));
+        RawRow previous = new RawRow(0, floor);
+        LocalDateTime openMinute = null;
+        Bucket open = null;
+        int total = 0;
+        while (true) {
+            List<RawRow> chunk = nextChunk(floor, previous, cutoff);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            Map<LocalDateTime, Bucket> complete = new TreeMap<>();
+            for (RawRow row : chunk) {
+                LocalDateTime minute = row.datetime().truncatedTo(ChronoUnit.MINUTES);
+                if (!minute.equals(openMinute)) {
+                    if (open != null) {
+                        complete.put(openMinute, open);
+                    }
+                    openMinute = minute;
+                    open = new Bucket();
+                }
+                long gapMillis = last == null ? 0 : Duration.between(last, row.datetime()).toMillis();
+                open.add(row.datetime(), gapMillis, gapMillis > gapThresholdMillis);
+                last = row.datetime();
+            }
+            writeBuckets(complete);
+            previous = chunk.get(chunk.size() - 1);
+            total += chunk.size();
+            metricsService.increment("job.health.retention.rollup.chunk.count");
+            pause();
+        }
+        if (open != null) {
+            writeBuckets(Map.of(openMinute, open));
+        }
+        return total;
+    }
+
+    // Deletes raw rows before the given bucket in chunk-size batches. Returns the number of rows deleted
+    int purge(LocalDateTime before) {
+        int total = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT check_id FROM health_status WHERE datetime < ? ORDER BY datetime, check_id LIMIT ?",
+                    Long.class, Timestamp.valueOf(before), chunkSize);
+            if (ids.isEmpty()) {
+                return total;
+            }
+            total += namedParameterJdbcTemplate.update("DELETE FROM health_status WHERE check_id IN (:ids)", Map.of("ids", ids));
+            metricsService.increment("job.health.retention.delete.chunk.count");
+            pause();
+        }
+    }
+
+    // Raw rows before this minute are all rolled up; its own rows are kept so the next run can recompute it
+    LocalDateTime newestBucket() {
+        return jdbcTemplate.queryForObject("SELECT MAX(bucket_minute) FROM health_status_rollup", LocalDateTime.class);
+    }
+
+    // Keyset page over (datetime, check_id) so each chunk is an index range scan regardless of table size
+    private List<RawRow> nextChunk(LocalDateTime floor, RawRow after, LocalDateTime cutoff) {
+        Timestamp afterTimestamp = Timestamp.valueOf(after.datetime());
+        return jdbcTemplate.query(
+                "SELECT check_id, datetime FROM health_status "
+                        + "WHERE datetime >= ? AND datetime < ? AND (datetime > ? OR (datetime = ? AND check_id > ?)) "
+                        + "ORDER BY datetime, check_id LIMIT ?",
+                (rs, rowNum) -> new RawRow(rs.getLong("check_id"), rs.getTimestamp("datetime").toLocalDateTime()),
+                Timestamp.valueOf(floor), Timestamp.valueOf(cutoff), afterTimestamp, afterTimestamp, after.checkId(), chunkSize);
+    }
+
+    // Overwrites rather than adds, so writing a bucket again with the same rows changes nothing
+    private void writeBuckets(Map<LocalDateTime, Bucket> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = buckets.entrySet().stream()
+                .map(entry -> new Object[]{Timestamp.valueOf(entry.getKey()), entry.getValue().count,
+                        Timestamp.valueOf(entry.getValue().first), Timestamp.valueOf(entry.getValue().last),
+                        entry.getValue().maxGapMillis, entry.getValue().gapCount})
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "INSERT INTO health_status_rollup (bucket_minute, sample_count, first_seen, last_seen, max_gap_ms, gap_count) "
+                        + "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE sample_count = VALUES(sample_count), "
+                        + "first_seen = VALUES(first_seen), last_seen = VALUES(last_seen), max_gap_ms = VALUES(max_gap_ms), "
+                        + "gap_count = VALUES(gap_count)",
+                rows));
+    }
+
+    // Short pause between chunks lets other transactions and replication catch up
+    private void pause() {
+        if (chunkPauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(chunkPauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record RawRow(long checkId, LocalDateTime datetime) {}
+
+    private static class Bucket {
+        long count;
+        LocalDateTime first;
+        LocalDateTime last;
+        long maxGapMillis;
+        long gapCount;
+
+        void add(LocalDateTime timestamp, long gapMillis, boolean isGap) {
+            count++;
+            if (first == null || timestamp.isBefore(first)) {
+                first = timestamp;
+            }
+            if (last == null || timestamp.isAfter(last)) {
+                last = timestamp;
+            }
+            maxGapMillis = Math.max(maxGapMillis, gapMillis);
+            if (isGap) {
+                gapCount++;
+            }
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package com.srivarini.csye6225.cloud.service;
 
-import com.srivarini.csye6225.cloud.model.HealthStatus;
-import com.srivarini.csye6225.cloud.repository.HealthStatusRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
@@ -14,21 +15,84 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class HealthStatusServiceImpl implements HealthStatusService{
 
     @Autowired
+    @Qualifier("healthDataSource")
     private DataSource dataSource;
     @Autowired
-    private HealthStatusRepository healthStatusRepository;
+    private HealthStatusWriter healthStatusWriter;
     @Autowired
     private MetricsService metricsService;
     private static final Logger logger = LoggerFactory.getLogger(HealthStatusServiceImpl.class);
 
-    // Validates the database connectivity and inserts a record into the health_status table.
+    // Result of the most recent evaluation; served to callers while it is within the freshness window
+    private volatile HealthResult lastResult;
+    // The evaluation currently running, shared by every caller that arrives while it is in flight
+    private final AtomicReference<CompletableFuture<Boolean>> inFlight = new AtomicReference<>();
+
+    @Value("${health.cache.freshness-ms:10000}")
+    private long freshnessMillis;
+
+    @Value("${health.cache.failure-freshness-ms:1000}")
+    private long failureFreshnessMillis;
+
+    // Serves the last probe result while it is fresh; otherwise joins (or starts) the single in-flight evaluation.
     // Returns true if the database is healthy, false otherwise
     public boolean performHealthCheck() {
+        HealthResult last = lastResult;
+        if (isFresh(last)) {
+            return last.healthy();
+        }
+        return evaluate(false);
+    }
+
+    // Background prober, so the ALB's /healthz requests are normally answered from memory
+    @Scheduled(fixedDelayString = "${health.probe.interval-ms:5000}")
+    public void probe() {
+        boolean healthy = evaluate(true);
+        if (!healthy) {
+            logger.warn("Background health probe failed; /healthz will report 503 until the database recovers.");
+        }
+    }
+
+    // Single-flight evaluation: concurrent callers wait on the same check instead of each running one
+    private boolean evaluate(boolean force) {
+        CompletableFuture<Boolean> mine = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return running.join();
+        }
+        // An evaluation may have finished between the caller's freshness check and winning the slot
+        HealthResult last = lastResult;
+        if (!force && isFresh(last)) {
+            inFlight.set(null);
+            mine.complete(last.healthy());
+            return last.healthy();
+        }
+        boolean healthy = false;
+        try {
+            healthy = runHealthCheck();
+        } finally {
+            lastResult = new HealthResult(healthy, System.nanoTime());
+            inFlight.set(null);
+            mine.complete(healthy);
+        }
+        return healthy;
+    }
+
+    private boolean isFresh(HealthResult result) {
+        return result != null && result.isFresh(result.healthy() ? freshnessMillis : failureFreshnessMillis);
+    }
+
+    // Validates the database connectivity and inserts a record into the health_status table.
+    // Returns true if the database is healthy, false otherwise
+    private boolean runHealthCheck() {
         try {
             if (!isDatabaseConnectionValid()) {
                 logger.warn("Health check failed: Database connection invalid.");
@@ -65,23 +129,17 @@ public class HealthStatusServiceImpl implements HealthStatusService{
         }
     }
 
-    // Inserts a health check record into the database.
-    // Returns true if the record was inserted successfully, false otherwise
+    // Queues a health check record for the write-behind writer. Health is decided by this probe's query alone: a
+    // failed batch is retried by the writer, and holding /healthz at 503 until it succeeds would keep a recovered
+    // instance out of the load balancer
     private boolean insertHealthCheckRecord() {
-        long startTime = System.currentTimeMillis();
-
-        try {
-            HealthStatus healthStatus = new HealthStatus();
-            healthStatus.setDatetime(LocalDateTime.now(ZoneOffset.UTC));
-            healthStatusRepository.save(healthStatus);
+        healthStatusWriter.enqueue(LocalDateTime.now(ZoneOffset.UTC));
+        return true;
+    }
 
-            logger.info("Health check record inserted successfully.");
-            return true;
-        } catch (Exception e) {
-            logger.error("Failed to insert health check record", e);
-            return false;
-        }finally {
-            metricsService.timing("service.db.health.insert.timer", System.currentTimeMillis() - startTime);
+    private record HealthResult(boolean healthy, long checkedAtNanos) {
+        boolean isFresh(long windowMillis) {
+            return System.nanoTime() - checkedAtNanos < TimeUnit.MILLISECONDS.toNanos(windowMillis);
         }
     }
 }
@@ -0,0 +1,146 @@
+package com.srivarini.csye6225.cloud.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Write-behind buffer for health_status rows. Records are queued in memory and a background writer flushes
+// them as one multi-row INSERT once batch-size records are waiting or flush-interval has elapsed.
+// When the queue is full the oldest record is dropped (and counted) so probes never block on the database.
+// A batch that fails to insert goes back to the head of the queue and is retried after a short backoff, doubling
+// up to retry-max-ms, so records are written again within seconds of the database recovering.
+@Component
+public class HealthStatusWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthStatusWriter.class);
+
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MetricsService metricsService;
+
+    private final BlockingDeque<LocalDateTime> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long retryInitialMillis;
+    private final long retryMaxMillis;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public HealthStatusWriter(
+            @Value("${health.writer.queue-capacity:1000}") int queueCapacity,
+            @Value("${health.writer.batch-size:50}") int batchSize,
+            @Value("${health.writer.flush-interval-ms:30000}") long flushIntervalMillis,
+            @Value("${health.writer.retry-initial-ms:100}") long retryInitialMillis,
+            @Value("${health.writer.retry-max-ms:2000}") long retryMaxMillis) {
+        this.queue = new LinkedBlockingDeque<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.retryInitialMillis = retryInitialMillis;
+        this.retryMaxMillis = retryMaxMillis;
+    }
+
+    // Writes go through the health pool, so a backlog of file operations cannot hold up the flush
+    @Autowired
+    public void setHealthDataSource(@Qualifier("healthDataSource") DataSource healthDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(healthDataSource);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = Thread.ofPlatform().name("health-status-writer").daemon().start(this::runWriter);
+    }
+
+    // Flushes whatever is still buffered before the context (and its DataSource) goes away
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        flush();
+    }
+
+    public void enqueue(LocalDateTime datetime) {
+        while (!queue.offerLast(datetime)) {
+            if (queue.pollFirst() != null) {
+                metricsService.increment("health.writer.dropped.count");
+            }
+        }
+        if (queue.size() >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    private void runWriter() {
+        long retryDelayMillis = 0;
+        while (running) {
+            if (retryDelayMillis > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryDelayMillis));
+            } else if (queue.size() < batchSize) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+            }
+            if (running) {
+                retryDelayMillis = flush() ? 0 : Math.min(Math.max(retryDelayMillis * 2, retryInitialMillis), retryMaxMillis);
+            }
+        }
+    }
+
+    // Drains the queue in batch-size chunks, each written with a single multi-row INSERT. Returns false if a batch
+    // failed; it is back at the head of the queue
+    boolean flush() {
+        List<LocalDateTime> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            long startTime = System.currentTimeMillis();
+            try {
+                jdbcTemplate.update(insertSql(batch.size()), batch.stream().map(Timestamp::valueOf).toArray());
+                metricsService.increment("health.writer.flush.count");
+            } catch (Exception e) {
+                logger.error("Failed to flush {} health check records", batch.size(), e);
+                requeue(batch);
+                return false;
+            } finally {
+                metricsService.timing("service.db.health.insert.timer", System.currentTimeMillis() - startTime);
+            }
+            batch.clear();
+        }
+        return true;
+    }
+
+    // Back at the head, in order, so the next attempt writes the oldest records first. If new probes filled the
+    // queue meanwhile, the batch's oldest records are the ones dropped
+    private void requeue(List<LocalDateTime> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (!queue.offerFirst(batch.get(i))) {
+                metricsService.increment("health.writer.dropped.count");
+            }
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO health_status (datetime) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?)" : ", (?)");
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+// Keeps a scheduled job that every instance runs on the same cron to one instance at a time. A lease is a row in
+// job_lease naming its holder and when it expires; expiry is judged by the database clock, so instance clocks need
+// not agree. A holder that dies keeps the lease until it expires, so the TTL should comfortably exceed one run.
+// Every acquisition gets its own holder id, so two jobs sharing a lease exclude each other on the same instance too.
+@Component
+public class JobLease {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLease.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MetricsService metricsService;
+
+    // Runs the task while holding the lease. Returns false without running it when another holder has the lease
+    public boolean runExclusively(String name, Duration ttl, Runnable task) {
+        String holder = UUID.randomUUID().toString();
+        if (!acquire(name, holder, ttl)) {
+            metricsService.increment("job.lease.skipped.count");
+            logger.debug("Lease '{}' is held elsewhere; skipping this run", name);
+            return false;
+        }
+        try {
+            task.run();
+            return true;
+        } finally {
+            release(name, holder);
+        }
+    }
+
+    private boolean acquire(String name, String holder, Duration ttl) {
+        long ttlMicros = ttl.toNanos() / 1000;
+        int taken = jdbcTemplate.update(
+                "UPDATE job_lease SET holder = ?, expires_at = TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(6)) "
+                        + "WHERE name = ? AND expires_at < CURRENT_TIMESTAMP(6)",
+                holder, ttlMicros, name);
+        if (taken == 1) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO job_lease (name, holder, expires_at) "
+                    + "VALUES (?, ?, TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(6)))", name, holder, ttlMicros);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void release(String name, String holder) {
+        try {
+            jdbcTemplate.update("DELETE FROM job_lease WHERE name = ? AND holder = ?", name, holder);
+        } catch (DataAccessException e) {
+            // The lease still expires on its own
+            logger.warn("Failed to release lease '{}'", name, e);
+        }
+    }
+}
@@ -1,20 +1,97 @@
 package com.srivarini.csye6225.cloud.service;
 
-import com.timgroup.statsd.NonBlockingStatsDClient;
-import com.timgroup.statsd.StatsDClient;
+import jakarta.annotation.PreDestroy;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
 @Service
 public class MetricsService {
 
-    private final StatsDClient statsd;
+    private static final Logger logger = LoggerFactory.getLogger(MetricsService.class);
+
+    // Largest StatsD payload that fits in one datagram on a 1500-byte MTU without IP fragmentation
+    static final int MAX_PACKET_BYTES = 1432;
+
+    // Timers are recorded in microseconds with two significant digits (1% precision), capped at one hour
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final String prefix;
+    private final InetSocketAddress target;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final ByteBuffer packet = ByteBuffer.allocate(MAX_PACKET_BYTES);
+    private final ScheduledExecutorService flusher;
+    private DatagramChannel channel;
 
     public MetricsService(
             @Value("${metrics.prefix}") String prefix,
             @Value("${metrics.host}") String host,
-            @Value("${metrics.port}") int port) {
-        this.statsd = new NonBlockingStatsDClient(prefix, host, port);
+            @Value("${metrics.port}") int port,
+            @Value("${metrics.flush-interval-ms:10000}") long flushIntervalMillis) {
+        this.prefix = prefix.isEmpty() ? "" : prefix + ".";
+        this.target = new InetSocketAddress(host, port);
+        try {
+            this.channel = DatagramChannel.open();
+        } catch (IOException e) {
+            logger.warn("Unable to open StatsD channel, metrics will not be published: {}", e.getMessage());
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                runnable -> Thread.ofPlatform().name("metrics-flusher").daemon().unstarted(runnable));
+        flusher.scheduleAtFixedRate(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Look up (registering on first use) the counter handle for a metric.
+     * Callers on hot paths should keep the handle rather than looking it up per request.
+     *
+     * @param metric The metric name, without the global prefix
+     * @return The counter handle
+     */
+    public Counter counter(String metric) {
+        Counter counter = counters.get(metric);
+        return counter != null ? counter : counters.computeIfAbsent(metric, name -> new Counter(prefix + name));
+    }
+
+    /**
+     * Look up (registering on first use) the timer handle for a metric.
+     * Callers on hot paths should keep the handle rather than looking it up per request.
+     *
+     * @param metric The metric name, without the global prefix
+     * @return The timer handle
+     */
+    public Timer timer(String metric) {
+        Timer timer = timers.get(metric);
+        return timer != null ? timer : timers.computeIfAbsent(metric, name -> new Timer(prefix + name));
+    }
+
+    /**
+     * Look up (registering on first use) the gauge handle for a metric.
+     * A gauge reports its most recently set value on every flush once it has been set.
+     *
+     * @param metric The metric name, without the global prefix
+     * @return The gauge handle
+     */
+    public Gauge gauge(String metric) {
+        Gauge gauge = gauges.get(metric);
+        return gauge != null ? gauge : gauges.computeIfAbsent(metric, name -> new Gauge(prefix + name));
     }
 
     /**
@@ -23,7 +100,7 @@ public class MetricsService {
      * @param metric The metric name to increment
      */
     public void increment(String metric) {
-        statsd.incrementCounter(metric);
+        counter(metric).increment();
     }
 
     /**
@@ -33,7 +110,200 @@ public class MetricsService {
      * @param duration Duration in milliseconds
      */
     public void timing(String metric, long duration) {
-        statsd.recordExecutionTime(metric, duration);
+        timer(metric).record(duration);
+    }
+
+    @PreDestroy
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing StatsD channel", e);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException | IOException e) {
+            logger.warn("Failed to publish metrics: {}", e.getMessage());
+        }
+    }
+
+    // Drains every counter and timer interval, samples every gauge, and sends the results as newline-separated
+    // StatsD lines, packed into as few datagrams as fit. Only the flusher thread (or shutdown, after it stops) calls this.
+    synchronized void flush() throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        packet.clear();
+        for (Counter counter : counters.values()) {
+            long count = counter.adder.sumThenReset();
+            if (count > 0) {
+                line.setLength(0);
+                line.append(counter.name).append(':').append(count).append("|c");
+                append(line);
+            }
+        }
+        for (Timer timer : timers.values()) {
+            for (int slot = 0; slot < Timer.SLOTS; slot++) {
+                Histogram interval = timer.drain(slot);
+                if (interval == null || interval.getTotalCount() == 0) {
+                    continue;
+                }
+                String tags = Timer.TAGS[slot];
+                line.setLength(0);
+                line.append(timer.name).append(".count:").append(interval.getTotalCount()).append("|c").append(tags);
+                append(line);
+                appendGauge(line, timer.name, ".p50:", interval.getValueAtPercentile(50.0), tags);
+                appendGauge(line, timer.name, ".p95:", interval.getValueAtPercentile(95.0), tags);
+                appendGauge(line, timer.name, ".p99:", interval.getValueAtPercentile(99.0), tags);
+                appendGauge(line, timer.name, ".max:", interval.getMaxValue(), tags);
+            }
+        }
+        for (Gauge gauge : gauges.values()) {
+            if (gauge.isSet) {
+                line.setLength(0);
+                line.append(gauge.name).append(':').append(gauge.value).append("|g");
+                append(line);
+            }
+        }
+        send();
+    }
+
+    private void appendGauge(StringBuilder line, String name, String suffix, long micros, String tags) throws IOException {
+        line.setLength(0);
+        line.append(name).append(suffix).append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if (fraction < 100) {
+            line.append(fraction < 10 ? "00" : "0");
+        }
+        line.append(fraction).append("|g").append(tags);
+        append(line);
+    }
+
+    private void append(StringBuilder line) throws IOException {
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        int needed = packet.position() == 0 ? bytes.length : bytes.length + 1;
+        if (needed > packet.remaining()) {
+            send();
+        }
+        if (bytes.length > packet.remaining()) {
+            logger.warn("Dropping oversized metric line: {}", line);
+            return;
+        }
+        if (packet.position() > 0) {
+            packet.put((byte) '\n');
+        }
+        packet.put(bytes);
+    }
+
+    private void send() throws IOException {
+        if (packet.position() == 0) {
+            return;
+        }
+        packet.flip();
+        try {
+            if (channel != null) {
+                channel.send(packet, target);
+            }
+        } finally {
+            packet.clear();
+        }
+    }
+
+    // Monotonic counter; increments are a contention-free LongAdder add
+    public static final class Counter {
+        private final String name;
+        private final LongAdder adder = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public void increment() {
+            adder.increment();
+        }
+
+        public void add(long delta) {
+            adder.add(delta);
+        }
+    }
+
+    // Point-in-time value (e.g. a queue depth) sampled by whoever measures it
+    public static final class Gauge {
+        private final String name;
+        private volatile long value;
+        private volatile boolean isSet;
+
+        private Gauge(String name) {
+            this.name = name;
+        }
+
+        public void set(long value) {
+            this.value = value;
+            this.isSet = true;
+        }
+    }
+
+    // Latency histogram; untagged recordings and success/failure outcomes are kept in separate recorders so
+    // each is reported with its own percentiles. Recorders are created on first use to keep idle timers small.
+    public static final class Timer {
+        private static final int UNTAGGED = 0;
+        private static final int SUCCESS = 1;
+        private static final int FAILURE = 2;
+        private static final int SLOTS = 3;
+        private static final String[] TAGS = {"", "|#outcome:success", "|#outcome:failure"};
+
+        private final String name;
+        private final AtomicReferenceArray<Recorder> recorders = new AtomicReferenceArray<>(SLOTS);
+        // Recycled interval histograms; touched only by the flushing thread
+        private final Histogram[] intervals = new Histogram[SLOTS];
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        public void record(long millis) {
+            recordMicros(UNTAGGED, TimeUnit.MILLISECONDS.toMicros(millis));
+        }
+
+        public void record(long millis, boolean success) {
+            recordMicros(success ? SUCCESS : FAILURE, TimeUnit.MILLISECONDS.toMicros(millis));
+        }
+
+        public void recordNanos(long nanos) {
+            recordMicros(UNTAGGED, TimeUnit.NANOSECONDS.toMicros(nanos));
+        }
+
+        public void recordNanos(long nanos, boolean success) {
+            recordMicros(success ? SUCCESS : FAILURE, TimeUnit.NANOSECONDS.toMicros(nanos));
+        }
+
+        private void recordMicros(int slot, long micros) {
+            Recorder recorder = recorders.get(slot);
+            if (recorder == null) {
+                recorders.compareAndSet(slot, null, new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+                recorder = recorders.get(slot);
+            }
+            recorder.recordValue(Math.max(0, Math.min(micros, HIGHEST_TRACKABLE_MICROS)));
+        }
+
+        private Histogram drain(int slot) {
+            Recorder recorder = recorders.get(slot);
+            if (recorder == null) {
+                return null;
+            }
+            intervals[slot] = recorder.getIntervalHistogram(intervals[slot]);
+            return intervals[slot];
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,256 @@
+package com.srivarini.csye6225.cloud.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Size-bounded LRU cache of S3 objects on local disk, for GET /v1/file/{id}/content. Object keys are never
+// reused for different bytes, so entries never go stale; they only leave by eviction. Each fill writes its own
+// uniquely named file, and an evicted file is unlinked only after a grace period, because the servlet
+// container's sendfile opens the file by name after the request handler has returned. The index lives in
+// memory, so files left by a previous run are cleared on startup. The lock only guards the index; files are opened
+// after it is released (an evicted file outlives the grace period), so a hit never holds it across disk I/O and
+// never pins a virtual thread's carrier.
+@Component
+public class ObjectDiskCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectDiskCache.class);
+    private static final String FILE_PREFIX = "object-";
+    private static final String FILE_SUFFIX = ".bin";
+
+    private final MetricsService metricsService;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxObjectBytes;
+    private final long evictionGraceMillis;
+    private final ScheduledExecutorService unlinker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public ObjectDiskCache(
+            MetricsService metricsService,
+            @Value("${content.cache.enabled:true}") boolean enabled,
+            @Value("${content.cache.dir:${java.io.tmpdir}/webapp-content-cache}") Path directory,
+            @Value("${content.cache.max-bytes:1073741824}") long maxBytes,
+            @Value("${content.cache.max-object-bytes:104857600}") long maxObjectBytes,
+            @Value("${content.cache.eviction-grace-ms:60000}") long evictionGraceMillis) throws IOException {
+        this.metricsService = metricsService;
+        this.enabled = enabled;
+        this.directory = directory.toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.maxObjectBytes = Math.min(maxObjectBytes, maxBytes);
+        this.evictionGraceMillis = evictionGraceMillis;
+        this.unlinker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("content-cache-unlink").daemon().factory());
+        if (enabled) {
+            Files.createDirectories(this.directory);
+            clearDirectory();
+        }
+        logger.info("Content disk cache configured: enabled={}, dir={}, max-bytes={}, max-object-bytes={}", enabled,
+                this.directory, maxBytes, this.maxObjectBytes);
+    }
+
+    @PreDestroy
+    public void stop() {
+        unlinker.shutdownNow();
+    }
+
+    // The cached copy of an object, opened for reading. The open channel stays readable even if the entry is
+    // evicted meanwhile
+    public Optional<Hit> open(String objectKey) {
+        Entry entry = lookup(objectKey);
+        if (entry == null) {
+            metricsService.increment("content.cache.miss.count");
+            return Optional.empty();
+        }
+        try {
+            FileChannel channel = FileChannel.open(entry.path(), StandardOpenOption.READ);
+            metricsService.increment("content.cache.hit.count");
+            return Optional.of(new Hit(entry.path(), channel, entry.length()));
+        } catch (IOException e) {
+            logger.warn("Dropping unreadable cache entry for '{}'", objectKey, e);
+            remove(objectKey, entry);
+            metricsService.increment("content.cache.miss.count");
+            return Optional.empty();
+        }
+    }
+
+    // Length of the cached copy of an object, without opening it (HEAD)
+    public OptionalLong length(String objectKey) {
+        Entry entry = lookup(objectKey);
+        metricsService.increment(entry == null ? "content.cache.miss.count" : "content.cache.hit.count");
+        return entry == null ? OptionalLong.empty() : OptionalLong.of(entry.length());
+    }
+
+    // Starts caching an object of the given length while it is streamed from S3; null when the cache is disabled
+    // or the object is too large to be worth a slot
+    public Fill startFill(String objectKey, long length) {
+        if (!enabled || length > maxObjectBytes) {
+            return null;
+        }
+        try {
+            Path file = Files.createTempFile(directory, FILE_PREFIX, FILE_SUFFIX);
+            return new Fill(objectKey, file, Files.newOutputStream(file, StandardOpenOption.WRITE), length);
+        } catch (IOException e) {
+            logger.warn("Failed to start caching '{}'", objectKey, e);
+            return null;
+        }
+    }
+
+    long totalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Also marks the entry as most recently used
+    private Entry lookup(String objectKey) {
+        lock.lock();
+        try {
+            return entries.get(objectKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(String objectKey, Path file, long length) {
+        lock.lock();
+        try {
+            Entry replaced = entries.put(objectKey, new Entry(file, length));
+            totalBytes += length;
+            if (replaced != null) {
+                // A concurrent fill of the same object finished first
+                totalBytes -= replaced.length();
+                unlinkLater(replaced.path());
+            }
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Entry evicted = eldest.next().getValue();
+                eldest.remove();
+                totalBytes -= evicted.length();
+                unlinkLater(evicted.path());
+                metricsService.increment("content.cache.eviction.count");
+            }
+            metricsService.gauge("content.cache.bytes").set(totalBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String objectKey, Entry entry) {
+        lock.lock();
+        try {
+            if (entries.remove(objectKey, entry)) {
+                totalBytes -= entry.length();
+                unlinkLater(entry.path());
+                metricsService.gauge("content.cache.bytes").set(totalBytes);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unlinkLater(Path file) {
+        unlinker.schedule(() -> delete(file), evictionGraceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete cached object file {}", file, e);
+        }
+    }
+
+    private void clearDirectory() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                delete(file);
+            }
+        }
+    }
+
+    private record Entry(Path path, long length) {}
+
+    public record Hit(Path path, FileChannel channel, long length) implements AutoCloseable {
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close cached object file {}", path, e);
+            }
+        }
+    }
+
+    // Receives the object's bytes as they are relayed to the client. Only a fill that saw exactly the expected
+    // length is committed; anything else (client gone, S3 stream cut short, write error) is discarded
+    public final class Fill implements AutoCloseable {
+        private final String objectKey;
+        private final Path file;
+        private final OutputStream out;
+        private final long expectedLength;
+        private long written;
+        private boolean failed;
+
+        private Fill(String objectKey, Path file, OutputStream out, long expectedLength) {
+            this.objectKey = objectKey;
+            this.file = file;
+            this.out = out;
+            this.expectedLength = expectedLength;
+        }
+
+        // A cache write failure must never fail the download, so the fill just gives up
+        public void write(byte[] buffer, int offset, int length) {
+            if (failed) {
+                return;
+            }
+            try {
+                out.write(buffer, offset, length);
+                written += length;
+            } catch (IOException e) {
+                logger.warn("Failed to cache '{}'; serving it uncached", objectKey, e);
+                failed = true;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                failed = true;
+            }
+            if (!failed && written == expectedLength) {
+                add(objectKey, file, written);
+            } else {
+                delete(file);
+            }
+        }
+    }
+}
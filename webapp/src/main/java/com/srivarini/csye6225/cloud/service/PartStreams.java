@@ -0,0 +1,202 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Hands the S3 client a fresh stream over an uploaded part for every request attempt. The SDK can only replay a
+// markable stream when it retries, and the multipart resolver's on-disk part streams are not markable, so a PUT
+// retried after a 5xx would otherwise send an empty body under the original Content-Length and hang until the
+// socket times out. The first stream is opened up front so an unreadable part still fails before any S3 call.
+// Streams handed to the client are encoded with the part's codec; the digest pass reads the raw content.
+final class PartStreams implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartStreams.class);
+
+    private final MultipartFile file;
+    private final int level;
+    private final List<InputStream> opened = new ArrayList<>();
+    // Not a monitor: opening and closing part streams is file I/O, and a virtual thread blocked inside
+    // synchronized pins its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private InputStream first;
+    private StorageCodec codec;
+
+    private PartStreams(MultipartFile file, InputStream first, StorageCodec codec, int level) {
+        this.file = file;
+        this.first = first;
+        this.codec = codec;
+        this.level = level;
+        this.opened.add(first);
+    }
+
+    static PartStreams open(MultipartFile file, StorageCodec codec, int level) throws IOException {
+        return new PartStreams(file, file.getInputStream(), codec, level);
+    }
+
+    InputStream next() throws IOException {
+        lock.lock();
+        try {
+            if (first != null) {
+                InputStream stream = first;
+                first = null;
+                return stream;
+            }
+            InputStream stream = file.getInputStream();
+            opened.add(stream);
+            return stream;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Digests the part in one pass, so content that is already stored never reaches S3. The digest consumes the
+    // first stream; the upload that may follow gets a fresh one. PutObject needs the stored length up front, so
+    // an encoded part is also run through its encoder here and measured; the upload encodes it again on the fly
+    // rather than keep the output. A part that does not shrink is stored as it is.
+    Digest digest() throws IOException {
+        MessageDigest contentDigest = sha256();
+        try (DigestInputStream in = new DigestInputStream(next(), contentDigest)) {
+            if (codec == StorageCodec.IDENTITY) {
+                in.transferTo(OutputStream.nullOutputStream());
+                byte[] sha256 = contentDigest.digest();
+                return new Digest(sha256, codec, file.getSize(), sha256);
+            }
+            MessageDigest storedDigest = sha256();
+            long storedLength;
+            try (DigestInputStream encoded = new DigestInputStream(codec.encode(in, level), storedDigest)) {
+                storedLength = encoded.transferTo(OutputStream.nullOutputStream());
+            }
+            byte[] sha256 = contentDigest.digest();
+            if (storedLength >= file.getSize()) {
+                codec = StorageCodec.IDENTITY;
+                return new Digest(sha256, codec, file.getSize(), sha256);
+            }
+            return new Digest(sha256, codec, storedLength, storedDigest.digest());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private InputStream nextEncoded() throws IOException {
+        lock.lock();
+        try {
+            if (codec == StorageCodec.IDENTITY) {
+                return next();
+            }
+            // Tracked as well, so the encoder's native memory is released on close
+            InputStream stream = codec.encode(next(), level);
+            opened.add(stream);
+            return stream;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ContentStreamProvider contentStreamProvider() {
+        return () -> {
+            try {
+                return nextEncoded();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    // Async counterpart: the client subscribes once per attempt, and each subscription streams a fresh
+    // InputStream, read on the given executor
+    AsyncRequestBody asyncRequestBody(long contentLength, ExecutorService executor) {
+        return new AsyncRequestBody() {
+            @Override
+            public Optional<Long> contentLength() {
+                return Optional.of(contentLength);
+            }
+
+            @Override
+            public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+                InputStream stream;
+                try {
+                    stream = nextEncoded();
+                } catch (IOException e) {
+                    subscriber.onSubscribe(new Subscription() {
+                        @Override
+                        public void request(long n) {
+                        }
+
+                        @Override
+                        public void cancel() {
+                        }
+                    });
+                    subscriber.onError(e);
+                    return;
+                }
+                AsyncRequestBody.fromInputStream(stream, contentLength, executor).subscribe(subscriber);
+            }
+        };
+    }
+
+    // sha256 is over the raw content and identifies it for deduplication; storedSha256 is over the bytes sent to
+    // S3 and is what its checksum verifies
+    record Digest(byte[] sha256, StorageCodec codec, long storedLength, byte[] storedSha256) {
+
+        String contentHash() {
+            return HexFormat.of().formatHex(sha256);
+        }
+
+        // S3 verifies the body against the digest of the bytes sent, encoded or not
+        PutObjectRequest putObjectRequest(String bucket, String key) {
+            return PutObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .contentLength(storedLength)
+                    .contentEncoding(codec.contentEncoding())
+                    .checksumSHA256(Base64.getEncoder().encodeToString(storedSha256))
+                    .build();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            for (InputStream stream : opened) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close upload stream", e);
+                }
+            }
+            opened.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
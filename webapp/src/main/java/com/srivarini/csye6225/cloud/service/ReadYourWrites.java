@@ -0,0 +1,68 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.srivarini.csye6225.cloud.config.ReadRouting;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Keeps metadata lookups consistent with writes while reads go to lagging replicas. Ids this instance created or
+// deleted within the last sticky-ms are read from the primary. A lookup the replica cannot answer is retried on
+// the primary before it is reported (and negatively cached) as missing, which also covers a file uploaded through
+// another instance a moment ago. Without replicas configured every lookup goes straight through.
+@Component
+public class ReadYourWrites {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadYourWrites.class);
+
+    private final Cache<UUID, Boolean> recentWrites;
+    private final boolean replicasConfigured;
+    private final MetricsService metricsService;
+
+    public ReadYourWrites(
+            MetricsService metricsService,
+            @Value("${db.replica.urls:}") List<String> replicaUrls,
+            @Value("${db.replica.sticky-ms:10000}") long stickyMillis,
+            @Value("${db.replica.sticky-max-size:100000}") long maxSize) {
+        this.metricsService = metricsService;
+        this.replicasConfigured = replicaUrls.stream().anyMatch(url -> !url.isBlank());
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(stickyMillis))
+                .build();
+        if (replicasConfigured) {
+            logger.info("Read-your-writes: ids written in the last {} ms are read from the primary", stickyMillis);
+        }
+    }
+
+    public void recordWrite(UUID id) {
+        if (replicasConfigured) {
+            recentWrites.put(id, Boolean.TRUE);
+        }
+    }
+
+    public Optional<FileMetadata> find(UUID id, Function<UUID, Optional<FileMetadata>> finder) {
+        if (!replicasConfigured) {
+            return finder.apply(id);
+        }
+        if (recentWrites.getIfPresent(id) != null) {
+            metricsService.increment("db.replica.sticky-read.count");
+            return ReadRouting.onPrimary(() -> finder.apply(id));
+        }
+        Optional<FileMetadata> found = finder.apply(id);
+        if (found.isPresent()) {
+            return found;
+        }
+        metricsService.increment("db.replica.miss-retry.count");
+        return ReadRouting.onPrimary(() -> finder.apply(id));
+    }
+}
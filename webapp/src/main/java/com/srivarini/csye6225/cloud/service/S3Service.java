@@ -3,12 +3,17 @@ package com.srivarini.csye6225.cloud.service;
 import com.srivarini.csye6225.cloud.model.FileMetadata;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface S3Service {
     /**
-     * Uploads a file to the configured AWS S3 bucket.
+     * Uploads a file to the configured AWS S3 bucket. Content already stored is not uploaded again; the new
+     * metadata row references the existing object. Compressible content may be stored gzip-encoded, with
+     * {@code Content-Encoding} set on the object and recorded on the metadata.
      * @param file MultipartFile object representing the file.
      * @return The URL of the uploaded file.
      * @throws IOException if file upload fails.
@@ -23,9 +28,32 @@ public interface S3Service {
     Optional<FileMetadata> getFileMetadata(UUID id);
 
     /**
-     * Deletes a file from the AWS S3 bucket and removes its metadata from the database.
+     * Removes a file's metadata from the database and queues its S3 object for background deletion.
      * @param id uuid of the file to delete.
      * @return True if deletion is successful, false if the file does not exist.
      */
     boolean deleteFile(UUID id);
-}
\ No newline at end of file
+
+    /**
+     * Deletes many files at once: one query finds the rows, and one transaction deletes them, releases their
+     * content by reference count and queues tombstones for objects no longer referenced. The S3 objects are
+     * deleted in the background.
+     * @param ids uuids of the files to delete; duplicates are ignored.
+     * @return The outcome for each distinct id, in request order.
+     */
+    Map<UUID, DeleteOutcome> deleteFiles(List<UUID> ids);
+
+    /**
+     * Streams file metadata in (upload date, id) order to the given action, one row at a time.
+     * @param after Position to continue after, or null to start from the oldest file.
+     * @param limit Maximum number of rows to read.
+     * @param action Receives each row while the underlying query is still open.
+     * @return The number of rows passed to the action.
+     */
+    int forEachFile(FileCursor after, int limit, Consumer<FileMetadata> action);
+
+    enum DeleteOutcome {
+        DELETED,
+        NOT_FOUND
+    }
+}
@@ -1,22 +1,30 @@
 package com.srivarini.csye6225.cloud.service;
 
+import com.srivarini.csye6225.cloud.config.RequestTimings;
 import com.srivarini.csye6225.cloud.config.S3Config;
 import com.srivarini.csye6225.cloud.model.FileMetadata;
 import com.srivarini.csye6225.cloud.repository.FileMetadataRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class S3ServiceImpl implements S3Service {
@@ -32,84 +40,147 @@ public class S3ServiceImpl implements S3Service {
     private FileMetadataRepository fileMetadataRepository;
     @Autowired
     private MetricsService metricsService;
+    @Autowired
+    private FileMetadataCache fileMetadataCache;
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    @Autowired
+    private FileDeletionQueue fileDeletionQueue;
+    @Autowired
+    private ContentStore contentStore;
+    @Autowired
+    private UploadCompression uploadCompression;
 
     @Override
     public FileMetadata uploadFile(MultipartFile file) throws IOException {
         String originalFilename = file.getOriginalFilename();
         String fileName = UUID.randomUUID().toString() + "-" + file.getOriginalFilename();
-        String fileUrl = "https://" + s3Config.getBucketName() + ".s3.amazonaws.com/" + fileName;
-        logger.info("Uploading file '{}' to S3 bucket '{}'", originalFilename, s3Config.getBucketName());
-        long s3Start = System.currentTimeMillis();
-        try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(s3Config.getBucketName())
-                    .key(fileName)
-                    .build();
+        RequestTimings timings = RequestTimings.current();
+        // Stream the part (spooled to disk by the multipart resolver) instead of copying it into a byte[]
+        StorageCodec codec = uploadCompression.codecFor(file);
+        try (PartStreams partStreams = PartStreams.open(file, codec, uploadCompression.level())) {
+            PartStreams.Digest digest;
+            long hashStart = System.nanoTime();
+            try {
+                digest = partStreams.digest();
+            } catch (IOException e) {
+                logger.error("Failed to read file stream for '{}'", originalFilename, e);
+                throw e;
+            } finally {
+                recordPhase(timings, RequestTimings.Phase.PARSE, "service.upload.hash.timer", hashStart);
+            }
+            long dbStart = System.nanoTime();
+            try {
+                Optional<FileMetadata> reference = contentStore.saveIfStored(fileName, digest);
+                if (reference.isPresent()) {
+                    return reference.get();
+                }
+            } finally {
+                recordPhase(timings, RequestTimings.Phase.DB, "service.db.filemetadata.insert.timer", dbStart);
+            }
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
-        } catch (IOException e) {
-            logger.error("Failed to read file bytes for '{}'", originalFilename, e);
-            throw e;
-        } catch (Exception e) {
-            logger.error("Error occurred while uploading file '{}' to S3", originalFilename, e);
-            throw new RuntimeException("S3 upload failed", e);
-        } finally {
-            metricsService.timing("service.s3.upload.timer", System.currentTimeMillis() - s3Start);
-        }
-        long dbStart = System.currentTimeMillis();
-        try {
-            // Save metadata (JPA assigns ID)
-            FileMetadata metadata = new FileMetadata(fileName, fileUrl, LocalDateTime.now());
-            FileMetadata savedMetadata = fileMetadataRepository.save(metadata); // Fetch the saved entity with ID
-            logger.info("File '{}' uploaded successfully. S3 URL: {}", fileName, fileUrl);
-            return savedMetadata;
-        }finally {
-            metricsService.timing("service.db.filemetadata.insert.timer", System.currentTimeMillis() - dbStart);
+            logger.info("Uploading file '{}' to S3 bucket '{}'", originalFilename, s3Config.getBucketName());
+            long s3Start = System.nanoTime();
+            try {
+                s3Client.putObject(digest.putObjectRequest(s3Config.getBucketName(), fileName), RequestBody.fromContentProvider(
+                        partStreams.contentStreamProvider(), digest.storedLength(), MediaType.APPLICATION_OCTET_STREAM_VALUE));
+            } catch (Exception e) {
+                logger.error("Error occurred while uploading file '{}' to S3", originalFilename, e);
+                throw new RuntimeException("S3 upload failed", e);
+            } finally {
+                recordPhase(timings, RequestTimings.Phase.S3, "service.s3.upload.timer", s3Start);
+            }
+            dbStart = System.nanoTime();
+            try {
+                return contentStore.saveUploaded(fileName, codec, digest, file.getSize());
+            } finally {
+                recordPhase(timings, RequestTimings.Phase.DB, "service.db.filemetadata.insert.timer", dbStart);
+            }
         }
-
     }
 
     @Override
     public Optional<FileMetadata> getFileMetadata(UUID id) {
         logger.info("Retrieving metadata for file ID: {}", id);
-        return fileMetadataRepository.findById(id);
+        return fileMetadataCache.get(id, this::findMetadata);
     }
 
     @Override
     public boolean deleteFile(UUID id) {
         logger.info("Attempting to delete file with ID: {}", id);
-        Optional<FileMetadata> fileMetadata = fileMetadataRepository.findById(id);
-        if (fileMetadata.isPresent())
-        {
-            String fileName = fileMetadata.get().getFileName();
-            long s3Start = System.currentTimeMillis();
-
-            try
-            {
-            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                    .bucket(s3Config.getBucketName())
-                    .key(fileMetadata.get().getFileName())
-                    .build();
-            s3Client.deleteObject(deleteObjectRequest);
-            } catch (Exception e) {
-                logger.error("Error occurred while deleting file '{}' from S3", fileName, e);
-                return false;
-            } finally {
-                metricsService.timing("service.s3.delete.timer", System.currentTimeMillis() - s3Start);
+        RequestTimings timings = RequestTimings.current();
+        Optional<FileMetadata> fileMetadata = fileMetadataCache.get(id, this::findMetadata);
+        if (fileMetadata.isEmpty()) {
+            logger.warn("File with ID {} not found in metadata repository.", id);
+            return false;
+        }
+        // The S3 object is removed later by TombstoneDrainer
+        long dbStart = System.nanoTime();
+        try {
+            boolean deleted = fileDeletionQueue.enqueue(fileMetadata.get());
+            if (deleted) {
+                logger.info("Deleted file '{}' from database and queued its S3 object for deletion.", fileMetadata.get().getFileName());
             }
-            long dbStart = System.currentTimeMillis();
-            try {
-            fileMetadataRepository.delete(fileMetadata.get());
-            logger.info("Successfully deleted file '{}' from S3 and database.", fileName);
+            return deleted;
+        } finally {
+            recordPhase(timings, RequestTimings.Phase.DB, "service.db.filemetadata.delete.timer", dbStart);
+        }
+    }
+
+    @Override
+    public Map<UUID, DeleteOutcome> deleteFiles(List<UUID> ids) {
+        Map<UUID, DeleteOutcome> outcomes = new LinkedHashMap<>();
+        ids.forEach(id -> outcomes.put(id, DeleteOutcome.NOT_FOUND));
+        logger.info("Attempting to delete {} files", outcomes.size());
+        RequestTimings timings = RequestTimings.current();
 
-            return true;
-            }finally {
-                metricsService.timing("service.db.filemetadata.delete.timer", System.currentTimeMillis() - dbStart);
+        List<FileMetadata> found = timings.time(RequestTimings.Phase.DB, () -> fileMetadataRepository.findAllById(outcomes.keySet()));
+        if (!found.isEmpty()) {
+            // Rows are deleted and their objects released to the tombstone queue in one transaction; TombstoneDrainer
+            // removes the objects, so the request never waits on S3
+            long dbStart = System.nanoTime();
+            try {
+                fileDeletionQueue.enqueueAll(found).forEach(id -> outcomes.put(id, DeleteOutcome.DELETED));
+            } finally {
+                recordPhase(timings, RequestTimings.Phase.DB, "service.db.filemetadata.delete.batch.timer", dbStart);
             }
         }
-        else {
-            logger.warn("File with ID {} not found in metadata repository.", id);
-            return false;
+        Map<DeleteOutcome, Long> counts = outcomes.values().stream().collect(Collectors.groupingBy(outcome -> outcome, Collectors.counting()));
+        logger.info("Bulk delete: {} deleted, {} not found", counts.getOrDefault(DeleteOutcome.DELETED, 0L),
+                counts.getOrDefault(DeleteOutcome.NOT_FOUND, 0L));
+        return outcomes;
+    }
+
+    // Keyset page: the query seeks straight to the cursor in the (upload_date, id) index, so every page costs the
+    // same however deep into the listing it is. Rows are handed over as they are read rather than collected
+    @Override
+    @Transactional(readOnly = true)
+    public int forEachFile(FileCursor after, int limit, Consumer<FileMetadata> action) {
+        RequestTimings timings = RequestTimings.current();
+        long dbStart = System.nanoTime();
+        try (Stream<FileMetadata> rows = after == null
+                ? fileMetadataRepository.streamByOrderByUploadDateAscIdAsc(Limit.of(limit))
+                : fileMetadataRepository.streamAfter(after.uploadDate(), after.id(), Limit.of(limit))) {
+            int[] count = {0};
+            rows.forEach(metadata -> {
+                count[0]++;
+                action.accept(metadata);
+            });
+            return count[0];
+        } finally {
+            recordPhase(timings, RequestTimings.Phase.DB, "service.db.filemetadata.list.timer", dbStart);
         }
     }
-}
\ No newline at end of file
+
+    // Cache loader; only misses reach the database, so only they count towards the request's db phase
+    private Optional<FileMetadata> findMetadata(UUID id) {
+        RequestTimings timings = RequestTimings.current();
+        return readYourWrites.find(id, key -> timings.time(RequestTimings.Phase.DB, () -> fileMetadataRepository.findById(key)));
+    }
+
+    private void recordPhase(RequestTimings timings, RequestTimings.Phase phase, String timer, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        timings.record(phase, elapsed);
+        metricsService.timing(timer, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+}
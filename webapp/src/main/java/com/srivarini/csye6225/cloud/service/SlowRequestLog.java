@@ -0,0 +1,61 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Fixed-size ring of the most recent requests slower than the threshold, each with its phase breakdown.
+// Writers claim a slot with one getAndIncrement and overwrite whatever was there, so recording never blocks;
+// readers take a best-effort snapshot.
+@Component
+public class SlowRequestLog {
+
+    private final long thresholdNanos;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicReferenceArray<SlowRequest> slots;
+
+    public SlowRequestLog(
+            @Value("${diagnostics.slow-requests.threshold-ms:1000}") long thresholdMillis,
+            @Value("${diagnostics.slow-requests.capacity:128}") int capacity) {
+        // Round capacity up to a power of two so the slot index is a mask rather than a modulo
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    public boolean isSlow(long totalNanos) {
+        return totalNanos >= thresholdNanos;
+    }
+
+    public void record(String method, String uri, int status, double totalMillis, Map<String, Double> phaseMillis) {
+        long seq = sequence.getAndIncrement();
+        slots.set((int) (seq & mask), new SlowRequest(seq, Instant.now(), method, uri, status, totalMillis, phaseMillis));
+    }
+
+    // Newest first
+    public List<SlowRequest> snapshot() {
+        List<SlowRequest> requests = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            SlowRequest request = slots.get(i);
+            if (request != null) {
+                requests.add(request);
+            }
+        }
+        requests.sort(Comparator.comparingLong(SlowRequest::sequence).reversed());
+        return requests;
+    }
+
+    public record SlowRequest(long sequence, Instant timestamp, String method, String uri, int status,
+                              double totalMillis, Map<String, Double> phaseMillis) {
+    }
+}
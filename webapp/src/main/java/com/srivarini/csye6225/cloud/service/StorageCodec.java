@@ -0,0 +1,98 @@
+package com.srivarini.csye6225.cloud.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+// How an uploaded part is encoded on its way to S3. The encoding is applied as the body is read, so nothing is
+// buffered, and is deterministic for a given input, so a measuring pass and the upload produce the same bytes.
+public enum StorageCodec {
+
+    IDENTITY(null) {
+        @Override
+        public InputStream encode(InputStream raw, int level) {
+            return raw;
+        }
+    },
+
+    GZIP("gzip") {
+        @Override
+        public InputStream encode(InputStream raw, int level) {
+            return new GzipEncodingInputStream(raw, level);
+        }
+    };
+
+    private final String contentEncoding;
+
+    StorageCodec(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    // Content-Encoding of the stored object; null for IDENTITY
+    public String contentEncoding() {
+        return contentEncoding;
+    }
+
+    public abstract InputStream encode(InputStream raw, int level);
+
+    // RFC 1952 member: fixed header, raw deflate stream, then CRC-32 and length of the input. The trailer is only
+    // built once the deflate stream is exhausted
+    private static final class GzipEncodingInputStream extends SequenceInputStream {
+
+        private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+        private final Deflater deflater;
+
+        GzipEncodingInputStream(InputStream raw, int level) {
+            this(new CheckedInputStream(raw, new CRC32()), new Deflater(level, true));
+        }
+
+        private GzipEncodingInputStream(CheckedInputStream checked, Deflater deflater) {
+            super(parts(checked, deflater));
+            this.deflater = deflater;
+        }
+
+        // Each part is created when the previous one runs out
+        private static Enumeration<InputStream> parts(CheckedInputStream checked, Deflater deflater) {
+            Iterator<Supplier<InputStream>> parts = List.<Supplier<InputStream>>of(
+                    () -> new ByteArrayInputStream(HEADER),
+                    () -> new DeflaterInputStream(checked, deflater, 8192),
+                    () -> new ByteArrayInputStream(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+                            .putInt((int) checked.getChecksum().getValue())
+                            .putInt((int) deflater.getBytesRead())
+                            .array())).iterator();
+            return new Enumeration<>() {
+                @Override
+                public boolean hasMoreElements() {
+                    return parts.hasNext();
+                }
+
+                @Override
+                public InputStream nextElement() {
+                    return parts.next().get();
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                // A Deflater passed in is not ended by DeflaterInputStream
+                deflater.end();
+            }
+        }
+    }
+}
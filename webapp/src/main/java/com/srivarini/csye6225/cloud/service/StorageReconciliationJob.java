@@ -0,0 +1,343 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.config.S3Config;
+import com.srivarini.csye6225.cloud.model.DeletionTombstone;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import com.srivarini.csye6225.cloud.model.StoredObject;
+import com.srivarini.csye6225.cloud.repository.DeletionTombstoneRepository;
+import com.srivarini.csye6225.cloud.repository.FileMetadataRepository;
+import com.srivarini.csye6225.cloud.repository.StoredObjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Finds S3 objects nothing in the database refers to (orphans) and rows whose object is gone (dangling rows) by
+// merging the bucket listing with file_metadata and stored_object, all walked in key order one page at a time, so
+// memory stays constant however large either side is. Anything newer than the grace period is skipped because
+// uploads and upload sessions legitimately have an object before their row exists.
+//
+// The merge relies on ORDER BY file_name / object_key matching S3's byte order. The column collation is
+// case-insensitive, but every key the service writes starts with a unique lowercase UUID, which orders the same
+// either way; a run that sees either side out of order aborts there rather than report differences past that point.
+//
+// Repairs are off by default. When enabled, each one is re-checked against the source of truth first (the row for
+// an orphan, HeadObject for a dangling row) and paced to repair.max-per-second: orphans are handed to the tombstone
+// queue and dangling rows are deleted. Every instance runs the cron, so a run takes the reconciliation lease first
+// and is skipped if another instance holds it; two runs would otherwise queue the same orphans twice.
+@Component
+public class StorageReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageReconciliationJob.class);
+
+    @Autowired
+    private S3Config s3Config;
+    @Autowired
+    private S3Client s3Client;
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+    @Autowired
+    private StoredObjectRepository storedObjectRepository;
+    @Autowired
+    private DeletionTombstoneRepository deletionTombstoneRepository;
+    @Autowired
+    private FileMetadataCache fileMetadataCache;
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    @Autowired
+    private MetricsService metricsService;
+    @Autowired
+    private JobLease jobLease;
+
+    @Value("${reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reconciliation.page-size:1000}")
+    private int pageSize;
+
+    @Value("${reconciliation.grace-hours:24}")
+    private long graceHours;
+
+    @Value("${reconciliation.report.max-logged:100}")
+    private int maxLogged;
+
+    @Value("${reconciliation.repair.enabled:false}")
+    private boolean repairEnabled;
+
+    @Value("${reconciliation.repair.max-per-second:10}")
+    private double repairsPerSecond;
+
+    @Value("${reconciliation.lease-ms:21600000}")
+    private long leaseMillis;
+
+    @Scheduled(cron = "${reconciliation.cron:0 30 3 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            jobLease.runExclusively("storage-reconciliation", Duration.ofMillis(leaseMillis), () -> {
+                Report report = reconcile(LocalDateTime.now(ZoneOffset.UTC).minusHours(graceHours));
+                logger.info("Storage reconciliation: {} matched, {} orphaned objects, {} dangling rows, {} repaired",
+                        report.matched, report.orphanedObjects, report.danglingRows, report.repaired);
+            });
+        } catch (Exception e) {
+            logger.error("Storage reconciliation run failed", e);
+        } finally {
+            metricsService.timing("job.reconciliation.timer", System.currentTimeMillis() - startTime);
+        }
+    }
+
+    // Differences newer than the cutoff are ignored
+    Report reconcile(LocalDateTime cutoff) {
+        Report report = new Report();
+        Pacer pacer = new Pacer(repairsPerSecond);
+        Iterator<S3Object> objects = pages(this::listObjectsAfter, S3Object::key);
+        Iterator<Expected> expected = merge(pages(this::findRowsAfter, Expected::key), pages(this::findStoredObjectsAfter, Expected::key));
+        S3Object object = objects.hasNext() ? objects.next() : null;
+        Expected entry = expected.hasNext() ? expected.next() : null;
+        while (object != null || entry != null) {
+            int order = object == null ? 1 : entry == null ? -1 : compareKeys(object.key(), entry.key());
+            if (order == 0) {
+                report.matched++;
+            } else if (order < 0) {
+                if (object.lastModified().isBefore(cutoff.toInstant(ZoneOffset.UTC))) {
+                    orphanedObject(object, report, pacer);
+                }
+            } else if (entry.since().isBefore(cutoff)) {
+                if (entry.row() != null) {
+                    danglingRow(entry.row(), report, pacer);
+                } else {
+                    missingStoredObject(entry.stored(), report);
+                }
+            }
+            if (order <= 0) {
+                object = objects.hasNext() ? objects.next() : null;
+            }
+            if (order >= 0) {
+                entry = expected.hasNext() ? expected.next() : null;
+            }
+        }
+        return report;
+    }
+
+    private void orphanedObject(S3Object object, Report report, Pacer pacer) {
+        report.orphanedObjects++;
+        metricsService.increment("job.reconciliation.orphaned.object.count");
+        if (report.orphanedObjects <= maxLogged) {
+            logger.warn("Orphaned S3 object '{}' ({} bytes, last modified {}) has no metadata row", object.key(), object.size(), object.lastModified());
+        }
+        if (!repairEnabled) {
+            return;
+        }
+        pacer.await();
+        if (fileMetadataRepository.findByFileName(object.key()).isPresent() || storedObjectRepository.existsByObjectKey(object.key())) {
+            return;
+        }
+        deletionTombstoneRepository.save(new DeletionTombstone(object.key(), LocalDateTime.now(ZoneOffset.UTC)));
+        report.repaired++;
+        metricsService.increment("job.reconciliation.repaired.count");
+    }
+
+    private void danglingRow(FileMetadata row, Report report, Pacer pacer) {
+        report.danglingRows++;
+        metricsService.increment("job.reconciliation.dangling.row.count");
+        if (report.danglingRows <= maxLogged) {
+            logger.warn("Metadata row {} points at missing S3 object '{}'", row.getId(), row.getFileName());
+        }
+        if (!repairEnabled) {
+            return;
+        }
+        pacer.await();
+        if (objectExists(row.getFileName())) {
+            return;
+        }
+        if (fileMetadataRepository.deleteMetadata(row.getId()) > 0) {
+            fileMetadataCache.invalidate(row.getId());
+            readYourWrites.recordWrite(row.getId());
+            report.repaired++;
+            metricsService.increment("job.reconciliation.repaired.count");
+        }
+    }
+
+    // Every row sharing the content has lost it; there is nothing safe to repair automatically
+    private void missingStoredObject(StoredObject stored, Report report) {
+        report.danglingRows++;
+        metricsService.increment("job.reconciliation.dangling.row.count");
+        if (report.danglingRows <= maxLogged) {
+            logger.warn("Stored object '{}' for content {} ({} references) is missing from S3", stored.getObjectKey(),
+                    stored.getContentHash(), stored.getRefCount());
+        }
+    }
+
+    private boolean objectExists(String key) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder().bucket(s3Config.getBucketName()).key(key).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private List<S3Object> listObjectsAfter(String key) {
+        ListObjectsV2Request.Builder request = ListObjectsV2Request.builder()
+                .bucket(s3Config.getBucketName())
+                .maxKeys(pageSize);
+        if (key != null) {
+            request.startAfter(key);
+        }
+        return s3Client.listObjectsV2(request.build()).contents();
+    }
+
+    // Rows owning an object named after them; deduplicated rows are covered by their stored object
+    private List<Expected> findRowsAfter(String fileName) {
+        List<FileMetadata> rows = fileName == null
+                ? fileMetadataRepository.findByContentHashIsNullOrderByFileName(Limit.of(pageSize))
+                : fileMetadataRepository.findByContentHashIsNullAndFileNameGreaterThanOrderByFileName(fileName, Limit.of(pageSize));
+        return rows.stream().map(row -> new Expected(row.getFileName(), row.getUploadDate(), row, null)).toList();
+    }
+
+    private List<Expected> findStoredObjectsAfter(String objectKey) {
+        List<StoredObject> storedObjects = objectKey == null
+                ? storedObjectRepository.findByOrderByObjectKey(Limit.of(pageSize))
+                : storedObjectRepository.findByObjectKeyGreaterThanOrderByObjectKey(objectKey, Limit.of(pageSize));
+        return storedObjects.stream().map(stored -> new Expected(stored.getObjectKey(), stored.getCreatedAt(), null, stored)).toList();
+    }
+
+    // Interleaves two key-ordered sources into one; their keys never coincide
+    private static Iterator<Expected> merge(Iterator<Expected> first, Iterator<Expected> second) {
+        return new Iterator<>() {
+            private Expected nextFirst = first.hasNext() ? first.next() : null;
+            private Expected nextSecond = second.hasNext() ? second.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextFirst != null || nextSecond != null;
+            }
+
+            @Override
+            public Expected next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Expected item;
+                if (nextSecond == null || (nextFirst != null && compareKeys(nextFirst.key(), nextSecond.key()) < 0)) {
+                    item = nextFirst;
+                    nextFirst = first.hasNext() ? first.next() : null;
+                } else {
+                    item = nextSecond;
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+                return item;
+            }
+        };
+    }
+
+    // Walks a key-ordered source by asking for the page after the last key seen, holding only one page at a time.
+    // Fails if the source returns a key that does not sort after the previous one
+    private static <T> Iterator<T> pages(Function<String, List<T>> pageAfter, Function<T, String> keyOf) {
+        return new Iterator<>() {
+            private Iterator<T> page = Collections.emptyIterator();
+            private String lastKey;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && !exhausted) {
+                    List<T> next = pageAfter.apply(lastKey);
+                    exhausted = next.isEmpty();
+                    page = next.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T item = page.next();
+                String key = keyOf.apply(item);
+                if (lastKey != null && compareKeys(lastKey, key) >= 0) {
+                    throw new IllegalStateException("Keys out of order: '" + key + "' after '" + lastKey + "'");
+                }
+                lastKey = key;
+                return item;
+            }
+        };
+    }
+
+    // S3 lists keys in UTF-8 byte order, which is code point order; String.compareTo orders by UTF-16 unit instead
+    static int compareKeys(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int codePointA = a.codePointAt(i);
+            int codePointB = b.codePointAt(j);
+            if (codePointA != codePointB) {
+                return Integer.compare(codePointA, codePointB);
+            }
+            i += Character.charCount(codePointA);
+            j += Character.charCount(codePointB);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    // An object the database expects in the bucket: owned by one row, or shared through a stored object
+    private record Expected(String key, LocalDateTime since, FileMetadata row, StoredObject stored) {}
+
+    static final class Report {
+        long matched;
+        long orphanedObjects;
+        long danglingRows;
+        long repaired;
+    }
+
+    // Spaces repairs evenly so a large backlog does not turn into a burst of S3 calls or row deletes
+    private static final class Pacer {
+        private final long intervalNanos;
+        private long nextNanos = System.nanoTime();
+
+        Pacer(double perSecond) {
+            this.intervalNanos = perSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / perSecond) : 0;
+        }
+
+        void await() {
+            long waitNanos = nextNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while pacing repairs", e);
+                }
+            }
+            nextNanos = Math.max(nextNanos, System.nanoTime()) + intervalNanos;
+        }
+    }
+}
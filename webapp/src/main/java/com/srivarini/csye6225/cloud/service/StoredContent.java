@@ -0,0 +1,147 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+// An opened slice of a stored object, read either from the local disk cache or from a GetObject response. A
+// slice that could not be satisfied carries only the object's length (-1 when S3 did not say) and no body, and
+// neither does one that only describes the object for a HEAD request.
+public final class StoredContent implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoredContent.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final long completeLength;
+    private final long start;
+    private final long end;
+    private final boolean partial;
+    private final boolean satisfiable;
+    private final ObjectDiskCache.Hit hit;
+    private final ResponseInputStream<GetObjectResponse> s3Stream;
+    private final ObjectDiskCache.Fill fill;
+    private boolean drained;
+
+    private StoredContent(long completeLength, long start, long end, boolean partial, boolean satisfiable,
+                          ObjectDiskCache.Hit hit, ResponseInputStream<GetObjectResponse> s3Stream, ObjectDiskCache.Fill fill) {
+        this.completeLength = completeLength;
+        this.start = start;
+        this.end = end;
+        this.partial = partial;
+        this.satisfiable = satisfiable;
+        this.hit = hit;
+        this.s3Stream = s3Stream;
+        this.fill = fill;
+    }
+
+    static StoredContent cached(ObjectDiskCache.Hit hit, long start, long end, boolean partial) {
+        return new StoredContent(hit.length(), start, end, partial, true, hit, null, null);
+    }
+
+    static StoredContent streamed(ResponseInputStream<GetObjectResponse> s3Stream, long completeLength, long start, long end,
+                                  boolean partial, ObjectDiskCache.Fill fill) {
+        return new StoredContent(completeLength, start, end, partial, true, null, s3Stream, fill);
+    }
+
+    static StoredContent described(long completeLength, long start, long end, boolean partial) {
+        return new StoredContent(completeLength, start, end, partial, true, null, null, null);
+    }
+
+    static StoredContent unsatisfiable(long completeLength) {
+        return new StoredContent(completeLength, 0, -1, false, false, null, null, null);
+    }
+
+    public boolean satisfiable() {
+        return satisfiable;
+    }
+
+    public boolean partial() {
+        return partial;
+    }
+
+    public long completeLength() {
+        return completeLength;
+    }
+
+    public long start() {
+        return start;
+    }
+
+    // Inclusive, as in Content-Range
+    public long end() {
+        return end;
+    }
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    // The cached file holding the object, for a container that can send it straight from the page cache
+    public Optional<Path> file() {
+        return hit == null ? Optional.empty() : Optional.of(hit.path());
+    }
+
+    // Copies the slice to out. From the cache this is FileChannel.transferTo; from S3 each chunk is relayed as it
+    // arrives and also written to the cache fill, if there is one
+    public void transferTo(OutputStream out) throws IOException {
+        if (hit != null) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = length();
+            while (remaining > 0) {
+                long sent = hit.channel().transferTo(position, remaining, target);
+                position += sent;
+                remaining -= sent;
+            }
+            return;
+        }
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        int read;
+        while ((read = s3Stream.read(buffer)) != -1) {
+            if (fill != null) {
+                fill.write(buffer, 0, read);
+            }
+            out.write(buffer, 0, read);
+        }
+        drained = true;
+    }
+
+    // The whole object as a stream, for callers that transform it (e.g. decoding a compressed object)
+    public InputStream stream() throws IOException {
+        if (hit != null) {
+            return Channels.newInputStream(hit.channel().position(start));
+        }
+        return s3Stream;
+    }
+
+    @Override
+    public void close() {
+        if (hit != null) {
+            hit.close();
+        }
+        if (s3Stream != null) {
+            try {
+                if (!drained) {
+                    // Abandons the connection instead of reading the rest of a body the client will not get
+                    s3Stream.abort();
+                }
+                s3Stream.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close S3 object stream", e);
+            }
+        }
+        if (fill != null) {
+            fill.close();
+        }
+    }
+}
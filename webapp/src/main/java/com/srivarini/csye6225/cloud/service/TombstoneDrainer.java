@@ -0,0 +1,251 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.config.S3Config;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Back half of the asynchronous delete path: a small pool of workers drains deletion_tombstone into S3
+// DeleteObjects calls. A worker leases a batch by pushing next_attempt_at past the lease and stamping its token,
+// so concurrent workers (and other instances) never send the same tombstone twice, and a batch held by a worker
+// that died becomes due again once the lease runs out. Failed keys are retried with full-jitter exponential
+// backoff and dead-lettered after max-attempts; dead letters stay in the table for an operator to inspect.
+@Component
+public class TombstoneDrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TombstoneDrainer.class);
+    // DeleteObjects accepts at most 1000 keys per request
+    private static final int MAX_KEYS_PER_DELETE_OBJECTS = 1000;
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    @Autowired
+    private S3Config s3Config;
+    @Autowired
+    private S3Client s3Client;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${tombstone.drain.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tombstone.drain.workers:2}")
+    private int workers;
+
+    @Value("${tombstone.drain.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${tombstone.drain.batch-size:500}")
+    private int batchSize;
+
+    @Value("${tombstone.drain.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${tombstone.drain.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${tombstone.drain.backoff-base-ms:1000}")
+    private long backoffBaseMillis;
+
+    @Value("${tombstone.drain.backoff-cap-ms:300000}")
+    private long backoffCapMillis;
+
+    @Value("${tombstone.stats.interval-ms:10000}")
+    private long statsIntervalMillis;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newScheduledThreadPool(workers + 1, Thread.ofPlatform().name("tombstone-drain-", 0).daemon().factory());
+        for (int i = 0; i < workers; i++) {
+            scheduler.scheduleWithFixedDelay(this::run, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(this::updateStats, 0, statsIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Batches still in flight keep their lease and are picked up again after it expires
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void run() {
+        long startTime = System.currentTimeMillis();
+        try {
+            // Keep going while whole batches succeed so a backlog drains faster than one batch per poll
+            while (drainBatch() == batchSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Tombstone drain run failed", e);
+        } finally {
+            metricsService.timing("job.tombstone.drain.timer", System.currentTimeMillis() - startTime);
+        }
+    }
+
+    // Leases one batch of due tombstones and deletes their objects. Returns the number of tombstones completed
+    int drainBatch() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        String lease = UUID.randomUUID().toString();
+        List<Tombstone> batch = lease(lease, now);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        batch.forEach(tombstone -> keys.add(tombstone.fileName()));
+        Map<String, String> failures = new HashMap<>();
+        List<String> keyList = new ArrayList<>(keys);
+        for (int from = 0; from < keyList.size(); from += MAX_KEYS_PER_DELETE_OBJECTS) {
+            failures.putAll(deleteObjects(keyList.subList(from, Math.min(from + MAX_KEYS_PER_DELETE_OBJECTS, keyList.size()))));
+        }
+
+        List<Long> completed = new ArrayList<>(batch.size());
+        List<Object[]> retries = new ArrayList<>();
+        LocalDateTime finishedAt = LocalDateTime.now(ZoneOffset.UTC);
+        for (Tombstone tombstone : batch) {
+            String error = failures.get(tombstone.fileName());
+            if (error == null) {
+                completed.add(tombstone.id());
+                metricsService.timing("tombstone.drain.lag.timer", Duration.between(tombstone.enqueuedAt(), finishedAt).toMillis());
+                continue;
+            }
+            int attempts = tombstone.attempts() + 1;
+            boolean deadLettered = attempts >= maxAttempts;
+            if (deadLettered) {
+                logger.error("Giving up on deleting '{}' from S3 after {} attempts: {}", tombstone.fileName(), attempts, error);
+                metricsService.increment("tombstone.deadletter.count");
+            } else {
+                logger.warn("Failed to delete '{}' from S3 (attempt {}): {}", tombstone.fileName(), attempts, error);
+                metricsService.increment("tombstone.retry.count");
+            }
+            retries.add(new Object[]{attempts, Timestamp.valueOf(finishedAt.plus(backoff(attempts))), deadLettered,
+                    truncate(error), tombstone.id(), lease});
+        }
+        if (!completed.isEmpty()) {
+            namedParameterJdbcTemplate.update("DELETE FROM deletion_tombstone WHERE id IN (:ids) AND lease_owner = :lease",
+                    Map.of("ids", completed, "lease", lease));
+            metricsService.counter("tombstone.deleted.count").add(completed.size());
+        }
+        if (!retries.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE deletion_tombstone SET attempts = ?, next_attempt_at = ?, dead_lettered = ?, "
+                    + "last_error = ?, lease_owner = NULL WHERE id = ? AND lease_owner = ?", retries);
+        }
+        return completed.size();
+    }
+
+    // Reads queue depth, the age of the oldest pending tombstone and the dead-letter count into gauges
+    void updateStats() {
+        try {
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            jdbcTemplate.query("SELECT COUNT(*) AS depth, MIN(enqueued_at) AS oldest FROM deletion_tombstone WHERE dead_lettered = FALSE",
+                    rs -> {
+                        Timestamp oldest = rs.getTimestamp("oldest");
+                        metricsService.gauge("tombstone.queue.depth").set(rs.getLong("depth"));
+                        metricsService.gauge("tombstone.queue.lag.ms").set(
+                                oldest == null ? 0 : Math.max(0, Duration.between(oldest.toLocalDateTime(), now).toMillis()));
+                    });
+            Long deadLetters = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM deletion_tombstone WHERE dead_lettered = TRUE", Long.class);
+            metricsService.gauge("tombstone.deadletter.depth").set(deadLetters == null ? 0 : deadLetters);
+        } catch (Exception e) {
+            logger.warn("Failed to read tombstone queue stats", e);
+        }
+    }
+
+    // Full jitter: uniform in [0, min(cap, base * 2^(attempts - 1))], which spreads retries of a failed batch apart
+    Duration backoff(int attempts) {
+        long ceiling = Math.min(backoffCapMillis, backoffBaseMillis << Math.min(attempts - 1, 30));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    // The conditional UPDATE lets only one worker take a row; whoever loses the race reads back fewer rows
+    private List<Tombstone> lease(String lease, LocalDateTime now) {
+        List<Long> due = jdbcTemplate.queryForList(
+                "SELECT id FROM deletion_tombstone WHERE dead_lettered = FALSE AND next_attempt_at <= ? ORDER BY next_attempt_at LIMIT ?",
+                Long.class, Timestamp.valueOf(now), batchSize);
+        if (due.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Object> params = Map.of("ids", due, "lease", lease, "now", Timestamp.valueOf(now),
+                "leaseUntil", Timestamp.valueOf(now.plusSeconds(leaseSeconds)));
+        int leased = namedParameterJdbcTemplate.update("UPDATE deletion_tombstone SET lease_owner = :lease, next_attempt_at = :leaseUntil "
+                + "WHERE id IN (:ids) AND dead_lettered = FALSE AND next_attempt_at <= :now", params);
+        if (leased == 0) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query("SELECT id, file_name, enqueued_at, attempts FROM deletion_tombstone WHERE lease_owner = :lease",
+                Map.of("lease", lease),
+                (rs, rowNum) -> new Tombstone(rs.getLong("id"), rs.getString("file_name"),
+                        rs.getTimestamp("enqueued_at").toLocalDateTime(), rs.getInt("attempts")));
+    }
+
+    // Quiet mode: S3 only reports the keys it failed to delete, and a missing key counts as deleted.
+    // Returns the error for each failed key; a failed call fails every key in the chunk
+    private Map<String, String> deleteObjects(List<String> keys) {
+        Map<String, String> failures = new HashMap<>();
+        try {
+            DeleteObjectsRequest deleteObjectsRequest = DeleteObjectsRequest.builder()
+                    .bucket(s3Config.getBucketName())
+                    .delete(Delete.builder()
+                            .objects(keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                            .quiet(true)
+                            .build())
+                    .build();
+            DeleteObjectsResponse response = s3Client.deleteObjects(deleteObjectsRequest);
+            for (S3Error error : response.errors()) {
+                failures.put(error.key(), error.code() + " - " + error.message());
+            }
+        } catch (Exception e) {
+            keys.forEach(key -> failures.put(key, e.toString()));
+        }
+        return failures;
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private record Tombstone(long id, String fileName, LocalDateTime enqueuedAt, int attempts) {}
+}
@@ -0,0 +1,61 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+// Decides which uploads are stored gzip-encoded: text-like content types from a configured list, above a minimum
+// size. Anything else (images, archives, video) is already compressed or too small to be worth the CPU.
+// Whether an encoded part actually came out smaller is only known after the measuring pass in PartStreams.
+@Component
+public class UploadCompression {
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${storage.compression.enabled:false}")
+    private boolean enabled;
+
+    @Value("${storage.compression.content-types:text/*,application/json,application/xml,application/x-ndjson}")
+    private List<MediaType> contentTypes;
+
+    @Value("${storage.compression.min-size-bytes:1024}")
+    private long minSizeBytes;
+
+    @Value("${storage.compression.level:6}")
+    private int level;
+
+    public StorageCodec codecFor(MultipartFile file) {
+        if (!enabled || file.getSize() < minSizeBytes || file.getContentType() == null) {
+            return StorageCodec.IDENTITY;
+        }
+        MediaType contentType;
+        try {
+            contentType = MediaType.parseMediaType(file.getContentType());
+        } catch (InvalidMediaTypeException e) {
+            return StorageCodec.IDENTITY;
+        }
+        return contentTypes.stream().anyMatch(type -> type.includes(contentType)) ? StorageCodec.GZIP : StorageCodec.IDENTITY;
+    }
+
+    public int level() {
+        return level;
+    }
+
+    void record(StorageCodec requested, PartStreams.Digest digest, long contentLength) {
+        if (requested == StorageCodec.IDENTITY) {
+            return;
+        }
+        if (digest.codec() == StorageCodec.IDENTITY) {
+            metricsService.increment("storage.compression.incompressible.count");
+            return;
+        }
+        metricsService.increment("storage.compression.encoded.count");
+        metricsService.counter("storage.compression.bytes.saved").add(contentLength - digest.storedLength());
+    }
+}
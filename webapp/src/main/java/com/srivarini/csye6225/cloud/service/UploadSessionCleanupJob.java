@@ -0,0 +1,93 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.model.DeletionTombstone;
+import com.srivarini.csye6225.cloud.model.UploadSession;
+import com.srivarini.csye6225.cloud.repository.DeletionTombstoneRepository;
+import com.srivarini.csye6225.cloud.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Removes upload sessions that were never completed, along with any object the client uploaded for them.
+// Sessions are only collected a grace period after they expire: S3 checks a pre-signed URL's expiry when the PUT
+// starts, so an upload begun just before expiry can still be landing after it. Objects are not deleted here: each
+// claimed session's object gets a tombstone in the claim's transaction, and TombstoneDrainer removes it.
+@Component
+public class UploadSessionCleanupJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionCleanupJob.class);
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+    @Autowired
+    private DeletionTombstoneRepository deletionTombstoneRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${upload.session.cleanup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${upload.session.cleanup.grace-seconds:300}")
+    private long graceSeconds;
+
+    @Value("${upload.session.cleanup.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${upload.session.cleanup.interval-ms:60000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            int purged = purge(LocalDateTime.now(ZoneOffset.UTC).minusSeconds(graceSeconds));
+            if (purged > 0) {
+                logger.info("Upload session cleanup: removed {} expired sessions", purged);
+            }
+        } catch (Exception e) {
+            logger.error("Upload session cleanup run failed", e);
+        } finally {
+            metricsService.timing("job.upload.session.cleanup.timer", System.currentTimeMillis() - startTime);
+        }
+    }
+
+    // Claims and removes sessions that expired before the cutoff, batch by batch. Returns the number removed
+    int purge(LocalDateTime cutoff) {
+        int total = 0;
+        while (true) {
+            List<UploadSession> expired = uploadSessionRepository.findByExpiresAtBeforeOrderByExpiresAt(cutoff, Limit.of(batchSize));
+            int claimed = transactionTemplate.execute(status -> claimAll(expired));
+            total += claimed;
+            metricsService.counter("job.upload.session.expired.count").add(claimed);
+            if (expired.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    // Deleting the row first means a completion racing this job can no longer commit the file; the tombstone commits
+    // with the claim, so the object is never orphaned by a failure in between
+    private int claimAll(List<UploadSession> sessions) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        List<DeletionTombstone> tombstones = new ArrayList<>();
+        for (UploadSession session : sessions) {
+            if (uploadSessionRepository.claim(session.getId()) == 1) {
+                tombstones.add(new DeletionTombstone(session.getFileName(), now));
+            }
+        }
+        deletionTombstoneRepository.saveAll(tombstones);
+        return tombstones.size();
+    }
+}
@@ -0,0 +1,43 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface UploadSessionService {
+
+    /**
+     * Reserves a file id and issues a pre-signed PUT URL the client uploads the file to directly.
+     * @param originalFilename Name of the file as given by the client.
+     * @param contentLength Exact size of the upload in bytes; it is signed into the URL.
+     * @return The reserved id, object key, URL and its expiry.
+     */
+    PresignedUpload createSession(String originalFilename, long contentLength);
+
+    /**
+     * Verifies that the object was uploaded and commits its metadata under the reserved id.
+     * Completing a session that was already completed returns the committed metadata again.
+     * @param id Reserved file id returned by {@link #createSession}.
+     * @return The outcome, with the committed metadata when the upload is complete.
+     */
+    Completion completeSession(UUID id);
+
+    record PresignedUpload(UUID id, String fileName, URL uploadUrl, LocalDateTime expiresAt) {
+    }
+
+    enum Outcome {
+        COMPLETED,
+        ALREADY_COMPLETED,
+        NOT_FOUND,
+        EXPIRED,
+        OBJECT_MISSING
+    }
+
+    record Completion(Outcome outcome, FileMetadata metadata) {
+        static Completion of(Outcome outcome) {
+            return new Completion(outcome, null);
+        }
+    }
+}
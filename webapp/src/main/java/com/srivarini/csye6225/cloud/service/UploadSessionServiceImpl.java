@@ -0,0 +1,171 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.config.ReadRouting;
+import com.srivarini.csye6225.cloud.config.RequestTimings;
+import com.srivarini.csye6225.cloud.config.S3Config;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import com.srivarini.csye6225.cloud.model.UploadSession;
+import com.srivarini.csye6225.cloud.model.UuidV7;
+import com.srivarini.csye6225.cloud.repository.FileMetadataRepository;
+import com.srivarini.csye6225.cloud.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Direct-to-S3 uploads: the client PUTs the bytes to a pre-signed URL, so they never pass through this instance.
+// Completion and expiry cleanup (UploadSessionCleanupJob) both claim a session by deleting its row, so an upload
+// is either committed as FileMetadata or has its object removed, never both.
+@Service
+public class UploadSessionServiceImpl implements UploadSessionService {
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionServiceImpl.class);
+
+    @Autowired
+    private S3Config s3Config;
+    @Autowired
+    private S3Client s3Client;
+    @Autowired
+    private S3Presigner s3Presigner;
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+    @Autowired
+    private FileMetadataCache fileMetadataCache;
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${upload.session.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    @Override
+    public PresignedUpload createSession(String originalFilename, long contentLength) {
+        // Becomes the file_metadata id on completion, so it is time-ordered like generated ones
+        UUID id = UuidV7.generate();
+        String fileName = id + "-" + originalFilename;
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        // Content-Length is part of the signature, so S3 rejects a PUT of any other size
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(s3Config.getBucketName())
+                .key(fileName)
+                .contentLength(contentLength)
+                .build();
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(putObjectRequest)
+                .build());
+
+        LocalDateTime expiresAt = LocalDateTime.now(ZoneOffset.UTC).plus(ttl);
+        RequestTimings timings = RequestTimings.current();
+        long dbStart = System.nanoTime();
+        try {
+            uploadSessionRepository.save(new UploadSession(id, fileName, contentLength, expiresAt));
+        } finally {
+            recordPhase(timings, RequestTimings.Phase.DB, "service.db.uploadsession.insert.timer", dbStart);
+        }
+        logger.info("Issued upload session {} for '{}' ({} bytes), expires at {}", id, originalFilename, contentLength, expiresAt);
+        return new PresignedUpload(id, fileName, presigned.url(), expiresAt);
+    }
+
+    @Override
+    public Completion completeSession(UUID id) {
+        RequestTimings timings = RequestTimings.current();
+        // Sessions are created moments before they are completed, often on another instance, so a replica may not
+        // have the row yet; completion is a write path anyway and reads from the primary
+        Optional<UploadSession> found = timings.time(RequestTimings.Phase.DB,
+                () -> ReadRouting.onPrimary(() -> uploadSessionRepository.findById(id)));
+        if (found.isEmpty()) {
+            return committedOr(id, Outcome.NOT_FOUND);
+        }
+        UploadSession session = found.get();
+        if (session.isExpired(LocalDateTime.now(ZoneOffset.UTC))) {
+            logger.warn("Upload session {} expired at {}", id, session.getExpiresAt());
+            return Completion.of(Outcome.EXPIRED);
+        }
+
+        // Verify the upload before touching the database, so no transaction is held open across the S3 call
+        Optional<HeadObjectResponse> head = headObject(timings, session.getFileName());
+        if (head.isEmpty() || !Objects.equals(head.get().contentLength(), session.getContentLength())) {
+            logger.warn("Upload session {}: object '{}' has not been uploaded", id, session.getFileName());
+            return Completion.of(Outcome.OBJECT_MISSING);
+        }
+
+        String fileUrl = "https://" + s3Config.getBucketName() + ".s3.amazonaws.com/" + session.getFileName();
+        FileMetadata metadata = new FileMetadata(id, session.getFileName(), fileUrl, LocalDateTime.now(ZoneOffset.UTC));
+        long dbStart = System.nanoTime();
+        boolean committed;
+        try {
+            committed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (uploadSessionRepository.claim(id) == 0) {
+                    return false;
+                }
+                fileMetadataRepository.save(metadata);
+                return true;
+            }));
+        } finally {
+            recordPhase(timings, RequestTimings.Phase.DB, "service.db.filemetadata.insert.timer", dbStart);
+        }
+        if (!committed) {
+            // A concurrent completion or the expiry cleanup claimed the session first
+            return committedOr(id, Outcome.EXPIRED);
+        }
+        fileMetadataCache.put(metadata);
+        readYourWrites.recordWrite(id);
+        logger.info("Upload session {} completed. S3 URL: {}", id, fileUrl);
+        return new Completion(Outcome.COMPLETED, metadata);
+    }
+
+    // Without a session row the upload either was committed already (a retried completion) or never existed.
+    // Reads the primary directly: the cache may still hold a negative entry from before the commit
+    private Completion committedOr(UUID id, Outcome otherwise) {
+        return RequestTimings.current().time(RequestTimings.Phase.DB, () -> ReadRouting.onPrimary(() -> fileMetadataRepository.findById(id)))
+                .map(metadata -> new Completion(Outcome.ALREADY_COMPLETED, metadata))
+                .orElseGet(() -> Completion.of(otherwise));
+    }
+
+    private Optional<HeadObjectResponse> headObject(RequestTimings timings, String key) {
+        long s3Start = System.nanoTime();
+        try {
+            HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
+                    .bucket(s3Config.getBucketName())
+                    .key(key)
+                    .build();
+            return Optional.of(s3Client.headObject(headObjectRequest));
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        } finally {
+            recordPhase(timings, RequestTimings.Phase.S3, "service.s3.head.timer", s3Start);
+        }
+    }
+
+    private void recordPhase(RequestTimings timings, RequestTimings.Phase phase, String timer, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        timings.record(phase, elapsed);
+        metricsService.timing(timer, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+}
@@ -0,0 +1,19 @@
+-- The schema Hibernate's ddl-auto=update created before versioned migrations: file_metadata and health_status as
+-- they were mapped then. IF NOT EXISTS keeps the tables of such a database untouched; SchemaMigrations then compares
+-- them with this script (BaselineSchema) and only records this version if their columns, keys and indexes match.
+-- Everything added since is in the later versions.
+
+CREATE TABLE IF NOT EXISTS file_metadata (
+    id BINARY(16) NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    file_url VARCHAR(255) NOT NULL,
+    upload_date DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_file_metadata_file_name (file_name)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS health_status (
+    check_id BIGINT NOT NULL AUTO_INCREMENT,
+    datetime DATETIME(6) NOT NULL,
+    PRIMARY KEY (check_id)
+) ENGINE=InnoDB;
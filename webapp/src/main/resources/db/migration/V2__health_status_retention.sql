@@ -0,0 +1,15 @@
+-- Per-minute aggregates of health_status rows past the retention horizon (HealthStatusRetentionJob), and the index
+-- its range scans and deletes use. health_status is range-partitioned at runtime by HealthStatusPartitionManager when
+-- that is enabled.
+
+CREATE TABLE IF NOT EXISTS health_status_rollup (
+    bucket_minute DATETIME(6) NOT NULL,
+    sample_count BIGINT NOT NULL,
+    first_seen DATETIME(6) NOT NULL,
+    last_seen DATETIME(6) NOT NULL,
+    max_gap_ms BIGINT NOT NULL,
+    gap_count BIGINT NOT NULL,
+    PRIMARY KEY (bucket_minute)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_health_status_datetime ON health_status (datetime);
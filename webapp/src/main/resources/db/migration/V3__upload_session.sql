@@ -0,0 +1,11 @@
+-- Pre-signed direct-to-S3 uploads: one row per issued URL until it is completed or cleaned up after expiry.
+
+CREATE TABLE IF NOT EXISTS upload_session (
+    id BINARY(16) NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    content_length BIGINT NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_upload_session_file_name (file_name),
+    KEY idx_upload_session_expires_at (expires_at)
+) ENGINE=InnoDB;
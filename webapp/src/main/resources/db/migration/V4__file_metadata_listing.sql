@@ -0,0 +1,3 @@
+-- Keyset pagination for GET /v1/file seeks on (upload_date, id).
+
+CREATE INDEX idx_file_metadata_upload_date_id ON file_metadata (upload_date, id);
@@ -0,0 +1,15 @@
+-- Objects waiting to be deleted from S3 by TombstoneDrainer; due rows are leased in (dead_lettered, next_attempt_at)
+-- order.
+
+CREATE TABLE IF NOT EXISTS deletion_tombstone (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    file_name VARCHAR(255) NOT NULL,
+    enqueued_at DATETIME(6) NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    attempts INTEGER NOT NULL,
+    lease_owner VARCHAR(36),
+    last_error VARCHAR(1024),
+    dead_lettered BIT NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_deletion_tombstone_due (dead_lettered, next_attempt_at)
+) ENGINE=InnoDB;
@@ -0,0 +1,15 @@
+-- Uploads are stored once per content hash: stored_object counts the rows sharing an object, and file_metadata
+-- records the hash and the object it points at. Rows from before this version have neither and keep their own
+-- object, named after file_name.
+
+CREATE TABLE IF NOT EXISTS stored_object (
+    content_hash VARCHAR(64) NOT NULL,
+    object_key VARCHAR(255) NOT NULL,
+    content_length BIGINT NOT NULL,
+    ref_count BIGINT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (content_hash),
+    UNIQUE KEY uk_stored_object_object_key (object_key)
+) ENGINE=InnoDB;
+
+ALTER TABLE file_metadata ADD COLUMN (content_hash VARCHAR(64), object_key VARCHAR(255));
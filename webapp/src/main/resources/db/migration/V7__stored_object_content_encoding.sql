@@ -0,0 +1,3 @@
+-- Content-Encoding of the stored object: gzip, or NULL for the bytes as uploaded.
+
+ALTER TABLE stored_object ADD COLUMN content_encoding VARCHAR(16);
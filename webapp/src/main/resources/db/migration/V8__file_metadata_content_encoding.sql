@@ -0,0 +1,3 @@
+-- Content-Encoding of the object a row points at, so reads need not look up stored_object.
+
+ALTER TABLE file_metadata ADD COLUMN content_encoding VARCHAR(16);
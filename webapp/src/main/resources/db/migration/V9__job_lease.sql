@@ -0,0 +1,8 @@
+-- Cross-instance leases for scheduled jobs (JobLease): one row per job while an instance holds it.
+
+CREATE TABLE IF NOT EXISTS job_lease (
+    name VARCHAR(64) NOT NULL,
+    holder VARCHAR(36) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE=InnoDB;
@@ -3,7 +3,9 @@ package com.srivarini.csye6225.cloud;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Production starts with ddl-auto=none; here Hibernate checks a freshly migrated schema against the entity mappings.
+// Tables a legacy ddl-auto=update database already had are checked by SchemaMigrations itself (SchemaMigrationsTest)
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
 class CloudApplicationTests {
 
 	@Test
@@ -0,0 +1,55 @@
+package com.srivarini.csye6225.cloud.config;
+
+import com.srivarini.csye6225.cloud.exception.BulkheadFullException;
+import com.srivarini.csye6225.cloud.service.MetricsService;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkheadDataSourceTest {
+
+    @Test
+    public void testRejectsWhenSaturatedAndRecoversOnClose() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        MetricsService metricsService = mock(MetricsService.class);
+        when(target.getConnection()).thenReturn(connection);
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, 10, metricsService);
+
+        Connection leased = bulkhead.getConnection();
+        assertEquals(0, bulkhead.availablePermits());
+
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, bulkhead::getConnection);
+        assertTrue(System.nanoTime() - start < 1_000_000_000L, "Rejection should not wait for the pool timeout");
+        verify(metricsService).increment("db.bulkhead.rejected.count");
+
+        leased.close();
+        leased.close();
+        assertEquals(1, bulkhead.availablePermits(), "Closing twice must release the permit only once");
+        verify(connection, times(1)).close();
+
+        bulkhead.getConnection().close();
+        assertEquals(1, bulkhead.availablePermits());
+    }
+
+    @Test
+    public void testReleasesPermitWhenPoolFails() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLException("pool timeout"));
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 2, 10, mock(MetricsService.class));
+
+        assertThrows(SQLException.class, bulkhead::getConnection);
+        assertEquals(2, bulkhead.availablePermits());
+    }
+}
@@ -0,0 +1,103 @@
+package com.srivarini.csye6225.cloud.config;
+
+import com.srivarini.csye6225.cloud.service.MetricsService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class DatabaseConfigTest {
+
+    private final MetricsService metricsService = mock(MetricsService.class, Answers.RETURNS_DEEP_STUBS);
+    private DatabaseConfig databaseConfig;
+    private HikariDataSource healthPool;
+
+    @BeforeEach
+    public void setUp() {
+        ConnectionPoolMetrics connectionPoolMetrics = new ConnectionPoolMetrics();
+        ReflectionTestUtils.setField(connectionPoolMetrics, "metricsService", metricsService);
+
+        databaseConfig = new DatabaseConfig();
+        ReflectionTestUtils.setField(databaseConfig, "dbUrl", "jdbc:h2:mem:database_config;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        ReflectionTestUtils.setField(databaseConfig, "dbUsername", "sa");
+        ReflectionTestUtils.setField(databaseConfig, "dbPassword", "");
+        ReflectionTestUtils.setField(databaseConfig, "dbDriverClassName", "org.h2.Driver");
+        ReflectionTestUtils.setField(databaseConfig, "connectionTimeout", 1000L);
+        ReflectionTestUtils.setField(databaseConfig, "minimumIdle", 1);
+        ReflectionTestUtils.setField(databaseConfig, "idleTimeout", 60_000L);
+        ReflectionTestUtils.setField(databaseConfig, "healthPoolSize", 1);
+        ReflectionTestUtils.setField(databaseConfig, "healthConnectionTimeout", 1000L);
+        ReflectionTestUtils.setField(databaseConfig, "readPoolSize", 2);
+        ReflectionTestUtils.setField(databaseConfig, "writePoolSize", 2);
+        ReflectionTestUtils.setField(databaseConfig, "replicaUrls", List.of());
+        ReflectionTestUtils.setField(databaseConfig, "metricsService", metricsService);
+        ReflectionTestUtils.setField(databaseConfig, "connectionPoolMetrics", connectionPoolMetrics);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        databaseConfig.closeFilePools();
+        if (healthPool != null) {
+            healthPool.close();
+        }
+    }
+
+    @Test
+    public void testReadOnlyTransactionsLeaseFromTheReadPool() {
+        DataSource dataSource = databaseConfig.dataSource();
+        HikariDataSource writePool = filePool(0);
+        HikariDataSource readPool = filePool(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            assertEquals(1, readPool.getHikariPoolMXBean().getActiveConnections());
+            assertEquals(0, writePool.getHikariPoolMXBean().getActiveConnections());
+        });
+
+        transactionTemplate.setReadOnly(false);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            assertEquals(0, readPool.getHikariPoolMXBean().getActiveConnections());
+            assertEquals(1, writePool.getHikariPoolMXBean().getActiveConnections());
+        });
+    }
+
+    @Test
+    public void testPoolsReportWaitTimesAndUtilization() {
+        ConnectionPoolMetrics connectionPoolMetrics = (ConnectionPoolMetrics) ReflectionTestUtils.getField(databaseConfig, "connectionPoolMetrics");
+        healthPool = (HikariDataSource) databaseConfig.healthDataSource();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(healthPool);
+
+        jdbcTemplate.execute((Connection connection) -> {
+            connectionPoolMetrics.sample();
+            return null;
+        });
+
+        verify(metricsService.timer("db.pool.health.wait.timer"), atLeastOnce()).recordNanos(anyLong());
+        verify(metricsService.gauge("db.pool.health.active")).set(1);
+        verify(metricsService.gauge("db.pool.health.utilization")).set(100);
+    }
+
+    @SuppressWarnings("unchecked")
+    private HikariDataSource filePool(int index) {
+        return ((List<HikariDataSource>) ReflectionTestUtils.getField(databaseConfig, "filePools")).get(index);
+    }
+}
@@ -0,0 +1,70 @@
+package com.srivarini.csye6225.cloud.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.status.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LogFile;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.logback.LogbackLoggingSystem;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileLoggingIncludeTest {
+
+    private final LogbackLoggingSystem loggingSystem = new LogbackLoggingSystem(getClass().getClassLoader());
+
+    // Leave the shared logger context console-only for whatever runs next in this JVM
+    @AfterEach
+    public void tearDown() {
+        initialize(new MockEnvironment());
+    }
+
+    @Test
+    public void testNoFileIsWrittenWithoutLoggingFileName() {
+        Path defaultFile = Path.of(System.getProperty("java.io.tmpdir"), "spring.log");
+        boolean existedBefore = Files.exists(defaultFile);
+
+        initialize(new MockEnvironment());
+        LoggerFactory.getLogger(FileLoggingIncludeTest.class).warn("console only");
+
+        assertNotNull(root().getAppender("ASYNC_CONSOLE"));
+        assertNull(root().getAppender("ASYNC_FILE"));
+        assertTrue(existedBefore || !Files.exists(defaultFile), "Nothing is written to " + defaultFile);
+    }
+
+    @Test
+    public void testStructuredFileIsAttachedWhenLoggingFileNameIsSet(@TempDir Path dir) {
+        Path logFile = dir.resolve("app.log");
+
+        initialize(new MockEnvironment().withProperty("logging.file.name", logFile.toString())
+                .withProperty("logging.structured.format.file", "ecs"));
+        LoggerFactory.getLogger(FileLoggingIncludeTest.class).warn("to the file");
+
+        assertNotNull(root().getAppender("ASYNC_CONSOLE"));
+        assertNotNull(root().getAppender("ASYNC_FILE"));
+        assertTrue(Files.exists(logFile));
+        assertFalse(((LoggerContext) LoggerFactory.getILoggerFactory()).getStatusManager().getCopyOfStatusList().stream()
+                .anyMatch(status -> status.getLevel() == Status.ERROR), "Configuration has no errors");
+    }
+
+    private void initialize(MockEnvironment environment) {
+        loggingSystem.cleanUp();
+        loggingSystem.beforeInitialize();
+        loggingSystem.initialize(new LoggingInitializationContext(environment), "classpath:logback-spring.xml", LogFile.get(environment));
+    }
+
+    private static Logger root() {
+        return ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(Logger.ROOT_LOGGER_NAME);
+    }
+}
@@ -0,0 +1,99 @@
+package com.srivarini.csye6225.cloud.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MeteredAsyncAppenderTest {
+
+    private static final int QUEUE_SIZE = 10;
+    private static final String METRIC_NAME = "test";
+
+    private final LoggerContext context = new LoggerContext();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch firstTaken = new CountDownLatch(1);
+    private MeteredAsyncAppender appender;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        appender.stop();
+    }
+
+    @Test
+    public void testDropPolicyDropsOnlyWhenTheQueueIsFull() throws InterruptedException {
+        start("drop");
+
+        // One event is held by the stalled worker, the next QUEUE_SIZE fill the queue, the rest are dropped
+        append(Level.INFO, 1);
+        assertTrue(firstTaken.await(5, TimeUnit.SECONDS));
+        append(Level.INFO, QUEUE_SIZE);
+        append(Level.ERROR, 3);
+
+        assertEquals(3, counts().dropped().sum());
+        assertEquals(1 + QUEUE_SIZE + 3, counts().appended().sum());
+    }
+
+    @Test
+    public void testDropBelowWarnKeepsReservedCapacityForWarnings() throws InterruptedException {
+        start("drop-below-warn");
+
+        append(Level.INFO, 1);
+        assertTrue(firstTaken.await(5, TimeUnit.SECONDS));
+        // A fifth of the queue is reserved: INFO is dropped once fewer than 2 slots remain, WARN still takes the last one
+        append(Level.INFO, QUEUE_SIZE);
+        append(Level.WARN, 1);
+
+        assertEquals(1, counts().dropped().sum());
+        assertEquals(0, appender.getRemainingCapacity());
+    }
+
+    private void start(String overflowPolicy) {
+        // Normally installed by the SLF4J binding; queued events snapshot the MDC through it
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        MeteredAsyncAppender.counts().remove(METRIC_NAME);
+
+        AppenderBase<ILoggingEvent> stalled = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                firstTaken.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        stalled.setContext(context);
+        stalled.start();
+
+        appender = new MeteredAsyncAppender();
+        appender.setContext(context);
+        appender.setMetricName(METRIC_NAME);
+        appender.setQueueSize(QUEUE_SIZE);
+        appender.setOverflowPolicy(overflowPolicy);
+        appender.addAppender(stalled);
+        appender.start();
+    }
+
+    private static MeteredAsyncAppender.Counts counts() {
+        return MeteredAsyncAppender.counts().get(METRIC_NAME);
+    }
+
+    private void append(Level level, int count) {
+        for (int i = 0; i < count; i++) {
+            appender.doAppend(new LoggingEvent(getClass().getName(), context.getLogger("test"), level, "event {}", null, new Object[]{i}));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.srivarini.csye6225.cloud.config;
+
+import com.srivarini.csye6225.cloud.service.MetricsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Routing against three in-memory databases standing in for a primary and two replicas. Each replica reports
+ * its lag from a one-row table instead of SHOW REPLICA STATUS.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT seconds_behind AS Seconds_Behind_Source FROM replica_status";
+
+    private final MetricsService metricsService = mock(MetricsService.class, Answers.RETURNS_DEEP_STUBS);
+    private final List<JdbcTemplate> databases = new ArrayList<>();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    public void setUp() {
+        DataSource primary = database("primary");
+        List<ReplicaRoutingDataSource.Replica> replicas = List.of(
+                new ReplicaRoutingDataSource.Replica("replica-1", database("replica-1")),
+                new ReplicaRoutingDataSource.Replica("replica-2", database("replica-2")));
+        routing = new ReplicaRoutingDataSource(primary, replicas, LAG_QUERY, "Seconds_Behind_Source", 5, metricsService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        routing.close();
+        databases.forEach(database -> database.execute("SHUTDOWN"));
+    }
+
+    @Test
+    public void testReadsRotateOverCaughtUpReplicas() {
+        assertEquals("primary", readFrom(), "Replicas serve nothing until they have passed a check");
+
+        routing.checkReplicas();
+
+        List<String> servedBy = List.of(readFrom(), readFrom(), readFrom(), readFrom());
+        assertEquals(servedBy.get(0), servedBy.get(2));
+        assertEquals(servedBy.get(1), servedBy.get(3));
+        assertEquals(List.of("replica-1", "replica-2"), servedBy.subList(0, 2).stream().sorted().toList());
+        verify(metricsService.counter("db.replica.read.count"), atLeastOnce()).increment();
+    }
+
+    @Test
+    public void testLaggingOrStoppedReplicasFallBackToThePrimary() {
+        setLag(1, "60");
+        setLag(2, "NULL");
+        routing.checkReplicas();
+
+        assertEquals("primary", readFrom());
+        assertEquals("primary", readFrom());
+        verify(metricsService.counter("db.replica.fallback.count"), atLeastOnce()).increment();
+        verify(metricsService.gauge("db.replica.replica-1.lag-seconds")).set(60);
+        verify(metricsService.gauge("db.replica.replica-2.available"), atLeastOnce()).set(0);
+
+        setLag(1, "2");
+        routing.checkReplicas();
+
+        assertEquals("replica-1", readFrom());
+        assertEquals("replica-1", readFrom());
+    }
+
+    @Test
+    public void testServerThatIsNotAReplicaCountsAsCaughtUp() {
+        databases.get(1).execute("DELETE FROM replica_status");
+        databases.get(2).execute("DROP TABLE replica_status");
+        routing.checkReplicas();
+
+        assertEquals("replica-1", readFrom());
+        assertEquals("replica-1", readFrom(), "A failed lag check keeps the replica out of rotation");
+    }
+
+    @Test
+    public void testPrimaryRequiredBypassesReplicas() {
+        routing.checkReplicas();
+
+        assertEquals("primary", ReadRouting.onPrimary(this::readFrom));
+        verify(metricsService.counter("db.replica.primary-required.count")).increment();
+    }
+
+    @Test
+    public void testPerCallCredentialsAreReportedAsUnsupported() {
+        assertThrows(SQLFeatureNotSupportedException.class, () -> routing.getConnection("sa", ""));
+    }
+
+    private String readFrom() {
+        return new JdbcTemplate(routing).queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private void setLag(int replica, String lag) {
+        databases.get(replica).execute("UPDATE replica_status SET seconds_behind = " + lag);
+    }
+
+    private DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:replica_routing_" + name.replace('-', '_') + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE whoami (name VARCHAR(32))");
+        jdbcTemplate.update("INSERT INTO whoami VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE replica_status (seconds_behind BIGINT)");
+        jdbcTemplate.execute("INSERT INTO replica_status VALUES (0)");
+        databases.add(jdbcTemplate);
+        return dataSource;
+    }
+}
@@ -0,0 +1,57 @@
+package com.srivarini.csye6225.cloud.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger sampled = context.getLogger("com.example.Sampled");
+    private final Logger other = context.getLogger("com.example.Other");
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+
+    @BeforeEach
+    public void setUp() {
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        filter.setContext(context);
+        filter.setLoggers("com.example.Sampled:1000000, com.example.Unused:2");
+        filter.start();
+        SamplingTurboFilter.takeSampledOut();
+    }
+
+    @Test
+    public void testSamplesInfoFromListedLoggersOnly() {
+        int passed = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (decide(sampled, Level.INFO) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+            assertEquals(FilterReply.NEUTRAL, decide(other, Level.INFO));
+        }
+
+        assertTrue(passed <= 1, "At a 1 in a million rate almost every event is sampled out, but " + passed + " passed");
+        assertEquals(1_000 - passed, SamplingTurboFilter.takeSampledOut());
+    }
+
+    @Test
+    public void testWarningsAndDisabledLevelsAreNeverSampled() {
+        assertEquals(FilterReply.NEUTRAL, decide(sampled, Level.WARN));
+        assertEquals(FilterReply.NEUTRAL, decide(sampled, Level.ERROR));
+        assertEquals(FilterReply.NEUTRAL, decide(sampled, Level.DEBUG));
+
+        sampled.setLevel(Level.WARN);
+        assertEquals(FilterReply.NEUTRAL, decide(sampled, Level.INFO), "INFO the logger would not write is left to the level check");
+        assertEquals(0, SamplingTurboFilter.takeSampledOut());
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "message {}", new Object[]{1}, null);
+    }
+}
@@ -0,0 +1,151 @@
+package com.srivarini.csye6225.cloud.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchemaMigrationsTest {
+
+    @TempDir
+    private Path scripts;
+
+    private JdbcTemplate jdbcTemplate;
+    private SchemaMigrations schemaMigrations;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:schema_migrations;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        schemaMigrations = new SchemaMigrations();
+        ReflectionTestUtils.setField(schemaMigrations, "dataSource", dataSource);
+        ReflectionTestUtils.setField(schemaMigrations, "enabled", true);
+        ReflectionTestUtils.setField(schemaMigrations, "location", scripts.toUri().toString());
+        ReflectionTestUtils.setField(schemaMigrations, "lockTimeoutMillis", 200L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    public void testAppliesPendingVersionsInOrderOnce() throws Exception {
+        script("V2__add_size.sql", "ALTER TABLE item ADD COLUMN size BIGINT;");
+        script("V1__create_item.sql", "CREATE TABLE item (id BIGINT PRIMARY KEY);");
+        schemaMigrations.afterPropertiesSet();
+
+        jdbcTemplate.update("INSERT INTO item (id, size) VALUES (1, 10)");
+        assertEquals(List.of(1, 2), versions());
+
+        // Already applied scripts are only checked, not run again
+        script("V3__index_size.sql", "CREATE INDEX idx_item_size ON item (size);");
+        schemaMigrations.afterPropertiesSet();
+
+        assertEquals(List.of(1, 2, 3), versions());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class));
+    }
+
+    @Test
+    public void testEditedOrMissingScriptStopsStartup() throws Exception {
+        Path script = script("V1__create_item.sql", "CREATE TABLE item (id BIGINT PRIMARY KEY);");
+        schemaMigrations.afterPropertiesSet();
+
+        script("V1__create_item.sql", "CREATE TABLE item (id BIGINT PRIMARY KEY, name VARCHAR(10));");
+        IllegalStateException edited = assertThrows(IllegalStateException.class, schemaMigrations::afterPropertiesSet);
+        assertTrue(edited.getMessage().contains("was changed after it was applied"));
+
+        Files.delete(script);
+        IllegalStateException missing = assertThrows(IllegalStateException.class, schemaMigrations::afterPropertiesSet);
+        assertTrue(missing.getMessage().contains("script is missing"));
+    }
+
+    @Test
+    public void testFailedScriptReleasesItsVersion() throws Exception {
+        script("V1__broken.sql", "CREATE TABLE item (id BIGINT PRIMARY KEY);\nCREATE TABLE broken (;");
+
+        assertThrows(IllegalStateException.class, schemaMigrations::afterPropertiesSet);
+        assertEquals(List.of(), versions());
+
+        script("V1__broken.sql", "CREATE TABLE IF NOT EXISTS item (id BIGINT PRIMARY KEY);");
+        schemaMigrations.afterPropertiesSet();
+        assertEquals(List.of(1), versions());
+    }
+
+    @Test
+    public void testWaitsForAVersionClaimedByAnotherInstance() throws Exception {
+        script("V1__create_item.sql", "CREATE TABLE item (id BIGINT PRIMARY KEY);");
+        schemaMigrations.afterPropertiesSet();
+        jdbcTemplate.update("UPDATE schema_history SET success = FALSE");
+
+        IllegalStateException timedOut = assertThrows(IllegalStateException.class, schemaMigrations::afterPropertiesSet);
+        assertTrue(timedOut.getMessage().contains("was not completed by another instance"));
+
+        ReflectionTestUtils.setField(schemaMigrations, "lockTimeoutMillis", 5000L);
+        Thread otherInstance = Thread.ofPlatform().start(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            jdbcTemplate.update("UPDATE schema_history SET success = TRUE");
+        });
+        schemaMigrations.afterPropertiesSet();
+        otherInstance.join();
+        assertEquals(List.of(1), versions());
+    }
+
+    @Test
+    public void testDeployedLegacySchemaIsMigratedInPlace() throws Exception {
+        // As ddl-auto=update left it before migrations, with Hibernate's own constraint name
+        jdbcTemplate.execute("CREATE TABLE file_metadata (id BINARY(16) NOT NULL PRIMARY KEY, file_name VARCHAR(255) NOT NULL, "
+                + "file_url VARCHAR(255) NOT NULL, upload_date DATETIME(6) NOT NULL, CONSTRAINT UK_hd4hf4ya0bs52cq7vvtfhsapn UNIQUE (file_name))");
+        jdbcTemplate.execute("CREATE TABLE health_status (check_id BIGINT AUTO_INCREMENT PRIMARY KEY, datetime DATETIME(6) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO file_metadata (id, file_name, file_url, upload_date) VALUES (X'00000000000000000000000000000001', "
+                + "'legacy.txt', 'https://bucket/legacy.txt', CURRENT_TIMESTAMP(6))");
+        ReflectionTestUtils.setField(schemaMigrations, "location", "classpath:db/migration");
+
+        schemaMigrations.afterPropertiesSet();
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9), versions());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM file_metadata WHERE file_name = 'legacy.txt' "
+                + "AND content_hash IS NULL AND object_key IS NULL AND content_encoding IS NULL", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stored_object", Integer.class));
+    }
+
+    @Test
+    public void testBaselineStopsStartupWhenLegacyTablesDiffer() {
+        jdbcTemplate.execute("CREATE TABLE file_metadata (id BINARY(16) NOT NULL PRIMARY KEY, file_name VARCHAR(255) NOT NULL, "
+                + "file_url VARCHAR(255), upload_date DATETIME(6) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE health_status (check_id BIGINT AUTO_INCREMENT PRIMARY KEY, created DATETIME(6) NOT NULL)");
+        ReflectionTestUtils.setField(schemaMigrations, "location", "classpath:db/migration");
+
+        IllegalStateException mismatch = assertThrows(IllegalStateException.class, schemaMigrations::afterPropertiesSet);
+
+        String differences = mismatch.getCause().getMessage();
+        assertTrue(differences.contains("file_metadata.file_url: expected VARCHAR NOT NULL, found VARCHAR NULL"), differences);
+        assertTrue(differences.contains("file_metadata: missing unique index on [file_name]"), differences);
+        assertTrue(differences.contains("health_status.datetime: column is missing"), differences);
+        assertEquals(List.of(), versions());
+    }
+
+    private List<Integer> versions() {
+        return jdbcTemplate.queryForList("SELECT version FROM schema_history WHERE success ORDER BY version", Integer.class);
+    }
+
+    private Path script(String name, String sql) throws IOException {
+        return Files.writeString(scripts.resolve(name), sql);
+    }
+}
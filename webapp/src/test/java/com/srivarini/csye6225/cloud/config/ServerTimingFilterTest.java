@@ -0,0 +1,80 @@
+package com.srivarini.csye6225.cloud.config;
+
+import com.srivarini.csye6225.cloud.service.SlowRequestLog;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ServerTimingFilterTest {
+
+    @Test
+    public void testServerTimingHeaderAddedBeforeBodyIsWritten() throws Exception {
+        ServerTimingFilter filter = filter(new SlowRequestLog(60_000, 8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        FilterChain chain = (req, res) -> {
+            RequestTimings.current().record(RequestTimings.Phase.S3, TimeUnit.MILLISECONDS.toNanos(12));
+            RequestTimings.current().record(RequestTimings.Phase.DB, TimeUnit.MILLISECONDS.toNanos(3));
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+        };
+        filter.doFilter(new MockHttpServletRequest("POST", "/v1/file"), response, chain);
+
+        String header = response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("s3;dur=12.0, db;dur=3.0, total;dur="), header);
+        assertEquals(1, response.getHeaders(ServerTimingFilter.SERVER_TIMING_HEADER).size());
+    }
+
+    @Test
+    public void testSlowRequestKeptWithPhaseBreakdown() throws Exception {
+        SlowRequestLog slowRequestLog = new SlowRequestLog(0, 8);
+        ServerTimingFilter filter = filter(slowRequestLog);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        FilterChain chain = (req, res) -> {
+            RequestTimings.current().record(RequestTimings.Phase.DB, TimeUnit.MILLISECONDS.toNanos(5));
+            ((jakarta.servlet.http.HttpServletResponse) res).setStatus(404);
+        };
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/file/abc"), response, chain);
+
+        assertNotNull(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+        List<SlowRequestLog.SlowRequest> slowRequests = slowRequestLog.snapshot();
+        assertEquals(1, slowRequests.size());
+        SlowRequestLog.SlowRequest slowRequest = slowRequests.get(0);
+        assertEquals("GET", slowRequest.method());
+        assertEquals("/v1/file/abc", slowRequest.uri());
+        assertEquals(404, slowRequest.status());
+        assertEquals(Map.of("db", 5.0), slowRequest.phaseMillis());
+    }
+
+    @Test
+    public void testRingBufferKeepsNewestEntries() {
+        SlowRequestLog slowRequestLog = new SlowRequestLog(0, 4);
+        for (int i = 0; i < 10; i++) {
+            slowRequestLog.record("GET", "/request/" + i, 200, i, Map.of());
+        }
+
+        List<SlowRequestLog.SlowRequest> slowRequests = slowRequestLog.snapshot();
+        assertEquals(4, slowRequests.size());
+        assertEquals("/request/9", slowRequests.get(0).uri());
+        assertEquals("/request/6", slowRequests.get(3).uri());
+    }
+
+    private ServerTimingFilter filter(SlowRequestLog slowRequestLog) {
+        ServerTimingFilter filter = new ServerTimingFilter();
+        ReflectionTestUtils.setField(filter, "slowRequestLog", slowRequestLog);
+        return filter;
+    }
+}
@@ -0,0 +1,269 @@
+package com.srivarini.csye6225.cloud.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.srivarini.csye6225.cloud.support.FaultInjectingDataSource;
+import com.srivarini.csye6225.cloud.support.LoadGenerator;
+import com.srivarini.csye6225.cloud.support.LocalS3Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test: boots the application against {@link LocalS3Server} and in-memory H2 (MySQL mode) behind a
+ * {@link FaultInjectingDataSource}, then drives a mixed upload/get/delete/healthz workload at a fixed arrival rate.
+ * Writes a JSON report and fails when error rate, p99 latency or throughput cross their thresholds, or regress
+ * against a baseline report. Excluded from the default build; run with {@code mvn test -Pload}, e.g.
+ * {@code mvn test -Pload -Dload.rate=100 -Dload.s3LatencyMs=40 -Dload.baseline=target/load-baseline.json}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "AWS_S3_BUCKET_NAME=load-bucket",
+        "AWS_REGION=us-east-1",
+        "aws.s3.path-style-access=true",
+        // Application logs still go through the file appender; only the console is silenced
+        "logging.file.name=target/load-test.log",
+        "logging.threshold.console=OFF"
+})
+public class FileApiLoadTest {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "50"));
+    private static final long DURATION_SECONDS = Long.getLong("load.durationSeconds", 30);
+    private static final long WARMUP_SECONDS = Long.getLong("load.warmupSeconds", 5);
+    private static final int MAX_OUTSTANDING = Integer.getInteger("load.maxOutstanding", 500);
+    private static final int UPLOAD_BYTES = Integer.getInteger("load.uploadBytes", 16 * 1024);
+    private static final long S3_LATENCY_MS = Long.getLong("load.s3LatencyMs", 20);
+    private static final double S3_ERROR_RATE = Double.parseDouble(System.getProperty("load.s3ErrorRate", "0"));
+    private static final long DB_LATENCY_MS = Long.getLong("load.dbLatencyMs", 2);
+    private static final double DB_ERROR_RATE = Double.parseDouble(System.getProperty("load.dbErrorRate", "0"));
+
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01"));
+    private static final double MAX_P99_MS = Double.parseDouble(System.getProperty("load.maxP99Ms", "1000"));
+    private static final double MIN_THROUGHPUT_RATIO = Double.parseDouble(System.getProperty("load.minThroughputRatio", "0.95"));
+    private static final String BASELINE = System.getProperty("load.baseline", "");
+    private static final double MAX_REGRESSION = Double.parseDouble(System.getProperty("load.maxRegressionPct", "25")) / 100;
+    private static final Path REPORT = Path.of(System.getProperty("load.report", "target/load-test-report.json"));
+
+    private static final String BOUNDARY = "load-test-boundary";
+    private static final LocalS3Server S3_SERVER = startS3Server();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final byte[] uploadBody = multipartBody(UPLOAD_BYTES);
+
+    // Ids that are only ever read, and ids set aside for deletes, so gets never race a delete
+    private final AtomicReferenceArray<UUID> readable = new AtomicReferenceArray<>(4096);
+    private final AtomicLong readableCount = new AtomicLong();
+    private final ConcurrentLinkedQueue<UUID> deletable = new ConcurrentLinkedQueue<>();
+    private final AtomicLong uploads = new AtomicLong();
+
+    @TestConfiguration
+    static class FaultInjectionConfig {
+        @Bean
+        static BeanPostProcessor faultInjectingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource target && !(bean instanceof FaultInjectingDataSource)
+                            ? new FaultInjectingDataSource(target) : bean;
+                }
+            };
+        }
+    }
+
+    @DynamicPropertySource
+    static void s3Properties(DynamicPropertyRegistry registry) {
+        registry.add("aws.s3.endpoint", () -> S3_SERVER.endpoint().toString());
+        registry.add("aws.s3.async.enabled", () -> System.getProperty("load.asyncS3", "false"));
+        registry.add("spring.threads.virtual.enabled", () -> System.getProperty("load.virtualThreads", "false"));
+    }
+
+    @AfterAll
+    static void stopS3Server() {
+        S3_SERVER.close();
+    }
+
+    @Test
+    public void mixedWorkloadMeetsThresholds() throws Exception {
+        FaultInjectingDataSource database = (FaultInjectingDataSource) dataSource;
+        S3_SERVER.setLatencyMillis(S3_LATENCY_MS);
+        S3_SERVER.setErrorRate(S3_ERROR_RATE);
+        database.setLatencyMillis(DB_LATENCY_MS);
+        database.setErrorRate(DB_ERROR_RATE);
+
+        List<LoadGenerator.Operation> mix = List.of(
+                new LoadGenerator.Operation("upload", 30, this::upload),
+                new LoadGenerator.Operation("get", 45, this::get),
+                new LoadGenerator.Operation("delete", 10, this::delete),
+                new LoadGenerator.Operation("healthz", 15, this::healthz));
+        LoadGenerator generator = new LoadGenerator(mix, RATE, MAX_OUTSTANDING);
+
+        generator.run(Duration.ofSeconds(WARMUP_SECONDS));
+        LoadGenerator.Report report = generator.run(Duration.ofSeconds(DURATION_SECONDS));
+
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        objectMapper.writeValue(REPORT.toFile(), Map.of(
+                "config", Map.of("rate", RATE, "durationSeconds", DURATION_SECONDS, "uploadBytes", UPLOAD_BYTES,
+                        "s3LatencyMs", S3_LATENCY_MS, "s3ErrorRate", S3_ERROR_RATE,
+                        "dbLatencyMs", DB_LATENCY_MS, "dbErrorRate", DB_ERROR_RATE,
+                        "asyncS3", Boolean.getBoolean("load.asyncS3"), "virtualThreads", Boolean.getBoolean("load.virtualThreads")),
+                "injected", Map.of("s3Errors", S3_SERVER.injectedErrorCount(), "dbErrors", database.injectedErrorCount()),
+                "report", report));
+        System.out.println(objectMapper.writeValueAsString(report));
+
+        List<String> failures = new ArrayList<>();
+        if (report.errorRate() > MAX_ERROR_RATE) {
+            failures.add("error rate " + report.errorRate() + " > " + MAX_ERROR_RATE);
+        }
+        if (report.p99Ms() > MAX_P99_MS) {
+            failures.add("p99 " + report.p99Ms() + " ms > " + MAX_P99_MS + " ms");
+        }
+        if (report.throughput() < RATE * MIN_THROUGHPUT_RATIO) {
+            failures.add("throughput " + report.throughput() + " req/s < " + RATE * MIN_THROUGHPUT_RATIO + " req/s");
+        }
+        if (!BASELINE.isEmpty()) {
+            compareWithBaseline(report, failures);
+        }
+        assertTrue(failures.isEmpty(), "Load test thresholds exceeded (report: " + REPORT + "): " + failures);
+    }
+
+    private void compareWithBaseline(LoadGenerator.Report report, List<String> failures) throws IOException {
+        JsonNode baseline = objectMapper.readTree(Path.of(BASELINE).toFile()).path("report");
+        double baselineP99 = baseline.path("p99Ms").asDouble();
+        double baselineThroughput = baseline.path("throughput").asDouble();
+        if (baselineP99 > 0 && report.p99Ms() > baselineP99 * (1 + MAX_REGRESSION)) {
+            failures.add("p99 regressed from " + baselineP99 + " ms to " + report.p99Ms() + " ms");
+        }
+        if (report.throughput() < baselineThroughput * (1 - MAX_REGRESSION)) {
+            failures.add("throughput regressed from " + baselineThroughput + " to " + report.throughput() + " req/s");
+        }
+        report.operations().forEach((name, operation) -> {
+            double previous = baseline.path("operations").path(name).path("p99Ms").asDouble();
+            if (previous > 0 && operation.p99Ms() > previous * (1 + MAX_REGRESSION)) {
+                failures.add(name + " p99 regressed from " + previous + " ms to " + operation.p99Ms() + " ms");
+            }
+        });
+    }
+
+    private CompletableFuture<Boolean> upload() {
+        HttpRequest request = HttpRequest.newBuilder(uri("/v1/file"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(uploadBody))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() != 201) {
+                return false;
+            }
+            UUID id = UUID.fromString(readId(response.body()));
+            // Every fourth upload is set aside for the delete stream, which runs at a third of the upload rate
+            if (uploads.incrementAndGet() % 4 == 0) {
+                deletable.add(id);
+            } else {
+                readable.set((int) (readableCount.getAndIncrement() % readable.length()), id);
+            }
+            return true;
+        });
+    }
+
+    private CompletableFuture<Boolean> get() {
+        long count = Math.min(readableCount.get(), readable.length());
+        UUID id = count == 0 ? null : readable.get(ThreadLocalRandom.current().nextInt((int) count));
+        int expected = id == null ? 404 : 200;
+        HttpRequest request = HttpRequest.newBuilder(uri("/v1/file/" + (id == null ? UUID.randomUUID() : id))).GET().build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> response.statusCode() == expected);
+    }
+
+    private CompletableFuture<Boolean> delete() {
+        UUID id = deletable.poll();
+        int expected = id == null ? 404 : 204;
+        HttpRequest request = HttpRequest.newBuilder(uri("/v1/file/" + (id == null ? UUID.randomUUID() : id))).DELETE().build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> response.statusCode() == expected);
+    }
+
+    private CompletableFuture<Boolean> healthz() {
+        HttpRequest request = HttpRequest.newBuilder(uri("/healthz")).GET().build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> response.statusCode() == 200);
+    }
+
+    private String readId(String body) {
+        try {
+            return objectMapper.readTree(body).path("id").asText();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected upload response: " + body, e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + port + path);
+    }
+
+    private static byte[] multipartBody(int size) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(size + 256);
+        body.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"load.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        byte[] payload = new byte[size];
+        ThreadLocalRandom.current().nextBytes(payload);
+        body.writeBytes(payload);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return body.toByteArray();
+    }
+
+    private static LocalS3Server startS3Server() {
+        // DefaultCredentialsProvider picks these up; the stand-in does not check signatures
+        System.setProperty("aws.accessKeyId", "test");
+        System.setProperty("aws.secretAccessKey", "test");
+        try {
+            return new LocalS3Server(0, true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start local S3 server", e);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.srivarini.csye6225.cloud.controller;
+
+import com.srivarini.csye6225.cloud.support.LocalS3Server;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.GZIPInputStream;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:file_controller;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "AWS_S3_BUCKET_NAME=file-bucket",
+        "AWS_REGION=us-east-1",
+        "aws.s3.path-style-access=true",
+        "file.bulk-delete.max-ids=3",
+        "tombstone.drain.poll-interval-ms=100",
+        "storage.compression.enabled=true",
+        "content.cache.dir=target/content-cache/file-controller"
+})
+public class FileControllerTest {
+
+    private static final String BUCKET = "file-bucket";
+    private static final LocalS3Server S3_SERVER = startS3Server();
+    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+    // "METHOD uri" of every async dispatch the servlet container performed
+    private static final ConcurrentLinkedQueue<String> ASYNC_DISPATCHES = new ConcurrentLinkedQueue<>();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void s3Properties(DynamicPropertyRegistry registry) {
+        registry.add("aws.s3.endpoint", () -> S3_SERVER.endpoint().toString());
+    }
+
+    @AfterAll
+    static void stopS3Server() {
+        S3_SERVER.close();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        RestAssured.port = port;
+        RestAssured.basePath = "/v1/file";
+    }
+
+    @Test
+    public void testBulkDeleteReportsOutcomePerId() throws InterruptedException {
+        Response first = upload("first.txt");
+        Response second = upload("second.txt");
+        String missing = UUID.randomUUID().toString();
+
+        Response response = given().contentType(ContentType.JSON)
+                .body(Map.of("ids", List.of(first.path("id"), missing, second.path("id"))))
+                .post("/bulk-delete");
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(List.of(first.path("id"), missing, second.path("id")), response.path("results.id"));
+        assertEquals(List.of("deleted", "not_found", "deleted"), response.path("results.status"));
+        given().get("/" + first.<String>path("id")).then().statusCode(404);
+        given().get("/" + second.<String>path("id")).then().statusCode(404);
+        // Objects of content-addressed uploads are released through the tombstone queue
+        awaitObjectDeleted(first.path("file_name"));
+        awaitObjectDeleted(second.path("file_name"));
+    }
+
+    @Test
+    public void testDeleteRemovesRowImmediatelyAndObjectInBackground() throws InterruptedException {
+        Response uploaded = upload("tombstoned.txt");
+
+        given().delete("/" + uploaded.<String>path("id")).then().statusCode(204);
+        given().get("/" + uploaded.<String>path("id")).then().statusCode(404);
+        given().delete("/" + uploaded.<String>path("id")).then().statusCode(404);
+
+        awaitObjectDeleted(uploaded.path("file_name"));
+    }
+
+    @Test
+    public void testIdenticalUploadsShareOneObject() throws InterruptedException {
+        byte[] content = "same bytes, different names".getBytes();
+        Response first = given().multiPart("file", "original.txt", content).post();
+        Response copy = given().multiPart("file", "copy.txt", content).post();
+
+        assertEquals(201, copy.getStatusCode());
+        assertEquals(first.<String>path("url"), copy.path("url"));
+        assertTrue(S3_SERVER.containsObject(BUCKET, first.path("file_name")));
+        assertFalse(S3_SERVER.containsObject(BUCKET, copy.path("file_name")), "Second upload must not store the content again");
+
+        given().delete("/" + first.<String>path("id")).then().statusCode(204);
+        given().get("/" + copy.<String>path("id")).then().statusCode(200);
+        // Give the drainer a few polls; the object is still referenced by the copy
+        Thread.sleep(500);
+        assertTrue(S3_SERVER.containsObject(BUCKET, first.path("file_name")));
+
+        given().delete("/" + copy.<String>path("id")).then().statusCode(204);
+        awaitObjectDeleted(first.path("file_name"));
+    }
+
+    @Test
+    public void testBulkDeleteReleasesSharedContentOnceNoRowReferencesIt() throws InterruptedException {
+        byte[] content = "shared by three rows".getBytes();
+        Response first = given().multiPart("file", "first.txt", content).post();
+        Response second = given().multiPart("file", "second.txt", content).post();
+        Response third = given().multiPart("file", "third.txt", content).post();
+
+        given().contentType(ContentType.JSON).body(Map.of("ids", List.of(first.path("id"), second.path("id"))))
+                .post("/bulk-delete").then().statusCode(200);
+        given().get("/" + third.<String>path("id")).then().statusCode(200);
+        Thread.sleep(500);
+        assertTrue(S3_SERVER.containsObject(BUCKET, first.path("file_name")), "The third row still references the object");
+
+        Response last = given().contentType(ContentType.JSON).body(Map.of("ids", List.of(third.path("id"), first.path("id"))))
+                .post("/bulk-delete");
+        assertEquals(List.of("deleted", "not_found"), last.path("results.status"));
+        awaitObjectDeleted(first.path("file_name"));
+    }
+
+    @Test
+    public void testContentSupportsRangesAndConditionalRequests() throws Exception {
+        byte[] content = new byte[200_000];
+        new Random(7).nextBytes(content);
+        Response uploaded = given().multiPart("file", "video.bin", content, "application/octet-stream").post();
+        String path = "/" + uploaded.<String>path("id") + "/content";
+
+        // A range on a cold object is passed through to S3
+        HttpResponse<byte[]> ranged = getContent(path, "Range", "bytes=100-199");
+        assertEquals(206, ranged.statusCode());
+        assertEquals("bytes 100-199/200000", ranged.headers().firstValue("Content-Range").orElseThrow());
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), ranged.body());
+
+        // The first full read fills the disk cache; later reads are served from it
+        for (int i = 0; i < 2; i++) {
+            HttpResponse<byte[]> full = getContent(path);
+            assertEquals(200, full.statusCode());
+            assertEquals("bytes", full.headers().firstValue("Accept-Ranges").orElseThrow());
+            assertArrayEquals(content, full.body());
+        }
+        HttpResponse<byte[]> suffix = getContent(path, "Range", "bytes=-50");
+        assertEquals(206, suffix.statusCode());
+        assertEquals("bytes 199950-199999/200000", suffix.headers().firstValue("Content-Range").orElseThrow());
+        assertArrayEquals(Arrays.copyOfRange(content, 199_950, 200_000), suffix.body());
+
+        HttpResponse<byte[]> validated = getContent(path);
+        assertEquals(304, getContent(path, "If-None-Match", validated.headers().firstValue("ETag").orElseThrow()).statusCode());
+        assertEquals(304, getContent(path, "If-Modified-Since", validated.headers().firstValue("Last-Modified").orElseThrow()).statusCode());
+        HttpResponse<byte[]> unsatisfiable = getContent(path, "Range", "bytes=200000-");
+        assertEquals(416, unsatisfiable.statusCode());
+        assertEquals("bytes */200000", unsatisfiable.headers().firstValue("Content-Range").orElseThrow());
+        // A stale If-Range gets the whole current body instead of a slice
+        assertEquals(200, getContent(path, "Range", "bytes=0-9", "If-Range", "\"stale\"").statusCode());
+
+        assertEquals(404, getContent("/" + UUID.randomUUID() + "/content").statusCode());
+    }
+
+    @Test
+    public void testCompressedContentIsSentEncodedOrDecoded() throws Exception {
+        byte[] content = "id,status,latency_ms\n1,healthy,12\n".repeat(1000).getBytes();
+        Response uploaded = given().multiPart("file", "report.csv", content, "text/csv").post();
+        String path = "/" + uploaded.<String>path("id") + "/content";
+
+        HttpResponse<byte[]> encoded = getContent(path, "Accept-Encoding", "gzip");
+        assertEquals(200, encoded.statusCode());
+        assertEquals("gzip", encoded.headers().firstValue("Content-Encoding").orElseThrow());
+        assertTrue(encoded.body().length < content.length / 10);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded.body()))) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+
+        HttpResponse<byte[]> decoded = getContent(path);
+        assertEquals(200, decoded.statusCode());
+        assertTrue(decoded.headers().firstValue("Content-Encoding").isEmpty());
+        assertArrayEquals(content, decoded.body());
+        assertFalse(decoded.headers().firstValue("ETag").equals(encoded.headers().firstValue("ETag")));
+    }
+
+    @Test
+    public void testListingPagesThroughAllFilesInUploadOrder() {
+        List<String> uploaded = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            uploaded.add(upload("listed-" + i + ".txt").path("id"));
+        }
+
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Response page = cursor == null
+                    ? given().queryParam("limit", 2).get()
+                    : given().queryParam("limit", 2).queryParam("cursor", cursor).get();
+            assertEquals(200, page.getStatusCode());
+            List<String> ids = page.path("files.id");
+            assertTrue(ids.size() <= 2);
+            listed.addAll(ids);
+            cursor = page.path("next_cursor");
+            pages++;
+        } while (cursor != null && pages < 100);
+
+        assertEquals(listed.size(), Set.copyOf(listed).size(), "Pages must not overlap");
+        List<String> uploadedInListing = listed.stream().filter(uploaded::contains).toList();
+        assertEquals(uploaded, uploadedInListing);
+    }
+
+    @Test
+    public void testInvalidListingRequestsAreRejected() {
+        given().queryParam("limit", 0).get().then().statusCode(400);
+        given().queryParam("limit", 1001).get().then().statusCode(400);
+        given().queryParam("cursor", "not-a-cursor").get().then().statusCode(400);
+        given().queryParam("offset", 10).get().then().statusCode(400);
+    }
+
+    @Test
+    public void testInvalidBulkDeleteRequestsAreRejected() {
+        given().contentType(ContentType.JSON).body(Map.of("ids", List.of())).post("/bulk-delete").then().statusCode(400);
+        given().contentType(ContentType.JSON).body(Map.of("ids", List.of("not-a-uuid"))).post("/bulk-delete").then().statusCode(400);
+        given().contentType(ContentType.JSON).body(Map.of("ids", Collections.nCopies(4, UUID.randomUUID().toString())))
+                .post("/bulk-delete").then().statusCode(400);
+        given().contentType(ContentType.JSON).body(Map.of("ids", List.of(UUID.randomUUID().toString()), "force", true))
+                .post("/bulk-delete").then().statusCode(400);
+    }
+
+    @Test
+    public void testHeadOnContentNeverFetchesTheBody() throws Exception {
+        byte[] content = new byte[5_000];
+        new Random(11).nextBytes(content);
+        Response uploaded = given().multiPart("file", "probe.bin", content, "application/octet-stream").post();
+        String path = "/" + uploaded.<String>path("id") + "/content";
+        long gets = S3_SERVER.requestCount("GET");
+        long heads = S3_SERVER.requestCount("HEAD");
+
+        // Cold: answered from a HeadObject
+        HttpResponse<byte[]> cold = headContent(path);
+        assertEquals(200, cold.statusCode());
+        assertEquals("5000", cold.headers().firstValue("Content-Length").orElseThrow());
+        HttpResponse<byte[]> ranged = headContent(path, "Range", "bytes=10-19");
+        assertEquals(206, ranged.statusCode());
+        assertEquals("bytes 10-19/5000", ranged.headers().firstValue("Content-Range").orElseThrow());
+        assertEquals(gets, S3_SERVER.requestCount("GET"));
+        assertEquals(heads + 2, S3_SERVER.requestCount("HEAD"));
+
+        // Cached: answered from the disk cache without S3
+        assertEquals(200, getContent(path).statusCode());
+        assertEquals("5000", headContent(path).headers().firstValue("Content-Length").orElseThrow());
+        assertEquals(heads + 2, S3_SERVER.requestCount("HEAD"));
+        assertEquals(gets + 1, S3_SERVER.requestCount("GET"));
+    }
+
+    @Test
+    public void testBlockingModeAnswersWithoutAsyncDispatch() {
+        Response uploaded = upload("blocking.txt");
+        String path = "/v1/file/" + uploaded.<String>path("id");
+
+        given().get("/" + uploaded.<String>path("id")).then().statusCode(200);
+        given().get("/" + uploaded.<String>path("id") + "?extra=1").then().statusCode(400);
+        given().delete("/" + uploaded.<String>path("id")).then().statusCode(204);
+
+        assertFalse(ASYNC_DISPATCHES.stream().anyMatch(dispatch -> dispatch.equals("POST /v1/file")), ASYNC_DISPATCHES.toString());
+        assertFalse(ASYNC_DISPATCHES.stream().anyMatch(dispatch -> dispatch.endsWith(" " + path)), ASYNC_DISPATCHES.toString());
+    }
+
+    private HttpResponse<byte[]> headContent(String path, String... headers) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/file" + path))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody());
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return HTTP_CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    // java.net.http neither adds Accept-Encoding nor decodes bodies, so headers are exactly what the test sends
+    private HttpResponse<byte[]> getContent(String path, String... headers) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/file" + path));
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return HTTP_CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private void awaitObjectDeleted(String key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (S3_SERVER.containsObject(BUCKET, key) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(S3_SERVER.containsObject(BUCKET, key), "Tombstone drainer deletes the object");
+    }
+
+    private Response upload(String fileName) {
+        Response response = given().multiPart("file", fileName, fileName.getBytes()).post();
+        assertEquals(201, response.getStatusCode());
+        assertTrue(S3_SERVER.containsObject(BUCKET, response.path("file_name")));
+        return response;
+    }
+
+    private static LocalS3Server startS3Server() {
+        // DefaultCredentialsProvider picks these up; the stand-in does not check signatures
+        System.setProperty("aws.accessKeyId", "test");
+        System.setProperty("aws.secretAccessKey", "test");
+        try {
+            return new LocalS3Server(0, true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start local S3 server", e);
+        }
+    }
+
+    @TestConfiguration
+    static class AsyncDispatchRecorder {
+        @Bean
+        FilterRegistrationBean<Filter> asyncDispatchRecordingFilter() {
+            FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) -> {
+                HttpServletRequest httpRequest = (HttpServletRequest) request;
+                ASYNC_DISPATCHES.add(httpRequest.getMethod() + " " + httpRequest.getRequestURI());
+                chain.doFilter(request, response);
+            });
+            registration.setDispatcherTypes(DispatcherType.ASYNC);
+            return registration;
+        }
+    }
+}
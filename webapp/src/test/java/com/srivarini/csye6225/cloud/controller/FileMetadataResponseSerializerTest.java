@@ -0,0 +1,63 @@
+package com.srivarini.csye6225.cloud.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FileMetadataResponseSerializerTest {
+
+    @Test
+    public void testUuidMatchesToString() {
+        Random random = new Random(42);
+        char[] buffer = new char[36];
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            int length = FileMetadataResponseSerializer.formatUuid(id, buffer);
+            assertEquals(id.toString(), new String(buffer, 0, length));
+        }
+    }
+
+    @Test
+    public void testDateTimeMatchesToString() {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 7, 9, 5);
+        LocalDateTime[] dates = {
+                base,
+                base.withSecond(4),
+                base.withNano(120_000_000),
+                base.withNano(123_456_000),
+                base.withNano(123_456_789),
+                base.withNano(1),
+                LocalDateTime.of(7, 1, 1, 0, 0, 0, 1_000),
+                LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_999)
+        };
+        char[] buffer = new char[36];
+        for (LocalDateTime date : dates) {
+            int length = FileMetadataResponseSerializer.formatDateTime(date, buffer);
+            assertEquals(date.toString(), new String(buffer, 0, length));
+        }
+    }
+
+    @Test
+    public void testWritesSameJsonAsTheMapBodyItReplaces() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modules(new SimpleModule().addSerializer(FileMetadataResponse.class, new FileMetadataResponseSerializer()))
+                .build();
+        UUID id = UUID.randomUUID();
+        LocalDateTime uploadDate = LocalDateTime.of(2025, 3, 7, 9, 5, 0, 430_000_000);
+
+        String json = objectMapper.writeValueAsString(new FileMetadataResponse("a \"quoted\" name.txt", id,
+                "https://bucket.s3.amazonaws.com/a.txt", uploadDate));
+
+        assertEquals("{\"file_name\":\"a \\\"quoted\\\" name.txt\",\"id\":\"" + id
+                + "\",\"url\":\"https://bucket.s3.amazonaws.com/a.txt\",\"upload_date\":\"" + uploadDate + "\"}", json);
+        assertEquals("{\"file_name\":null,\"id\":null,\"url\":null,\"upload_date\":null}",
+                objectMapper.writeValueAsString(new FileMetadataResponse(null, null, null, null)));
+    }
+}
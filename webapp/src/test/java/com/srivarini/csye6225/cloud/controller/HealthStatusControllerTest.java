@@ -47,6 +47,7 @@ public class HealthStatusControllerTest {
                 response.getHeader("Cache-Control"));
         assertEquals("no-cache", response.getHeader("Pragma"));
         assertEquals("nosniff", response.getHeader("X-Content-Type-Options"));
+        assertTrue(response.getHeader("Server-Timing").startsWith("total;dur="));
         assertTrue(response.getBody().asString().isEmpty());
 
         int statusCode = response.getStatusCode();
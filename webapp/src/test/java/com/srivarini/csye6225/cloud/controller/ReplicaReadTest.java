@@ -0,0 +1,167 @@
+package com.srivarini.csye6225.cloud.controller;
+
+import com.srivarini.csye6225.cloud.service.FileMetadataCache;
+import com.srivarini.csye6225.cloud.support.LocalS3Server;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Read routing against two local database instances: the application's primary, and a second database
+ * configured as its only replica. Nothing replicates between them, so a row exists on exactly the databases the
+ * test put it on. The replica reports no lag through a constant lag query.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=" + ReplicaReadTest.PRIMARY_URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "AWS_S3_BUCKET_NAME=replica-bucket",
+        "AWS_REGION=us-east-1",
+        "aws.s3.path-style-access=true",
+        "db.replica.urls=" + ReplicaReadTest.REPLICA_URL,
+        "db.replica.lag-query=SELECT 0 AS Seconds_Behind_Source",
+        "db.replica.check-interval-ms=100",
+        // Every lookup reaches the replica first, as it would for a file uploaded through another instance
+        "db.replica.sticky-ms=0",
+        "content.cache.dir=target/content-cache/replica-read"
+})
+public class ReplicaReadTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:replica_read_primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica_read_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static final LocalS3Server S3_SERVER = startS3Server();
+    private static final JdbcTemplate PRIMARY = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private FileMetadataCache fileMetadataCache;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void s3Properties(DynamicPropertyRegistry registry) {
+        registry.add("aws.s3.endpoint", () -> S3_SERVER.endpoint().toString());
+    }
+
+    @AfterAll
+    static void stopS3Server() {
+        S3_SERVER.close();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        RestAssured.port = port;
+        RestAssured.basePath = "/v1/file";
+        // The replica gets the schema Hibernate created on the primary
+        if (REPLICA.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'FILE_METADATA'", Integer.class) == 0) {
+            PRIMARY.queryForList("SCRIPT NODATA TABLE file_metadata", String.class).stream()
+                    .filter(statement -> !statement.startsWith("--") && !statement.startsWith("CREATE USER"))
+                    .forEach(REPLICA::execute);
+            REPLICA.execute("CREATE TABLE replica_probe (id INT)");
+        }
+        awaitReplicaInRotation();
+    }
+
+    @Test
+    public void testMetadataIsReadFromTheReplica() {
+        Response uploaded = upload("replicated.txt");
+        String id = uploaded.path("id");
+        copyToReplica(uploaded.path("file_name"));
+        PRIMARY.update("DELETE FROM file_metadata WHERE file_name = ?", uploaded.<String>path("file_name"));
+
+        fileMetadataCache.invalidate(UUID.fromString(id));
+
+        // Only the replica still has the row
+        given().get("/" + id).then().statusCode(200);
+    }
+
+    @Test
+    public void testGetRightAfterUploadFindsTheFileBeforeItReplicates() {
+        String id = upload("not-replicated-yet.txt").path("id");
+        // As seen by an instance that did not handle the upload
+        fileMetadataCache.invalidate(UUID.fromString(id));
+
+        given().get("/" + id).then().statusCode(200);
+        given().get("/" + UUID.randomUUID()).then().statusCode(404);
+    }
+
+    // Read-only transactions stay on the primary until the replica passes its first health check; the probe
+    // table only exists on the replica
+    private void awaitReplicaInRotation() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            try {
+                readOnly.executeWithoutResult(status -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM replica_probe", Integer.class));
+                return;
+            } catch (DataAccessException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Response upload(String fileName) {
+        Response response = given().multiPart("file", fileName, fileName.getBytes()).post();
+        assertEquals(201, response.getStatusCode());
+        return response;
+    }
+
+    private void copyToReplica(String fileName) {
+        Map<String, Object> row = PRIMARY.queryForMap("SELECT * FROM file_metadata WHERE file_name = ?", fileName);
+        String columns = String.join(", ", row.keySet());
+        String placeholders = row.keySet().stream().map(column -> "?").collect(Collectors.joining(", "));
+        REPLICA.update("INSERT INTO file_metadata (" + columns + ") VALUES (" + placeholders + ")", row.values().toArray());
+    }
+
+    private static LocalS3Server startS3Server() {
+        // DefaultCredentialsProvider picks these up; the stand-in does not check signatures
+        System.setProperty("aws.accessKeyId", "test");
+        System.setProperty("aws.secretAccessKey", "test");
+        try {
+            return new LocalS3Server(0, true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start local S3 server", e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.srivarini.csye6225.cloud.controller;
+
+import com.srivarini.csye6225.cloud.service.UploadSessionCleanupJob;
+import com.srivarini.csye6225.cloud.support.LocalS3Server;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:upload_session;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "AWS_S3_BUCKET_NAME=upload-bucket",
+        "AWS_REGION=us-east-1",
+        "aws.s3.path-style-access=true",
+        "upload.session.cleanup.interval-ms=3600000",
+        "upload.session.cleanup.grace-seconds=0"
+})
+public class UploadSessionControllerTest {
+
+    private static final String BUCKET = "upload-bucket";
+    private static final LocalS3Server S3_SERVER = startS3Server();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UploadSessionCleanupJob cleanupJob;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @DynamicPropertySource
+    static void s3Properties(DynamicPropertyRegistry registry) {
+        registry.add("aws.s3.endpoint", () -> S3_SERVER.endpoint().toString());
+    }
+
+    @AfterAll
+    static void stopS3Server() {
+        S3_SERVER.close();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        RestAssured.port = port;
+        RestAssured.basePath = "/v1/file";
+    }
+
+    @Test
+    public void testDirectUploadIsCommittedOnCompletion() throws Exception {
+        byte[] content = "direct upload".getBytes();
+        Response session = createSession("direct.txt", content.length);
+        assertEquals(201, session.getStatusCode());
+        String id = session.path("id");
+        assertEquals("PUT", session.path("method"));
+
+        // Completing before the object is in S3 leaves the session open
+        given().post("/uploads/" + id + "/complete").then().statusCode(409);
+
+        assertEquals(200, put(session.path("upload_url"), content));
+        assertTrue(S3_SERVER.containsObject(BUCKET, session.path("file_name")));
+
+        Response completed = given().post("/uploads/" + id + "/complete");
+        assertEquals(201, completed.getStatusCode());
+        assertEquals(id, completed.path("id"));
+        assertEquals(session.<String>path("file_name"), completed.path("file_name"));
+
+        // A retried completion returns the committed file
+        given().post("/uploads/" + id + "/complete").then().statusCode(200);
+        given().get("/" + id).then().statusCode(200);
+        assertEquals(0, sessionCount(id));
+    }
+
+    @Test
+    public void testExpiredSessionIsCleanedUpWithItsObject() throws Exception {
+        byte[] content = "abandoned".getBytes();
+        Response session = createSession("abandoned.txt", content.length);
+        String id = session.path("id");
+        String fileName = session.path("file_name");
+        assertEquals(200, put(session.path("upload_url"), content));
+        jdbcTemplate.update("UPDATE upload_session SET expires_at = ? WHERE id = ?",
+                LocalDateTime.now(ZoneOffset.UTC).minusMinutes(1), UUID.fromString(id));
+
+        given().post("/uploads/" + id + "/complete").then().statusCode(410);
+
+        cleanupJob.run();
+
+        assertEquals(0, sessionCount(id));
+        // The object is left to the tombstone drainer
+        awaitObjectDeleted(fileName);
+        given().post("/uploads/" + id + "/complete").then().statusCode(404);
+        given().get("/" + id).then().statusCode(404);
+    }
+
+    @Test
+    public void testInvalidSessionRequestsAreRejected() {
+        given().contentType(ContentType.JSON).body(Map.of("file_name", "a.txt")).post("/uploads").then().statusCode(400);
+        given().contentType(ContentType.JSON).body(Map.of("file_name", " ", "content_length", 10)).post("/uploads").then().statusCode(400);
+        given().contentType(ContentType.JSON).body(Map.of("file_name", "a.txt", "content_length", 0)).post("/uploads").then().statusCode(400);
+        given().contentType(ContentType.JSON).body(Map.of("file_name", "a.txt", "content_length", 10, "bucket", "other"))
+                .post("/uploads").then().statusCode(400);
+        given().post("/uploads/" + UUID.randomUUID() + "/complete").then().statusCode(404);
+    }
+
+    private Response createSession(String fileName, long contentLength) {
+        return given().contentType(ContentType.JSON)
+                .body(Map.of("file_name", fileName, "content_length", contentLength))
+                .post("/uploads");
+    }
+
+    private int put(String url, byte[] content) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).PUT(HttpRequest.BodyPublishers.ofByteArray(content)).build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void awaitObjectDeleted(String key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (S3_SERVER.containsObject(BUCKET, key) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(S3_SERVER.containsObject(BUCKET, key), "Tombstone drainer deletes the object");
+    }
+
+    private int sessionCount(String id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM upload_session WHERE id = ?", Integer.class, UUID.fromString(id));
+    }
+
+    private static LocalS3Server startS3Server() {
+        // DefaultCredentialsProvider picks these up; the stand-in does not check signatures
+        System.setProperty("aws.accessKeyId", "test");
+        System.setProperty("aws.secretAccessKey", "test");
+        try {
+            return new LocalS3Server(0, true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start local S3 server", e);
+        }
+    }
+}
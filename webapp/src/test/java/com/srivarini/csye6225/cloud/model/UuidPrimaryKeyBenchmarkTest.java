@@ -0,0 +1,124 @@
+package com.srivarini.csye6225.cloud.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares bulk inserts into a file_metadata-shaped table keyed by random (v4) and time-ordered (v7)
+ * BINARY(16) ids: overall and tail insert rate, plus the size of the primary key once loaded.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}. The default is an in-memory H2
+ * smoke run. Index-size numbers need InnoDB, e.g.
+ * {@code -Dbenchmark.jdbcUrl=jdbc:mysql://localhost:3306/bench -Dbenchmark.jdbcUser=... -Dbenchmark.rows=10000000}.
+ */
+@Tag("benchmark")
+public class UuidPrimaryKeyBenchmarkTest {
+
+    private static final String JDBC_URL = System.getProperty("benchmark.jdbcUrl", "jdbc:h2:mem:uuid_bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    private static final String JDBC_USER = System.getProperty("benchmark.jdbcUser", "sa");
+    private static final String JDBC_PASSWORD = System.getProperty("benchmark.jdbcPassword", "");
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+    private static final int BATCH_SIZE = Integer.getInteger("benchmark.batchSize", 1000);
+
+    @Test
+    public void compareRandomAndTimeOrderedPrimaryKeys() throws Exception {
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD)) {
+            Result random = run(connection, "uuid_bench_v4", UUID::randomUUID);
+            Result timeOrdered = run(connection, "uuid_bench_v7", UuidV7::generate);
+            System.out.printf("%n%-6s %10s %12s %16s %14s %12s%n", "ids", "rows", "rows/sec", "last 10% rows/s", "pk pages", "pk MiB");
+            print("v4", random);
+            print("v7", timeOrdered);
+            System.out.println();
+            assertEquals(ROWS, random.rows);
+            assertEquals(ROWS, timeOrdered.rows);
+        }
+    }
+
+    private Result run(Connection connection, String table, Supplier<UUID> ids) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (id BINARY(16) NOT NULL PRIMARY KEY, file_name VARCHAR(255) NOT NULL, "
+                    + "file_url VARCHAR(255) NOT NULL, upload_date DATETIME(6) NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        Timestamp uploadDate = Timestamp.valueOf(LocalDateTime.now());
+        int tailStart = ROWS - ROWS / 10;
+        long start = System.nanoTime();
+        long tailStartNanos = start;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, file_name, file_url, upload_date) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                if (i == tailStart) {
+                    tailStartNanos = System.nanoTime();
+                }
+                UUID id = ids.get();
+                String fileName = id + "-report.pdf";
+                insert.setBytes(1, ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array());
+                insert.setString(2, fileName);
+                insert.setString(3, "https://bucket.s3.amazonaws.com/" + fileName);
+                insert.setTimestamp(4, uploadDate);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i == ROWS - 1) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        long end = System.nanoTime();
+        long rows;
+        try (Statement statement = connection.createStatement();
+             ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            count.next();
+            rows = count.getLong(1);
+        }
+        return new Result(rows, end - start, ROWS - tailStart, end - tailStartNanos, primaryKeyPages(connection, table));
+    }
+
+    // InnoDB persistent statistics: pages allocated to the clustered index, which holds the rows. -1 elsewhere
+    private long primaryKeyPages(Connection connection, String table) throws Exception {
+        if (!connection.getMetaData().getDatabaseProductName().equals("MySQL")) {
+            return -1;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE " + table);
+        }
+        try (PreparedStatement query = connection.prepareStatement("SELECT stat_value FROM mysql.innodb_index_stats "
+                + "WHERE database_name = DATABASE() AND table_name = ? AND index_name = 'PRIMARY' AND stat_name = 'size'")) {
+            query.setString(1, table);
+            try (ResultSet resultSet = query.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : -1;
+            }
+        }
+    }
+
+    private static void print(String label, Result result) {
+        System.out.printf("%-6s %10d %12.1f %16.1f %14s %12s%n", label, result.rows, result.throughput(), result.tailThroughput(),
+                result.primaryKeyPages < 0 ? "-" : String.valueOf(result.primaryKeyPages),
+                result.primaryKeyPages < 0 ? "-" : String.format("%.1f", result.primaryKeyPages * 16 / 1024.0));
+    }
+
+    // InnoDB's default page size is 16 KiB
+    private record Result(long rows, long elapsedNanos, int tailRows, long tailElapsedNanos, long primaryKeyPages) {
+        double throughput() {
+            return rows / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        double tailThroughput() {
+            return tailRows / (tailElapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.srivarini.csye6225.cloud.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UuidV7Test {
+
+    private static final long NOW = 1_735_689_600_000L;
+
+    @Test
+    public void testLayoutCarriesVersionVariantAndTimestamp() {
+        UUID id = UuidV7.generate(NOW + 5_000);
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue(id.getMostSignificantBits() >>> 16 >= NOW + 5_000);
+    }
+
+    @Test
+    public void testIdsSortInGenerationOrderAsUnsignedBytes() {
+        List<UUID> ids = new ArrayList<>();
+        // Many ids per millisecond (enough to overflow the counter), then a clock step back
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UuidV7.generate(NOW + 10_000 + i / 5_000));
+        }
+        ids.add(UuidV7.generate(NOW + 9_000));
+        ids.add(UuidV7.generate(NOW + 20_000));
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(Long.compareUnsigned(ids.get(i - 1).getMostSignificantBits(), ids.get(i).getMostSignificantBits()) < 0,
+                    ids.get(i - 1) + " must sort before " + ids.get(i));
+        }
+        // The string form orders the same way, which keeps the key-ordered S3 reconciliation merge valid
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).toString().compareTo(ids.get(i).toString()) < 0);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.support.LocalS3Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares blocking S3Client uploads on a Tomcat-sized worker pool with S3AsyncClient uploads
+ * issued from a single thread, against {@link LocalS3Server} with a fixed per-request latency.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class AsyncS3BenchmarkTest {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 4000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    private static final int WORKER_THREADS = Integer.getInteger("benchmark.workerThreads", 200);
+    private static final int MAX_CONNECTIONS = Integer.getInteger("benchmark.maxConnections", 200);
+    private static final long LATENCY_MILLIS = Long.getLong("benchmark.latencyMillis", 25);
+    private static final byte[] PAYLOAD = new byte[16 * 1024];
+    private static final String BUCKET = "benchmark-bucket";
+
+    private static LocalS3Server server;
+
+    @BeforeAll
+    public static void startServer() throws Exception {
+        server = new LocalS3Server(LATENCY_MILLIS, false);
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void compareSyncAndAsyncUploads() throws Exception {
+        Result sync = runSync();
+        Result async = runAsync();
+        System.out.printf("%n%-6s %10s %12s %14s%n", "mode", "requests", "req/sec", "peak threads");
+        System.out.printf("%-6s %10d %12.1f %14d%n", "sync", sync.completed, sync.throughput(), sync.peakThreads);
+        System.out.printf("%-6s %10d %12.1f %14d%n%n", "async", async.completed, async.throughput(), async.peakThreads);
+        assertEquals(REQUESTS, sync.completed);
+        assertEquals(REQUESTS, async.completed);
+    }
+
+    private Result runSync() throws Exception {
+        try (S3Client client = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(server.endpoint())
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .httpClientBuilder(ApacheHttpClient.builder().maxConnections(MAX_CONNECTIONS))
+                .build()) {
+            ExecutorService workers = Executors.newFixedThreadPool(WORKER_THREADS);
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            AtomicInteger completed = new AtomicInteger();
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                String key = "sync-" + i;
+                futures.add(workers.submit(() -> {
+                    client.putObject(putRequest(key), RequestBody.fromBytes(PAYLOAD));
+                    completed.incrementAndGet();
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            workers.shutdown();
+            return new Result(completed.get(), elapsed, threads.getPeakThreadCount());
+        }
+    }
+
+    private Result runAsync() throws Exception {
+        try (S3AsyncClient client = S3AsyncClient.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(server.endpoint())
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(MAX_CONNECTIONS)
+                        .maxPendingConnectionAcquires(CONCURRENCY))
+                .build()) {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            Semaphore inFlight = new Semaphore(CONCURRENCY);
+            AtomicInteger completed = new AtomicInteger();
+            long start = System.nanoTime();
+            List<CompletableFuture<?>> futures = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                inFlight.acquire();
+                futures.add(client.putObject(putRequest("async-" + i), AsyncRequestBody.fromBytes(PAYLOAD))
+                        .whenComplete((response, ex) -> {
+                            inFlight.release();
+                            if (ex == null) {
+                                completed.incrementAndGet();
+                            }
+                        }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            long elapsed = System.nanoTime() - start;
+            return new Result(completed.get(), elapsed, threads.getPeakThreadCount());
+        }
+    }
+
+    private static PutObjectRequest putRequest(String key) {
+        return PutObjectRequest.builder().bucket(BUCKET).key(key).contentLength((long) PAYLOAD.length).build();
+    }
+
+    private record Result(int completed, long elapsedNanos, int peakThreads) {
+        double throughput() {
+            return completed / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
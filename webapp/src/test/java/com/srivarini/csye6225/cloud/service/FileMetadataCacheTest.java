@@ -0,0 +1,120 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class FileMetadataCacheTest {
+
+    private final MetricsService metricsService = mock(MetricsService.class);
+    private final FileMetadataCache cache = new FileMetadataCache(metricsService, 100, 600, 30);
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        UUID id = UUID.randomUUID();
+        FileMetadata metadata = new FileMetadata("key", "url", LocalDateTime.now());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Optional<FileMetadata>>> results = new ArrayList<>();
+        results.add(executor.submit(() -> cache.get(id, key -> {
+            loads.incrementAndGet();
+            loaderStarted.countDown();
+            await(releaseLoader);
+            return Optional.of(metadata);
+        })));
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(() -> cache.get(id, key -> {
+                loads.incrementAndGet();
+                return Optional.of(metadata);
+            })));
+        }
+        releaseLoader.countDown();
+        for (Future<Optional<FileMetadata>> result : results) {
+            assertEquals(Optional.of(metadata), result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, loads.get());
+        verify(metricsService, times(1)).increment("cache.filemetadata.miss.count");
+        verify(metricsService, times(7)).increment("cache.filemetadata.hit.count");
+    }
+
+    @Test
+    public void testUnknownIdsAreNegativelyCachedUntilInvalidated() {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertTrue(cache.get(id, key -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        assertTrue(cache.get(id, key -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        assertEquals(1, loads.get());
+
+        cache.invalidate(id);
+        cache.get(id, key -> { loads.incrementAndGet(); return Optional.empty(); });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() {
+        UUID id = UUID.randomUUID();
+        assertThrows(IllegalStateException.class, () -> cache.get(id, key -> { throw new IllegalStateException("db down"); }));
+        assertTrue(cache.get(id, key -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    public void testDeleteOnOneInstanceReachesTheOtherWithinTheTtl() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:file_metadata_cache;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS file_row (id UUID PRIMARY KEY, file_name VARCHAR(255) NOT NULL)");
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO file_row (id, file_name) VALUES (?, 'shared.txt')", id);
+        Function<UUID, Optional<FileMetadata>> loader = key -> jdbcTemplate.query("SELECT file_name FROM file_row WHERE id = ?",
+                (rs, rowNum) -> new FileMetadata(key, rs.getString("file_name"), "url", LocalDateTime.now()), key).stream().findFirst();
+        FileMetadataCache instanceA = new FileMetadataCache(metricsService, 100, 1, 1);
+        FileMetadataCache instanceB = new FileMetadataCache(metricsService, 100, 1, 1);
+        assertTrue(instanceA.get(id, loader).isPresent());
+        assertTrue(instanceB.get(id, loader).isPresent());
+
+        // Instance A handles the delete; B only learns of it when its entry expires
+        jdbcTemplate.update("DELETE FROM file_row WHERE id = ?", id);
+        instanceA.invalidate(id);
+
+        assertTrue(instanceA.get(id, loader).isEmpty());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (instanceB.get(id, loader).isPresent() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(instanceB.get(id, loader).isEmpty(), "The deleted row expires from the other instance's cache");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
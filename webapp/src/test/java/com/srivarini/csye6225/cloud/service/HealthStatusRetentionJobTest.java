@@ -0,0 +1,129 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class HealthStatusRetentionJobTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private HealthStatusRetentionJob job;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:health_retention;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS health_status");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS health_status_rollup");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS job_lease");
+        jdbcTemplate.execute("CREATE TABLE health_status (check_id BIGINT AUTO_INCREMENT PRIMARY KEY, datetime DATETIME(6) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE health_status_rollup (bucket_minute DATETIME(6) PRIMARY KEY, sample_count BIGINT NOT NULL, "
+                + "first_seen DATETIME(6) NOT NULL, last_seen DATETIME(6) NOT NULL, max_gap_ms BIGINT NOT NULL, gap_count BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE job_lease (name VARCHAR(64) PRIMARY KEY, holder VARCHAR(36) NOT NULL, expires_at DATETIME(6) NOT NULL)");
+
+        job = new HealthStatusRetentionJob();
+        ReflectionTestUtils.setField(job, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(job, "namedParameterJdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+        ReflectionTestUtils.setField(job, "transactionTemplate", new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        MetricsService metricsService = mock(MetricsService.class);
+        JobLease jobLease = new JobLease();
+        ReflectionTestUtils.setField(jobLease, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(jobLease, "metricsService", metricsService);
+        ReflectionTestUtils.setField(job, "metricsService", metricsService);
+        ReflectionTestUtils.setField(job, "jobLease", jobLease);
+        ReflectionTestUtils.setField(job, "enabled", true);
+        ReflectionTestUtils.setField(job, "rawHorizonHours", 0L);
+        ReflectionTestUtils.setField(job, "leaseMillis", 60_000L);
+        ReflectionTestUtils.setField(job, "chunkSize", 3);
+        ReflectionTestUtils.setField(job, "chunkPauseMillis", 0L);
+        ReflectionTestUtils.setField(job, "gapThresholdMillis", 15_000L);
+    }
+
+    @Test
+    public void testRollsUpPerMinuteAndPurgesInChunks() {
+        // 10:00 has probes every 5s; 10:01 starts after a 40s gap; 10:05 is past the cutoff
+        for (int second = 0; second < 20; second += 5) {
+            insert(BASE.plusSeconds(second));
+        }
+        insert(BASE.plusSeconds(55));
+        insert(BASE.plusMinutes(1).plusSeconds(5));
+        insert(BASE.plusMinutes(5));
+
+        LocalDateTime cutoff = BASE.plusMinutes(5);
+        assertEquals(6, job.rollup(cutoff));
+        // The newest bucket's raw rows stay until a later bucket exists
+        assertEquals(5, job.purge(job.newestBucket()));
+
+        Map<String, Object> first = rollup(BASE);
+        assertEquals(5L, first.get("SAMPLE_COUNT"));
+        assertEquals(40_000L, first.get("MAX_GAP_MS"));
+        assertEquals(1L, first.get("GAP_COUNT"));
+        Map<String, Object> second = rollup(BASE.plusMinutes(1));
+        assertEquals(1L, second.get("SAMPLE_COUNT"));
+        assertEquals(10_000L, second.get("MAX_GAP_MS"));
+        assertEquals(0L, second.get("GAP_COUNT"));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM health_status", Integer.class));
+
+        // The next run recomputes 10:01 from its kept rows and leaves the totals as they were
+        insert(BASE.plusMinutes(2));
+        assertEquals(2, job.rollup(cutoff));
+        assertEquals(1L, rollup(BASE.plusMinutes(1)).get("SAMPLE_COUNT"));
+        assertEquals(10_000L, rollup(BASE.plusMinutes(1)).get("MAX_GAP_MS"));
+        assertEquals(55_000L, rollup(BASE.plusMinutes(2)).get("MAX_GAP_MS"));
+    }
+
+    @Test
+    public void testRepeatedRunsRewriteTheSameTotals() {
+        insert(BASE);
+        insert(BASE.plusSeconds(5));
+        job.rollup(BASE.plusMinutes(1));
+
+        // A row sharing the last rolled-up timestamp, and one later in the same minute, are picked up by recomputing
+        // the bucket; the rows already counted are not counted again
+        insert(BASE.plusSeconds(5));
+        insert(BASE.plusSeconds(10));
+        assertEquals(4, job.rollup(BASE.plusMinutes(1)));
+        assertEquals(4, job.rollup(BASE.plusMinutes(1)));
+
+        assertEquals(4L, rollup(BASE).get("SAMPLE_COUNT"));
+        assertEquals(BASE.plusSeconds(10), jdbcTemplate.queryForObject(
+                "SELECT last_seen FROM health_status_rollup WHERE bucket_minute = ?", LocalDateTime.class, Timestamp.valueOf(BASE)));
+        assertEquals(BASE, job.newestBucket());
+    }
+
+    @Test
+    public void testSkipsTheRunWhileAnotherInstanceHoldsTheLease() {
+        insert(BASE);
+        jdbcTemplate.update("INSERT INTO job_lease (name, holder, expires_at) VALUES (?, 'other', TIMESTAMPADD(HOUR, 1, CURRENT_TIMESTAMP(6)))",
+                HealthStatusRetentionJob.LEASE);
+        job.run();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM health_status_rollup", Integer.class));
+
+        jdbcTemplate.update("UPDATE job_lease SET expires_at = TIMESTAMPADD(HOUR, -1, CURRENT_TIMESTAMP(6))");
+        job.run();
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM health_status_rollup", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM job_lease", Integer.class), "The lease is released after the run");
+    }
+
+    private void insert(LocalDateTime datetime) {
+        jdbcTemplate.update("INSERT INTO health_status (datetime) VALUES (?)", Timestamp.valueOf(datetime));
+    }
+
+    private Map<String, Object> rollup(LocalDateTime minute) {
+        return jdbcTemplate.queryForMap("SELECT * FROM health_status_rollup WHERE bucket_minute = ?", Timestamp.valueOf(minute));
+    }
+}
@@ -0,0 +1,97 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class HealthStatusServiceImplTest {
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement statement;
+    @Mock
+    private ResultSet resultSet;
+    @Mock
+    private HealthStatusWriter healthStatusWriter;
+    @Mock
+    private MetricsService metricsService;
+
+    @InjectMocks
+    private HealthStatusServiceImpl healthStatusService;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        ReflectionTestUtils.setField(healthStatusService, "freshnessMillis", 60_000L);
+        ReflectionTestUtils.setField(healthStatusService, "failureFreshnessMillis", 60_000L);
+        lenient().when(connection.prepareStatement(anyString())).thenReturn(statement);
+        lenient().when(statement.executeQuery()).thenReturn(resultSet);
+        lenient().when(resultSet.next()).thenReturn(true);
+    }
+
+    @Test
+    public void testConcurrentChecksShareOneEvaluation() throws Exception {
+        CountDownLatch checkStarted = new CountDownLatch(1);
+        CountDownLatch releaseCheck = new CountDownLatch(1);
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            checkStarted.countDown();
+            releaseCheck.await(5, TimeUnit.SECONDS);
+            return connection;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        results.add(executor.submit(healthStatusService::performHealthCheck));
+        assertTrue(checkStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(healthStatusService::performHealthCheck));
+        }
+        releaseCheck.countDown();
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        // A fresh result is served from memory
+        assertTrue(healthStatusService.performHealthCheck());
+        verify(dataSource, times(1)).getConnection();
+    }
+
+    @Test
+    public void testProbeFailureIsServedImmediately() throws SQLException {
+        when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        healthStatusService.probe();
+
+        assertFalse(healthStatusService.performHealthCheck());
+        verify(dataSource, times(1)).getConnection();
+    }
+}
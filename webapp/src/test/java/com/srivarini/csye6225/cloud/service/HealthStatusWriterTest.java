@@ -0,0 +1,96 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class HealthStatusWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private MetricsService metricsService;
+    private HealthStatusWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:health_writer;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS health_status");
+        createTable();
+        metricsService = mock(MetricsService.class);
+        writer = new HealthStatusWriter(5, 3, 60_000, 50, 200);
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "metricsService", metricsService);
+    }
+
+    @Test
+    public void testFullQueueDropsOldestAndFlushesInBatches() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < 7; i++) {
+            writer.enqueue(base.plusSeconds(i));
+        }
+        verify(metricsService, times(2)).increment("health.writer.dropped.count");
+
+        writer.flush();
+
+        assertEquals(0, writer.pendingCount());
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM health_status", Integer.class));
+        assertEquals(base.plusSeconds(2), jdbcTemplate.queryForObject("SELECT MIN(datetime) FROM health_status", LocalDateTime.class));
+        // 5 records with batch size 3 => two multi-row inserts
+        verify(metricsService, times(2)).increment("health.writer.flush.count");
+    }
+
+    @Test
+    public void testFailedBatchGoesBackToTheHeadOfTheQueue() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        jdbcTemplate.execute("DROP TABLE health_status");
+        writer.enqueue(base);
+        writer.enqueue(base.plusSeconds(1));
+
+        assertFalse(writer.flush());
+        assertEquals(2, writer.pendingCount());
+
+        writer.enqueue(base.plusSeconds(2));
+        createTable();
+        assertTrue(writer.flush());
+
+        assertEquals(List.of(base, base.plusSeconds(1), base.plusSeconds(2)),
+                jdbcTemplate.queryForList("SELECT datetime FROM health_status ORDER BY check_id", LocalDateTime.class));
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedLongBeforeTheFlushInterval() throws InterruptedException {
+        jdbcTemplate.execute("DROP TABLE health_status");
+        writer.start();
+        try {
+            for (int i = 0; i < 3; i++) {
+                writer.enqueue(LocalDateTime.now());
+            }
+            verify(metricsService, timeout(2_000).atLeastOnce()).timing(eq("service.db.health.insert.timer"), anyLong());
+
+            // The database recovers; the 60s flush interval has not come round again
+            createTable();
+            verify(metricsService, timeout(2_000)).increment("health.writer.flush.count");
+            assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM health_status", Integer.class));
+        } finally {
+            writer.stop();
+        }
+    }
+
+    private void createTable() {
+        jdbcTemplate.execute("CREATE TABLE health_status (check_id BIGINT AUTO_INCREMENT PRIMARY KEY, datetime DATETIME(6) NOT NULL)");
+    }
+}
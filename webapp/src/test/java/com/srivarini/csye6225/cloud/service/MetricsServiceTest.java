@@ -0,0 +1,141 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsServiceTest {
+
+    private DatagramChannel receiver;
+    private MetricsService metricsService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        receiver = DatagramChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+        receiver.configureBlocking(false);
+        int port = ((InetSocketAddress) receiver.getLocalAddress()).getPort();
+        // Long interval so only explicit flush() calls publish
+        metricsService = new MetricsService("test", "127.0.0.1", port, 3_600_000);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        metricsService.close();
+        receiver.close();
+    }
+
+    @Test
+    public void testCountersAreAggregatedAndReset() throws Exception {
+        MetricsService.Counter counter = metricsService.counter("controller.file.post.count");
+        counter.increment();
+        counter.increment();
+        metricsService.increment("controller.file.post.count");
+
+        metricsService.flush();
+        List<String> lines = receiveLines();
+        assertTrue(lines.contains("test.controller.file.post.count:3|c"), lines.toString());
+
+        metricsService.flush();
+        assertTrue(receiveLines().isEmpty(), "Counters should reset after each flush");
+    }
+
+    @Test
+    public void testTimerOutcomesReportedSeparately() throws Exception {
+        MetricsService.Timer timer = metricsService.timer("controller.file.post.timer");
+        for (int i = 1; i <= 100; i++) {
+            timer.record(i, true);
+        }
+        timer.record(2000, false);
+
+        metricsService.flush();
+        List<String> lines = receiveLines();
+        assertTrue(lines.contains("test.controller.file.post.timer.count:100|c|#outcome:success"), lines.toString());
+        assertTrue(lines.contains("test.controller.file.post.timer.count:1|c|#outcome:failure"), lines.toString());
+        assertEquals(1, lines.stream().filter(line -> line.startsWith("test.controller.file.post.timer.p99:")
+                && line.endsWith("|g|#outcome:failure")).count());
+
+        double successP50 = gaugeValue(lines, "test.controller.file.post.timer.p50:", "|#outcome:success");
+        double successP99 = gaugeValue(lines, "test.controller.file.post.timer.p99:", "|#outcome:success");
+        assertEquals(50.0, successP50, 1.0);
+        assertEquals(99.0, successP99, 1.5);
+        assertTrue(successP99 < 1000, "Failure latencies must not leak into success percentiles");
+    }
+
+    @Test
+    public void testGaugesReportLatestValueOnEveryFlush() throws Exception {
+        MetricsService.Gauge gauge = metricsService.gauge("tombstone.queue.depth");
+        metricsService.gauge("tombstone.queue.lag.ms");
+
+        gauge.set(7);
+        gauge.set(42);
+        metricsService.flush();
+        List<String> lines = receiveLines();
+        assertTrue(lines.contains("test.tombstone.queue.depth:42|g"), lines.toString());
+        assertTrue(lines.stream().noneMatch(line -> line.startsWith("test.tombstone.queue.lag.ms")), "Unset gauges are not sent");
+
+        metricsService.flush();
+        assertTrue(receiveLines().contains("test.tombstone.queue.depth:42|g"), "Gauges keep their value across flushes");
+    }
+
+    @Test
+    public void testLinesArePackedIntoBoundedDatagrams() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            metricsService.increment("bulk.metric." + i + ".count");
+        }
+
+        metricsService.flush();
+        List<String> packets = receivePackets();
+        assertTrue(packets.size() > 1 && packets.size() < 200, "Expected batching, got " + packets.size() + " packets");
+        int lines = 0;
+        for (String packet : packets) {
+            assertTrue(packet.getBytes(StandardCharsets.UTF_8).length <= MetricsService.MAX_PACKET_BYTES);
+            assertFalse(packet.endsWith("\n"));
+            lines += packet.split("\n").length;
+        }
+        assertEquals(200, lines);
+    }
+
+    private double gaugeValue(List<String> lines, String name, String tags) {
+        String line = lines.stream()
+                .filter(candidate -> candidate.startsWith(name) && candidate.endsWith("|g" + tags))
+                .findFirst()
+                .orElseThrow();
+        return Double.parseDouble(line.substring(name.length(), line.indexOf('|')));
+    }
+
+    private List<String> receiveLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (String packet : receivePackets()) {
+            lines.addAll(List.of(packet.split("\n")));
+        }
+        return lines;
+    }
+
+    private List<String> receivePackets() throws Exception {
+        List<String> packets = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(65536);
+        long deadline = System.currentTimeMillis() + 200;
+        while (System.currentTimeMillis() < deadline) {
+            buffer.clear();
+            if (receiver.receive(buffer) == null) {
+                Thread.sleep(10);
+                continue;
+            }
+            buffer.flip();
+            packets.add(StandardCharsets.UTF_8.decode(buffer).toString());
+        }
+        return packets;
+    }
+}
@@ -0,0 +1,90 @@
+package com.srivarini.csye6225.cloud.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Answers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ObjectDiskCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private ObjectDiskCache cache;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        cache = new ObjectDiskCache(mock(MetricsService.class, Answers.RETURNS_DEEP_STUBS), true, directory, 100, 60, 0);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedBeyondMaxBytes() throws IOException {
+        fill("a", 40);
+        fill("b", 40);
+        // Reading a makes b the least recently used
+        cache.open("a").orElseThrow().close();
+        fill("c", 40);
+
+        assertTrue(cache.open("a").isPresent());
+        assertFalse(cache.open("b").isPresent());
+        assertTrue(cache.open("c").isPresent());
+        assertEquals(80, cache.totalBytes());
+    }
+
+    @Test
+    public void testServesCachedBytes() throws IOException {
+        byte[] content = fill("object", 50);
+
+        Optional<ObjectDiskCache.Hit> hit = cache.open("object");
+
+        assertTrue(hit.isPresent());
+        try (ObjectDiskCache.Hit opened = hit.get()) {
+            assertEquals(50, opened.length());
+            ByteBuffer read = ByteBuffer.allocate(50);
+            opened.channel().read(read, 0);
+            assertArrayEquals(content, read.array());
+        }
+    }
+
+    @Test
+    public void testIncompleteFillIsDiscarded() throws IOException {
+        ObjectDiskCache.Fill fill = cache.startFill("truncated", 50);
+        fill.write(new byte[20], 0, 20);
+        fill.close();
+
+        assertFalse(cache.open("truncated").isPresent());
+        assertEquals(0, cache.totalBytes());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count(), "The partial file is deleted");
+        }
+    }
+
+    @Test
+    public void testObjectsLargerThanMaxObjectBytesAreNotCached() {
+        assertNull(cache.startFill("large", 61));
+    }
+
+    private byte[] fill(String key, int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (key.hashCode() + i);
+        }
+        ObjectDiskCache.Fill fill = cache.startFill(key, length);
+        fill.write(content, 0, length);
+        fill.close();
+        return content;
+    }
+}
@@ -0,0 +1,357 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.config.S3Config;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import com.srivarini.csye6225.cloud.repository.FileMetadataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class S3ServiceImplTest {
+
+    private static final long UPLOAD_SIZE = 32L * 1024 * 1024;
+
+    // Generous ceiling for SDK/Mockito overhead; a byte[] copy of the upload alone would be 32 MB
+    private static final long MAX_ALLOCATED_BYTES = 4L * 1024 * 1024;
+
+    @Mock
+    private S3Config s3Config;
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private FileMetadataRepository fileMetadataRepository;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private FileMetadataCache fileMetadataCache;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @Mock
+    private ContentStore contentStore;
+
+    @Mock
+    private FileDeletionQueue fileDeletionQueue;
+
+    @Mock
+    private UploadCompression uploadCompression;
+
+    @InjectMocks
+    private S3ServiceImpl s3Service;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(s3Config.getBucketName()).thenReturn("test-bucket");
+        lenient().when(fileMetadataRepository.save(any(FileMetadata.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(contentStore.saveUploaded(anyString(), any(), any(), anyLong())).thenAnswer(invocation -> new FileMetadata(
+                invocation.getArgument(0), "https://test-bucket.s3.amazonaws.com/" + invocation.getArgument(0), LocalDateTime.now(),
+                invocation.<PartStreams.Digest>getArgument(2).contentHash(), invocation.getArgument(0),
+                invocation.<PartStreams.Digest>getArgument(2).codec().contentEncoding()));
+        lenient().when(uploadCompression.codecFor(any())).thenReturn(StorageCodec.IDENTITY);
+        lenient().when(uploadCompression.level()).thenReturn(6);
+    }
+
+    @Test
+    public void testUploadStreamsWithoutBufferingWholeFile() throws IOException {
+        AtomicLong bytesSent = new AtomicLong();
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            RequestBody body = invocation.getArgument(1);
+            try (InputStream in = body.contentStreamProvider().newStream()) {
+                byte[] chunk = new byte[8192];
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    bytesSent.addAndGet(read);
+                }
+            }
+            return PutObjectResponse.builder().build();
+        });
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        s3Service.uploadFile(new GeneratedMultipartFile("large.bin", UPLOAD_SIZE));
+
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertEquals(UPLOAD_SIZE, bytesSent.get(), "Entire payload should be streamed to S3");
+        assertTrue(allocated < MAX_ALLOCATED_BYTES,
+                "Upload allocated " + allocated + " bytes; expected less than " + MAX_ALLOCATED_BYTES);
+
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(requestCaptor.capture(), any(RequestBody.class));
+        assertEquals(UPLOAD_SIZE, requestCaptor.getValue().contentLength());
+    }
+
+    @Test
+    public void testRetriedUploadResendsWholePart() throws IOException {
+        List<Long> attempts = new ArrayList<>();
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            RequestBody body = invocation.getArgument(1);
+            // The SDK asks for a new stream on every attempt, e.g. after a 500 from S3
+            for (int attempt = 0; attempt < 2; attempt++) {
+                try (InputStream in = body.contentStreamProvider().newStream()) {
+                    attempts.add(in.transferTo(OutputStream.nullOutputStream()));
+                }
+            }
+            return PutObjectResponse.builder().build();
+        });
+
+        s3Service.uploadFile(new GeneratedMultipartFile("retried.bin", 1024 * 1024));
+
+        assertEquals(List.of(1024L * 1024, 1024L * 1024), attempts);
+    }
+
+    @Test
+    public void testUploadSendsContentHashAsChecksum() throws IOException {
+        GeneratedMultipartFile file = new GeneratedMultipartFile("checked.bin", 1024 * 1024);
+        byte[] content;
+        try (InputStream in = file.getInputStream()) {
+            content = in.readAllBytes();
+        }
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenReturn(PutObjectResponse.builder().build());
+
+        FileMetadata saved = s3Service.uploadFile(file);
+
+        String expectedHash = sha256Hex(content);
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(requestCaptor.capture(), any(RequestBody.class));
+        assertEquals(Base64.getEncoder().encodeToString(HexFormat.of().parseHex(expectedHash)), requestCaptor.getValue().checksumSHA256());
+        assertStored(saved, StorageCodec.IDENTITY, expectedHash, 1024 * 1024, null);
+    }
+
+    @Test
+    public void testCompressibleUploadIsStoredGzipEncoded() throws IOException {
+        byte[] content = "timestamp,level,message\n2025-01-01T00:00:00Z,INFO,request served\n".repeat(2000).getBytes();
+        when(uploadCompression.codecFor(any())).thenReturn(StorageCodec.GZIP);
+        List<byte[]> bodies = new ArrayList<>();
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            try (InputStream in = invocation.<RequestBody>getArgument(1).contentStreamProvider().newStream()) {
+                bodies.add(in.readAllBytes());
+            }
+            return PutObjectResponse.builder().build();
+        });
+
+        FileMetadata saved = s3Service.uploadFile(new MockMultipartFile("file", "access.csv", "text/csv", content));
+
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(requestCaptor.capture(), any(RequestBody.class));
+        PutObjectRequest request = requestCaptor.getValue();
+        byte[] stored = bodies.get(0);
+        assertEquals("gzip", request.contentEncoding());
+        assertEquals(stored.length, request.contentLength());
+        assertTrue(stored.length < content.length / 10, "Repetitive CSV should shrink well: " + stored.length);
+        assertEquals(Base64.getEncoder().encodeToString(HexFormat.of().parseHex(sha256Hex(stored))), request.checksumSHA256());
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(stored))) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        // Deduplication still keys on the content as uploaded
+        assertStored(saved, StorageCodec.GZIP, sha256Hex(content), content.length, "gzip");
+    }
+
+    @Test
+    public void testIncompressibleUploadIsStoredAsIs() throws IOException {
+        byte[] content = new byte[64 * 1024];
+        new Random(42).nextBytes(content);
+        when(uploadCompression.codecFor(any())).thenReturn(StorageCodec.GZIP);
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenReturn(PutObjectResponse.builder().build());
+
+        FileMetadata saved = s3Service.uploadFile(new MockMultipartFile("file", "random.txt", "text/plain", content));
+
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(requestCaptor.capture(), any(RequestBody.class));
+        assertNull(requestCaptor.getValue().contentEncoding());
+        assertEquals(content.length, requestCaptor.getValue().contentLength());
+        assertStored(saved, StorageCodec.GZIP, sha256Hex(content), content.length, null);
+    }
+
+    @Test
+    public void testUploadOfStoredContentSkipsS3() throws IOException {
+        FileMetadata existing = metadata("original.bin");
+        when(contentStore.saveIfStored(anyString(), any())).thenAnswer(invocation -> Optional.of(new FileMetadata(
+                invocation.getArgument(0), existing.getFileUrl(), LocalDateTime.now(),
+                invocation.<PartStreams.Digest>getArgument(1).contentHash(), existing.getFileName(), null)));
+
+        FileMetadata saved = s3Service.uploadFile(new GeneratedMultipartFile("copy.bin", 1024 * 1024));
+
+        assertEquals(existing.getFileUrl(), saved.getFileUrl());
+        assertEquals(existing.getFileName(), saved.getObjectKey());
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(contentStore, never()).saveUploaded(anyString(), any(), any(), anyLong());
+        verify(contentStore).saveIfStored(eq(saved.getFileName()), any());
+    }
+
+    @Test
+    public void testBulkDeleteReportsOutcomePerId() {
+        FileMetadata deleted = metadata("deleted.txt");
+        FileMetadata raced = metadata("raced.txt");
+        UUID missing = UUID.randomUUID();
+        when(fileMetadataRepository.findAllById(any())).thenReturn(List.of(deleted, raced));
+        // A concurrent delete removed the second row between the lookup and the transaction
+        when(fileDeletionQueue.enqueueAll(List.of(deleted, raced))).thenReturn(Set.of(deleted.getId()));
+
+        Map<UUID, S3Service.DeleteOutcome> outcomes = s3Service.deleteFiles(List.of(missing, deleted.getId(), raced.getId(), missing));
+
+        assertEquals(List.of(missing, deleted.getId(), raced.getId()), List.copyOf(outcomes.keySet()));
+        assertEquals(S3Service.DeleteOutcome.NOT_FOUND, outcomes.get(missing));
+        assertEquals(S3Service.DeleteOutcome.DELETED, outcomes.get(deleted.getId()));
+        assertEquals(S3Service.DeleteOutcome.NOT_FOUND, outcomes.get(raced.getId()));
+    }
+
+    @Test
+    public void testBulkDeleteQueuesEveryRowWithoutCallingS3() {
+        List<FileMetadata> files = new ArrayList<>();
+        // Rows stored before deduplication (no content hash) go through the same queue as deduplicated ones
+        for (int i = 0; i < 2500; i++) {
+            files.add(i % 2 == 0 ? metadata("file-" + i)
+                    : new FileMetadata("file-" + i, "https://test-bucket.s3.amazonaws.com/shared", LocalDateTime.now(), "hash-" + i, "shared", null));
+        }
+        when(fileMetadataRepository.findAllById(any())).thenReturn(files);
+        when(fileDeletionQueue.enqueueAll(files)).thenAnswer(invocation -> files.stream().map(FileMetadata::getId)
+                .collect(Collectors.toSet()));
+
+        Map<UUID, S3Service.DeleteOutcome> outcomes = s3Service.deleteFiles(files.stream().map(FileMetadata::getId).toList());
+
+        assertTrue(outcomes.values().stream().allMatch(outcome -> outcome == S3Service.DeleteOutcome.DELETED));
+        verify(fileDeletionQueue, times(1)).enqueueAll(files);
+        verifyNoInteractions(s3Client);
+    }
+
+    // The content as uploaded is what deduplication keys on; the requested codec is what compression stats compare with
+    private void assertStored(FileMetadata saved, StorageCodec requested, String contentHash, long contentLength, String contentEncoding) {
+        ArgumentCaptor<PartStreams.Digest> digestCaptor = ArgumentCaptor.forClass(PartStreams.Digest.class);
+        verify(contentStore).saveUploaded(eq(saved.getFileName()), eq(requested), digestCaptor.capture(), eq(contentLength));
+        assertEquals(contentHash, digestCaptor.getValue().contentHash());
+        assertEquals(contentEncoding, digestCaptor.getValue().codec().contentEncoding());
+    }
+
+    private static String sha256Hex(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static FileMetadata metadata(String name) {
+        UUID id = UUID.randomUUID();
+        return new FileMetadata(id, id + "-" + name, "https://test-bucket.s3.amazonaws.com/" + id + "-" + name, LocalDateTime.now());
+    }
+
+    // MultipartFile that produces its content on the fly and refuses to materialize it as a byte[]
+    private static class GeneratedMultipartFile implements MultipartFile {
+        private final String name;
+        private final long size;
+
+        GeneratedMultipartFile(String name, long size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        @Override
+        public String getName() { return "file"; }
+
+        @Override
+        public String getOriginalFilename() { return name; }
+
+        @Override
+        public String getContentType() { return "application/octet-stream"; }
+
+        @Override
+        public boolean isEmpty() { return size == 0; }
+
+        @Override
+        public long getSize() { return size; }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("Upload path must not buffer the whole file");
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private long remaining = size;
+
+                @Override
+                public int read() {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    remaining--;
+                    return (int) (remaining & 0xFF);
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int count = (int) Math.min(len, remaining);
+                    for (int i = 0; i < count; i++) {
+                        b[off + i] = (byte) (remaining - i);
+                    }
+                    remaining -= count;
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public void transferTo(File dest) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.config.S3Config;
+import com.srivarini.csye6225.cloud.model.DeletionTombstone;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import com.srivarini.csye6225.cloud.model.StoredObject;
+import com.srivarini.csye6225.cloud.repository.DeletionTombstoneRepository;
+import com.srivarini.csye6225.cloud.repository.FileMetadataRepository;
+import com.srivarini.csye6225.cloud.repository.StoredObjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StorageReconciliationJobTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime OLD = CUTOFF.minusDays(1);
+    private static final LocalDateTime RECENT = CUTOFF.plusHours(1);
+
+    @Mock
+    private S3Config s3Config;
+    @Mock
+    private S3Client s3Client;
+    @Mock
+    private FileMetadataRepository fileMetadataRepository;
+    @Mock
+    private StoredObjectRepository storedObjectRepository;
+    @Mock
+    private DeletionTombstoneRepository deletionTombstoneRepository;
+    @Mock
+    private FileMetadataCache fileMetadataCache;
+    @Mock
+    private ReadYourWrites readYourWrites;
+    @Mock
+    private MetricsService metricsService;
+    @Mock
+    private JobLease jobLease;
+
+    @InjectMocks
+    private StorageReconciliationJob job;
+
+    private final List<S3Object> objects = new ArrayList<>();
+    private final List<FileMetadata> rows = new ArrayList<>();
+    private final List<StoredObject> storedObjects = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(job, "pageSize", 2);
+        ReflectionTestUtils.setField(job, "maxLogged", 100);
+        ReflectionTestUtils.setField(job, "repairsPerSecond", 0.0);
+        lenient().when(s3Config.getBucketName()).thenReturn("bucket");
+        // Both stand-ins serve pages after a key, like ListObjectsV2 start-after and the keyset queries
+        lenient().when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+            ListObjectsV2Request request = invocation.getArgument(0);
+            List<S3Object> page = objects.stream()
+                    .filter(object -> request.startAfter() == null || object.key().compareTo(request.startAfter()) > 0)
+                    .limit(request.maxKeys())
+                    .toList();
+            return ListObjectsV2Response.builder().contents(page).build();
+        });
+        lenient().when(fileMetadataRepository.findByContentHashIsNullOrderByFileName(any(Limit.class)))
+                .thenAnswer(invocation -> rows.stream().limit(invocation.<Limit>getArgument(0).max()).toList());
+        lenient().when(fileMetadataRepository.findByContentHashIsNullAndFileNameGreaterThanOrderByFileName(anyString(), any(Limit.class)))
+                .thenAnswer(invocation -> rows.stream()
+                        .filter(row -> row.getFileName().compareTo(invocation.getArgument(0)) > 0)
+                        .limit(invocation.<Limit>getArgument(1).max())
+                        .toList());
+        lenient().when(storedObjectRepository.findByOrderByObjectKey(any(Limit.class)))
+                .thenAnswer(invocation -> storedObjects.stream().limit(invocation.<Limit>getArgument(0).max()).toList());
+        lenient().when(storedObjectRepository.findByObjectKeyGreaterThanOrderByObjectKey(anyString(), any(Limit.class)))
+                .thenAnswer(invocation -> storedObjects.stream()
+                        .filter(stored -> stored.getObjectKey().compareTo(invocation.getArgument(0)) > 0)
+                        .limit(invocation.<Limit>getArgument(1).max())
+                        .toList());
+    }
+
+    @Test
+    public void testMergeReportsDifferencesOlderThanCutoff() {
+        object("a-orphan", OLD);
+        object("b-match", OLD);
+        object("c-uploading", RECENT);
+        object("e-match", OLD);
+        object("f-orphan", OLD);
+        row("b-match", OLD);
+        row("d-dangling", OLD);
+        row("e-match", OLD);
+        row("g-new-row", RECENT);
+
+        StorageReconciliationJob.Report report = job.reconcile(CUTOFF);
+
+        assertEquals(2, report.matched);
+        assertEquals(2, report.orphanedObjects);
+        assertEquals(1, report.danglingRows);
+        assertEquals(0, report.repaired);
+        verify(deletionTombstoneRepository, never()).save(any());
+        verify(fileMetadataRepository, never()).deleteMetadata(any());
+    }
+
+    @Test
+    public void testRunIsSkippedWhileAnotherInstanceHoldsTheLease() {
+        ReflectionTestUtils.setField(job, "enabled", true);
+        when(jobLease.runExclusively(eq("storage-reconciliation"), any(), any())).thenReturn(false);
+
+        job.run();
+
+        verify(s3Client, never()).listObjectsV2(any(ListObjectsV2Request.class));
+    }
+
+    @Test
+    public void testRepairsAreRecheckedBeforeActing() {
+        ReflectionTestUtils.setField(job, "repairEnabled", true);
+        object("a-orphan", OLD);
+        object("b-raced-upload", OLD);
+        FileMetadata dangling = row("c-dangling", OLD);
+        FileMetadata raced = row("d-raced-delete", OLD);
+        when(fileMetadataRepository.findByFileName("a-orphan")).thenReturn(Optional.empty());
+        when(fileMetadataRepository.findByFileName("b-raced-upload")).thenReturn(Optional.of(raced));
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenAnswer(invocation -> {
+            if (invocation.<HeadObjectRequest>getArgument(0).key().equals("c-dangling")) {
+                throw NoSuchKeyException.builder().statusCode(404).build();
+            }
+            return null;
+        });
+        when(fileMetadataRepository.deleteMetadata(dangling.getId())).thenReturn(1);
+
+        StorageReconciliationJob.Report report = job.reconcile(CUTOFF);
+
+        assertEquals(2, report.repaired);
+        ArgumentCaptor<DeletionTombstone> tombstoneCaptor = ArgumentCaptor.forClass(DeletionTombstone.class);
+        verify(deletionTombstoneRepository).save(tombstoneCaptor.capture());
+        assertEquals("a-orphan", tombstoneCaptor.getValue().getFileName());
+        verify(fileMetadataRepository).deleteMetadata(dangling.getId());
+        verify(fileMetadataRepository, never()).deleteMetadata(raced.getId());
+        verify(fileMetadataCache).invalidate(dangling.getId());
+    }
+
+    @Test
+    public void testSharedObjectsMatchTheirStoredObject() {
+        ReflectionTestUtils.setField(job, "repairEnabled", true);
+        object("a-own", OLD);
+        object("b-shared", OLD);
+        object("c-orphan", OLD);
+        row("a-own", OLD);
+        stored("b-shared", OLD);
+        stored("d-lost", OLD);
+        when(fileMetadataRepository.findByFileName("c-orphan")).thenReturn(Optional.empty());
+        when(storedObjectRepository.existsByObjectKey("c-orphan")).thenReturn(true);
+
+        StorageReconciliationJob.Report report = job.reconcile(CUTOFF);
+
+        assertEquals(2, report.matched);
+        assertEquals(1, report.orphanedObjects);
+        assertEquals(1, report.danglingRows);
+        // A stored object shared by rows is never repaired, and a key one now refers to is not deleted
+        assertEquals(0, report.repaired);
+        verify(deletionTombstoneRepository, never()).save(any());
+        verify(fileMetadataRepository, never()).deleteMetadata(any());
+    }
+
+    @Test
+    public void testOutOfOrderListingAbortsRun() {
+        object("b", OLD);
+        object("a", OLD);
+        ReflectionTestUtils.setField(job, "pageSize", 10);
+
+        assertThrows(IllegalStateException.class, () -> job.reconcile(CUTOFF));
+    }
+
+    @Test
+    public void testKeysCompareInUtf8ByteOrder() {
+        // U+FF5E is a single UTF-16 unit above the surrogates of U+1F600, but sorts below it as UTF-8
+        assertTrue(StorageReconciliationJob.compareKeys("\uFF5E", "\uD83D\uDE00") < 0);
+        assertTrue("\uFF5E".compareTo("\uD83D\uDE00") > 0);
+        assertTrue(StorageReconciliationJob.compareKeys("abc", "abcd") < 0);
+        assertEquals(0, StorageReconciliationJob.compareKeys("abc", "abc"));
+    }
+
+    private void object(String key, LocalDateTime lastModified) {
+        objects.add(S3Object.builder().key(key).size(1L).lastModified(lastModified.toInstant(ZoneOffset.UTC)).build());
+    }
+
+    private FileMetadata row(String fileName, LocalDateTime uploadDate) {
+        FileMetadata row = new FileMetadata(UUID.randomUUID(), fileName, "https://bucket/" + fileName, uploadDate);
+        rows.add(row);
+        return row;
+    }
+
+    private void stored(String objectKey, LocalDateTime createdAt) {
+        storedObjects.add(new StoredObject(objectKey + "-hash", objectKey, 1L, null, createdAt));
+    }
+}
@@ -0,0 +1,146 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.config.S3Config;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TombstoneDrainerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private S3Client s3Client;
+    private TombstoneDrainer drainer;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:tombstone_drainer;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS deletion_tombstone");
+        jdbcTemplate.execute("CREATE TABLE deletion_tombstone (id BIGINT AUTO_INCREMENT PRIMARY KEY, file_name VARCHAR(255) NOT NULL, "
+                + "enqueued_at DATETIME(6) NOT NULL, next_attempt_at DATETIME(6) NOT NULL, attempts INT NOT NULL, "
+                + "lease_owner VARCHAR(36), last_error VARCHAR(1024), dead_lettered BOOLEAN NOT NULL)");
+
+        S3Config s3Config = mock(S3Config.class);
+        when(s3Config.getBucketName()).thenReturn("bucket");
+        s3Client = mock(S3Client.class);
+
+        drainer = new TombstoneDrainer();
+        ReflectionTestUtils.setField(drainer, "s3Config", s3Config);
+        ReflectionTestUtils.setField(drainer, "s3Client", s3Client);
+        ReflectionTestUtils.setField(drainer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(drainer, "namedParameterJdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+        ReflectionTestUtils.setField(drainer, "metricsService", mock(MetricsService.class, Answers.RETURNS_DEEP_STUBS));
+        ReflectionTestUtils.setField(drainer, "batchSize", 10);
+        ReflectionTestUtils.setField(drainer, "leaseSeconds", 60L);
+        ReflectionTestUtils.setField(drainer, "maxAttempts", 2);
+        ReflectionTestUtils.setField(drainer, "backoffBaseMillis", 1000L);
+        ReflectionTestUtils.setField(drainer, "backoffCapMillis", 4000L);
+    }
+
+    @Test
+    public void testDeletesObjectsAndSchedulesRetryForFailedKeys() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        insert("a.txt", now.minusSeconds(5));
+        insert("b.txt", now.minusSeconds(5));
+        insert("later.txt", now.plusMinutes(5));
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder()
+                .errors(S3Error.builder().key("b.txt").code("InternalError").message("try again").build())
+                .build());
+
+        assertEquals(1, drainer.drainBatch());
+
+        ArgumentCaptor<DeleteObjectsRequest> requestCaptor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client).deleteObjects(requestCaptor.capture());
+        assertEquals(List.of("a.txt", "b.txt"), requestCaptor.getValue().delete().objects().stream().map(ObjectIdentifier::key).toList());
+        assertTrue(requestCaptor.getValue().delete().quiet());
+
+        assertEquals(List.of("b.txt", "later.txt"), jdbcTemplate.queryForList(
+                "SELECT file_name FROM deletion_tombstone ORDER BY file_name", String.class));
+        Map<String, Object> retry = tombstone("b.txt");
+        assertEquals(1, retry.get("ATTEMPTS"));
+        assertNull(retry.get("LEASE_OWNER"));
+        assertEquals("InternalError - try again", retry.get("LAST_ERROR"));
+        assertFalse((Boolean) retry.get("DEAD_LETTERED"));
+        assertFalse(((Timestamp) retry.get("NEXT_ATTEMPT_AT")).toLocalDateTime().isAfter(now.plusSeconds(2)),
+                "First retry waits at most the base backoff");
+    }
+
+    @Test
+    public void testDeadLettersAfterMaxAttempts() {
+        insert("stuck.txt", LocalDateTime.now(ZoneOffset.UTC).minusSeconds(5));
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenThrow(SdkClientException.create("unreachable"));
+
+        assertEquals(0, drainer.drainBatch());
+        jdbcTemplate.update("UPDATE deletion_tombstone SET next_attempt_at = ?",
+                Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC).minusSeconds(1)));
+        assertEquals(0, drainer.drainBatch());
+
+        Map<String, Object> deadLetter = tombstone("stuck.txt");
+        assertEquals(2, deadLetter.get("ATTEMPTS"));
+        assertTrue((Boolean) deadLetter.get("DEAD_LETTERED"));
+        assertTrue(((String) deadLetter.get("LAST_ERROR")).contains("unreachable"));
+
+        // Dead letters are never leased again
+        jdbcTemplate.update("UPDATE deletion_tombstone SET next_attempt_at = ?",
+                Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC).minusSeconds(1)));
+        assertEquals(0, drainer.drainBatch());
+        verify(s3Client, times(2)).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    public void testLeasedTombstonesAreNotSentTwice() {
+        insert("leased.txt", LocalDateTime.now(ZoneOffset.UTC).minusSeconds(5));
+        jdbcTemplate.update("UPDATE deletion_tombstone SET lease_owner = 'other-worker', next_attempt_at = ?",
+                Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC).plusSeconds(60)));
+
+        assertEquals(0, drainer.drainBatch());
+        verify(s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    public void testBackoffIsCappedFullJitter() {
+        for (int attempts = 1; attempts <= 40; attempts++) {
+            Duration backoff = drainer.backoff(attempts);
+            assertFalse(backoff.isNegative());
+            assertTrue(backoff.toMillis() <= Math.min(4000, 1000L << Math.min(attempts - 1, 30)));
+        }
+    }
+
+    private void insert(String fileName, LocalDateTime nextAttemptAt) {
+        jdbcTemplate.update("INSERT INTO deletion_tombstone (file_name, enqueued_at, next_attempt_at, attempts, dead_lettered) "
+                + "VALUES (?, ?, ?, 0, FALSE)", fileName, Timestamp.valueOf(nextAttemptAt), Timestamp.valueOf(nextAttemptAt));
+    }
+
+    private Map<String, Object> tombstone(String fileName) {
+        return jdbcTemplate.queryForMap("SELECT * FROM deletion_tombstone WHERE file_name = ?", fileName);
+    }
+}
@@ -0,0 +1,169 @@
+package com.srivarini.csye6225.cloud.service;
+
+import com.srivarini.csye6225.cloud.config.S3Config;
+import com.srivarini.csye6225.cloud.model.FileMetadata;
+import com.srivarini.csye6225.cloud.model.UploadSession;
+import com.srivarini.csye6225.cloud.repository.FileMetadataRepository;
+import com.srivarini.csye6225.cloud.repository.UploadSessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UploadSessionServiceImplTest {
+
+    @Mock
+    private S3Config s3Config;
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    private FileMetadataRepository fileMetadataRepository;
+
+    @Mock
+    private FileMetadataCache fileMetadataCache;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @InjectMocks
+    private UploadSessionServiceImpl uploadSessionService;
+
+    private S3Presigner s3Presigner;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(s3Config.getBucketName()).thenReturn("test-bucket");
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        s3Presigner = S3Presigner.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .build();
+        ReflectionTestUtils.setField(uploadSessionService, "s3Presigner", s3Presigner);
+        ReflectionTestUtils.setField(uploadSessionService, "ttlSeconds", 900L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        s3Presigner.close();
+    }
+
+    @Test
+    public void testCreateSessionSignsSizeAndReservesId() {
+        UploadSessionService.PresignedUpload upload = uploadSessionService.createSession("report.pdf", 1234);
+
+        String url = upload.uploadUrl().toString();
+        assertEquals(upload.id() + "-report.pdf", upload.fileName());
+        assertTrue(url.contains(upload.fileName()), url);
+        // The signer measures expiry from its own clock reading, which can fall a second later than ours
+        assertTrue(url.matches(".*X-Amz-Expires=(899|900)(&.*)?"), url);
+        assertTrue(url.contains("X-Amz-SignedHeaders=content-length%3Bhost"), url);
+
+        ArgumentCaptor<UploadSession> sessionCaptor = ArgumentCaptor.forClass(UploadSession.class);
+        verify(uploadSessionRepository).save(sessionCaptor.capture());
+        assertEquals(upload.id(), sessionCaptor.getValue().getId());
+        assertEquals(1234, sessionCaptor.getValue().getContentLength());
+        assertEquals(upload.expiresAt(), sessionCaptor.getValue().getExpiresAt());
+    }
+
+    @Test
+    public void testCompleteCommitsMetadataUnderReservedId() {
+        UploadSession session = session(LocalDateTime.now(ZoneOffset.UTC).plusMinutes(5));
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder().contentLength(1234L).build());
+        when(uploadSessionRepository.claim(session.getId())).thenReturn(1);
+
+        UploadSessionService.Completion completion = uploadSessionService.completeSession(session.getId());
+
+        assertEquals(UploadSessionService.Outcome.COMPLETED, completion.outcome());
+        assertEquals(session.getId(), completion.metadata().getId());
+        assertEquals(session.getFileName(), completion.metadata().getFileName());
+        verify(fileMetadataRepository).save(completion.metadata());
+        verify(fileMetadataCache).put(completion.metadata());
+    }
+
+    @Test
+    public void testCompleteBeforeUploadLeavesSessionOpen() {
+        UploadSession session = session(LocalDateTime.now(ZoneOffset.UTC).plusMinutes(5));
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().statusCode(404).build());
+
+        UploadSessionService.Completion completion = uploadSessionService.completeSession(session.getId());
+
+        assertEquals(UploadSessionService.Outcome.OBJECT_MISSING, completion.outcome());
+        verify(uploadSessionRepository, never()).claim(any());
+        verify(fileMetadataRepository, never()).save(any());
+    }
+
+    @Test
+    public void testExpiredSessionIsNotCompleted() {
+        UploadSession session = session(LocalDateTime.now(ZoneOffset.UTC).minusSeconds(1));
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+
+        UploadSessionService.Completion completion = uploadSessionService.completeSession(session.getId());
+
+        assertEquals(UploadSessionService.Outcome.EXPIRED, completion.outcome());
+        verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+        verify(fileMetadataRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSessionClaimedByCleanupIsNotCommitted() {
+        UploadSession session = session(LocalDateTime.now(ZoneOffset.UTC).plusMinutes(5));
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder().contentLength(1234L).build());
+        when(uploadSessionRepository.claim(session.getId())).thenReturn(0);
+        when(fileMetadataRepository.findById(session.getId())).thenReturn(Optional.empty());
+
+        UploadSessionService.Completion completion = uploadSessionService.completeSession(session.getId());
+
+        assertEquals(UploadSessionService.Outcome.EXPIRED, completion.outcome());
+        verify(fileMetadataRepository, never()).save(any(FileMetadata.class));
+        verify(fileMetadataCache, never()).put(any());
+    }
+
+    private static UploadSession session(LocalDateTime expiresAt) {
+        UUID id = UUID.randomUUID();
+        return new UploadSession(id, id + "-report.pdf", 1234, expiresAt);
+    }
+}
@@ -0,0 +1,102 @@
+package com.srivarini.csye6225.cloud.support;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps a DataSource (typically in-memory H2 in MySQL mode) so that every statement execution can be slowed down
+ * by a fixed latency, simulating a network hop to MySQL, and can fail with a {@link SQLTransientException} at a
+ * configurable rate. Both knobs can be changed while the application is running.
+ */
+public class FaultInjectingDataSource extends DelegatingDataSource {
+
+    private final AtomicLong injectedErrorCount = new AtomicLong();
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+
+    public FaultInjectingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public long injectedErrorCount() {
+        return injectedErrorCount.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return switch (result) {
+                        case CallableStatement statement -> wrapStatement(statement, CallableStatement.class);
+                        case PreparedStatement statement -> wrapStatement(statement, PreparedStatement.class);
+                        case Statement statement -> wrapStatement(statement, Statement.class);
+                        case null, default -> result;
+                    };
+                });
+    }
+
+    private Object wrapStatement(Statement statement, Class<? extends Statement> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                beforeExecute();
+            }
+            return invoke(statement, method, args);
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private void beforeExecute() throws SQLException {
+        long latency = latencyMillis;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientException("Interrupted during injected latency", e);
+            }
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrorCount.incrementAndGet();
+            throw new SQLTransientException("Injected database fault");
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
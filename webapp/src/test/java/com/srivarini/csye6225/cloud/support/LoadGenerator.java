@@ -0,0 +1,164 @@
+package com.srivarini.csye6225.cloud.support;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load driver: issues a weighted mix of operations at a fixed arrival rate, whether or not earlier
+ * requests have completed. Latency is measured from each request's scheduled start rather than from when it was
+ * actually sent, so a stalled server shows up in the percentiles instead of silently lowering the request rate.
+ * Arrivals that find {@code maxOutstanding} requests already in flight are counted as errors, not queued.
+ */
+public class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    /**
+     * One kind of request in the mix. The action completes with true when the response was the expected one.
+     */
+    public record Operation(String name, int weight, Supplier<CompletableFuture<Boolean>> action) {
+    }
+
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final double ratePerSecond;
+    private final int maxOutstanding;
+
+    public LoadGenerator(List<Operation> operations, double ratePerSecond, int maxOutstanding) {
+        this.operations = List.copyOf(operations);
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        this.ratePerSecond = ratePerSecond;
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    public Report run(Duration duration) throws InterruptedException {
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        operations.forEach(operation -> stats.put(operation.name(), new OperationStats()));
+        AtomicInteger outstanding = new AtomicInteger();
+        AtomicLong rejected = new AtomicLong();
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong peakHeap = new AtomicLong(memory.getHeapMemoryUsage().getUsed());
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(
+                runnable -> Thread.ofPlatform().name("load-heap-sampler").daemon().unstarted(runnable));
+        sampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0, 100, TimeUnit.MILLISECONDS);
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long issued = 0;
+        try {
+            for (long intended = start; intended < end; intended = start + ++issued * intervalNanos) {
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = pick();
+                OperationStats operationStats = stats.get(operation.name());
+                if (outstanding.incrementAndGet() > maxOutstanding) {
+                    outstanding.decrementAndGet();
+                    rejected.incrementAndGet();
+                    operationStats.rejected.incrementAndGet();
+                    continue;
+                }
+                long scheduledAt = intended;
+                CompletableFuture<Boolean> result;
+                try {
+                    result = operation.action().get();
+                } catch (RuntimeException e) {
+                    result = CompletableFuture.failedFuture(e);
+                }
+                result.whenComplete((ok, ex) -> {
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt);
+                    operationStats.latency.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                    if (ex != null || !Boolean.TRUE.equals(ok)) {
+                        operationStats.errors.incrementAndGet();
+                    }
+                    outstanding.decrementAndGet();
+                });
+            }
+            // Let in-flight requests finish so their latencies are counted
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            sampler.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        return Report.from(ratePerSecond, elapsedSeconds, issued, rejected.get(), outstanding.get(), stats,
+                peakHeap.get(), memory.getHeapMemoryUsage().getMax());
+    }
+
+    private Operation pick() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            roll -= operation.weight();
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private static final class OperationStats {
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+    }
+
+    public record OperationReport(long requests, long errors, double errorRate, double p50Ms, double p99Ms, double maxMs) {
+    }
+
+    public record Report(double targetRate, double durationSeconds, long issued, long rejected, long unfinished,
+                         double throughput, long errors, double errorRate, double p99Ms, long peakHeapMb, long maxHeapMb,
+                         Map<String, OperationReport> operations) {
+
+        private static Report from(double targetRate, double durationSeconds, long issued, long rejected, long unfinished,
+                                   Map<String, OperationStats> stats, long peakHeapBytes, long maxHeapBytes) {
+            Map<String, OperationReport> operations = new LinkedHashMap<>();
+            Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+            long errors = unfinished;
+            for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+                Histogram latency = entry.getValue().latency;
+                long operationRejected = entry.getValue().rejected.get();
+                long operationErrors = entry.getValue().errors.get() + operationRejected;
+                long requests = latency.getTotalCount() + operationRejected;
+                all.add(latency);
+                errors += operationErrors;
+                operations.put(entry.getKey(), new OperationReport(requests, operationErrors,
+                        requests == 0 ? 0 : (double) operationErrors / requests,
+                        millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                        millis(latency.getMaxValue())));
+            }
+            return new Report(targetRate, round(durationSeconds), issued, rejected, unfinished,
+                    round(all.getTotalCount() / durationSeconds), errors, issued == 0 ? 0 : round((double) errors / issued),
+                    millis(all.getValueAtPercentile(99)), peakHeapBytes >> 20, maxHeapBytes >> 20, operations);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 1000.0) / 1000.0;
+        }
+    }
+}
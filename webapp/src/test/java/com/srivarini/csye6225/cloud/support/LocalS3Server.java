@@ -0,0 +1,266 @@
+package com.srivarini.csye6225.cloud.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal in-process S3 stand-in for benchmarks and load tests.
+ * Speaks just enough of the path-style REST API (PUT/GET/HEAD/DELETE object, multi-object delete) for the SDK clients,
+ * with a configurable per-request latency and error rate. Objects are kept in memory unless {@code storeObjects}
+ * is false. Injected errors are S3 {@code 500 InternalError} responses, which the SDK treats as retryable.
+ */
+public class LocalS3Server implements AutoCloseable {
+
+    static {
+        // Without TCP_NODELAY small responses stall on delayed ACKs and cap throughput at a few hundred req/sec
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final Pattern DELETE_KEY = Pattern.compile("<Key>(.*?)</Key>", Pattern.DOTALL);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final Map<String, AtomicLong> requestCountByMethod = new ConcurrentHashMap<>();
+    private final AtomicLong injectedErrorCount = new AtomicLong();
+    private final boolean storeObjects;
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+
+    public LocalS3Server(long latencyMillis, boolean storeObjects) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.storeObjects = storeObjects;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    // Fraction (0..1) of requests answered with 500 InternalError instead of being served
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public long injectedErrorCount() {
+        return injectedErrorCount.get();
+    }
+
+    public long requestCount() {
+        return requestCount.get();
+    }
+
+    public long requestCount(String method) {
+        AtomicLong count = requestCountByMethod.get(method);
+        return count == null ? 0 : count.get();
+    }
+
+    public boolean containsObject(String bucket, String key) {
+        return objects.containsKey(bucket + "/" + key);
+    }
+
+    public int objectCount() {
+        return objects.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        requestCountByMethod.computeIfAbsent(exchange.getRequestMethod(), method -> new AtomicLong()).incrementAndGet();
+        try (exchange) {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            String path = exchange.getRequestURI().getPath().substring(1);
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrorCount.incrementAndGet();
+                // Drain the upload so the connection stays usable for the SDK's retry
+                exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+                sendError(exchange, 500, "InternalError");
+                return;
+            }
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    byte[] body = readBody(exchange);
+                    if (storeObjects) {
+                        objects.put(path, body);
+                    }
+                    exchange.getResponseHeaders().add("ETag", etag(body));
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "GET", "HEAD" -> {
+                    byte[] body = objects.get(path);
+                    if (body == null) {
+                        sendError(exchange, 404, "NoSuchKey");
+                        return;
+                    }
+                    exchange.getResponseHeaders().add("ETag", etag(body));
+                    exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+                    String range = exchange.getRequestHeaders().getFirst("Range");
+                    if (range != null && "GET".equals(exchange.getRequestMethod())) {
+                        sendRange(exchange, body, range);
+                        return;
+                    }
+                    if ("HEAD".equals(exchange.getRequestMethod())) {
+                        exchange.getResponseHeaders().add("Content-Length", String.valueOf(body.length));
+                        exchange.sendResponseHeaders(200, -1);
+                    } else {
+                        exchange.sendResponseHeaders(200, body.length);
+                        try (OutputStream out = exchange.getResponseBody()) {
+                            out.write(body);
+                        }
+                    }
+                }
+                case "DELETE" -> {
+                    objects.remove(path);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                case "POST" -> {
+                    String query = exchange.getRequestURI().getQuery();
+                    if (query == null || !query.startsWith("delete")) {
+                        sendError(exchange, 405, "MethodNotAllowed");
+                        return;
+                    }
+                    // DeleteObjects in quiet mode: only errors are reported, and this stand-in never has any
+                    Matcher key = DELETE_KEY.matcher(new String(readBody(exchange), StandardCharsets.UTF_8));
+                    while (key.find()) {
+                        objects.remove(path + "/" + unescapeXml(key.group(1)));
+                    }
+                    byte[] body = "<DeleteResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"></DeleteResult>"
+                            .getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Content-Type", "application/xml");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+                default -> sendError(exchange, 405, "MethodNotAllowed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A single "bytes=first-last", "bytes=first-" or "bytes=-suffix" range, as S3 supports
+    private static void sendRange(HttpExchange exchange, byte[] body, String range) throws IOException {
+        String[] bounds = range.substring("bytes=".length()).split("-", -1);
+        long first;
+        long last;
+        if (bounds[0].isEmpty()) {
+            first = Math.max(0, body.length - Long.parseLong(bounds[1]));
+            last = body.length - 1;
+        } else {
+            first = Long.parseLong(bounds[0]);
+            last = bounds[1].isEmpty() ? body.length - 1 : Math.min(Long.parseLong(bounds[1]), body.length - 1);
+        }
+        if (first >= body.length) {
+            sendError(exchange, 416, "InvalidRange");
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + first + "-" + last + "/" + body.length);
+        exchange.sendResponseHeaders(206, last - first + 1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body, (int) first, (int) (last - first + 1));
+        }
+    }
+
+    // The SDK validates PutObject/GetObject ETags against the MD5 of the payload
+    private static String etag(byte[] body) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(body)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String unescapeXml(String text) {
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code) throws IOException {
+        byte[] body = ("<Error><Code>" + code + "</Code><Message>" + code + "</Message></Error>").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Reads the request body, decoding the aws-chunked framing the SDK uses for unsigned-endpoint streaming uploads
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        String contentSha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        boolean awsChunked = contentSha != null && contentSha.startsWith("STREAMING-");
+        try (InputStream in = exchange.getRequestBody()) {
+            if (!awsChunked) {
+                return in.readAllBytes();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            while (true) {
+                String header = readLine(in);
+                if (header == null) {
+                    break;
+                }
+                if (header.isEmpty()) {
+                    continue;
+                }
+                int semicolon = header.indexOf(';');
+                int size = Integer.parseInt(semicolon >= 0 ? header.substring(0, semicolon) : header, 16);
+                if (size == 0) {
+                    break;
+                }
+                out.write(in.readNBytes(size));
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                int length = line.length();
+                return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+            }
+            line.append((char) c);
+        }
+        return line.isEmpty() ? null : line.toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,38 @@
+#!/bin/bash
+# Time to first healthy /healthz: starts the application with the given command, polls /healthz until it answers
+# 200 and records the time since launch, then stops it. Prints every run and the median.
+# The application needs its usual environment (DB_URL, DB_USERNAME, DB_PASSWORD, AWS_REGION, AWS_S3_BUCKET_NAME).
+#
+# Before (plain jar, Hibernate updating the schema):
+#   ./startup-time.sh 5 java -jar target/cloud-0.0.1-SNAPSHOT.jar --spring.jpa.hibernate.ddl-auto=update --db.migration.enabled=false
+# After (mvn -Pfaststart package -DskipTests):
+#   ./startup-time.sh 5 java -XX:SharedArchiveFile=target/faststart/application.jsa -Dspring.aot.enabled=true -jar target/faststart/cloud-0.0.1-SNAPSHOT.jar
+
+RUNS=${1:?"Usage: $0 <runs> <command...>"}
+shift
+PORT=${PORT:-8080}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+times=()
+for ((run = 1; run <= RUNS; run++)); do
+    start=$(date +%s%N)
+    "$@" --server.port="$PORT" > "${LOG_FILE:-/dev/null}" 2>&1 &
+    pid=$!
+    deadline=$((SECONDS + TIMEOUT_SECONDS))
+    until [[ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:${PORT}/healthz")" == "200" ]]; do
+        if ! kill -0 "$pid" 2>/dev/null || ((SECONDS > deadline)); then
+            echo "Run ${run}: the application did not become healthy" >&2
+            kill "$pid" 2>/dev/null
+            exit 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$((($(date +%s%N) - start) / 1000000))
+    kill "$pid"
+    wait "$pid" 2>/dev/null
+    echo "Run ${run}: ${elapsed} ms"
+    times+=("$elapsed")
+done
+
+sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+echo "Median time to healthy /healthz: ${sorted[$((RUNS / 2))]} ms"